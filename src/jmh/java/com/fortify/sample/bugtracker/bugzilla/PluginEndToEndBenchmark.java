@@ -0,0 +1,130 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.fortify.pub.bugtracker.support.BugParam;
+import com.fortify.pub.bugtracker.support.BugSubmission;
+import com.fortify.pub.bugtracker.support.UserAuthenticationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmarks of plugin operations against the in-process {@link BugzillaStubServer} over loopback HTTP.
+ * <P>
+ * Metadata and bug state caches are disabled, so every operation executes its Bugzilla requests.
+ * Sample time mode reports latency percentiles next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PluginEndToEndBenchmark {
+
+	private static final UserAuthenticationStore CREDENTIALS = new UserAuthenticationStore() {
+		@Override
+		public String getUserName() {
+			return "stub@example.com";
+		}
+
+		@Override
+		public String getPassword() {
+			return "password";
+		}
+	};
+
+	/**
+	 * Number of products accessible by the user.
+	 */
+	@Param({"10", "1000"})
+	public int productCount;
+
+	/**
+	 * HTTP transport of the XML-RPC client.
+	 */
+	@Param({BugzillaPluginConstants.HTTP_TRANSPORT_KEEP_ALIVE, BugzillaPluginConstants.HTTP_TRANSPORT_LEGACY})
+	public String httpTransport;
+
+	private static final int BUG_COUNT = 1000;
+	private static final int FETCHED_BUG_COUNT = 200;
+
+	private BugzillaStubServer stub;
+	private Bugzilla4BugTrackerPlugin plugin;
+	private List<String> fetchedBugIds;
+
+	@Setup
+	public void setUp() throws Exception {
+		stub = BugzillaStubServer.builder().products(productCount, 5, 5).bugs(BUG_COUNT).start();
+		final Map<String, String> config = new HashMap<>();
+		config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, stub.getUrl());
+		config.put(BugzillaPluginConstants.HTTP_TRANSPORT_NAME, httpTransport);
+		config.put(BugzillaPluginConstants.AdvancedField.PRODUCT_CATALOG_CACHE_TTL.getFieldName(), "0");
+		config.put(BugzillaPluginConstants.AdvancedField.LEGAL_VALUES_CACHE_TTL.getFieldName(), "0");
+		config.put(BugzillaPluginConstants.AdvancedField.BUG_STATE_CACHE_TTL.getFieldName(), "0");
+		plugin = new Bugzilla4BugTrackerPlugin();
+		plugin.setConfiguration(config);
+		fetchedBugIds = new ArrayList<>();
+		for (int i = 1; i <= FETCHED_BUG_COUNT; i++) {
+			fetchedBugIds.add(String.valueOf(i));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		plugin.stop();
+		stub.close();
+	}
+
+	@Benchmark
+	public List<BugParam> getBugParameters() {
+		return plugin.getBugParameters(null, CREDENTIALS);
+	}
+
+	@Benchmark
+	public Bug fileBug() {
+		final Map<String, String> params = new HashMap<>();
+		params.put(BugzillaPluginConstants.PRODUCT_PARAM_NAME, "Product 1");
+		params.put(BugzillaPluginConstants.COMPONENT_PARAM_NAME, "Component 1");
+		params.put(BugzillaPluginConstants.VERSION_PARAM_NAME, "1.1");
+		params.put(BugzillaPluginConstants.PRIORITY_PARAM_NAME, "High");
+		params.put(BugzillaPluginConstants.SUMMARY_PARAM_NAME, "Fortify Bug: SQL Injection in Dao.java");
+		params.put(BugzillaPluginConstants.DESCRIPTION_PARAM_NAME, "Issue Ids: 8E3A2C94D1B0F6A7");
+		final BugSubmission submission = new BugSubmission();
+		submission.setParams(params);
+		return plugin.fileBug(submission, CREDENTIALS);
+	}
+
+	@Benchmark
+	public Bug fetchBugDetails() {
+		return plugin.fetchBugDetails("1", CREDENTIALS);
+	}
+
+	@Benchmark
+	public Map<String, Bug> fetchBugDetailsBulk() {
+		return plugin.fetchBugDetails(fetchedBugIds, CREDENTIALS);
+	}
+
+	@Benchmark
+	public void addCommentToBug() {
+		plugin.addCommentToBug(new Bug("1", "CONFIRMED"), "Issue is still present", CREDENTIALS);
+	}
+}
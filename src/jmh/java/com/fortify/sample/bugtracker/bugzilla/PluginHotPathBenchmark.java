@@ -0,0 +1,128 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.j2bugzilla.base.BugFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the CPU bound plugin code executed for every bug or every request.
+ * <P>
+ * {@code sanitizeEmptyDtoBugFields2} has been replaced by projected reading of bug states, so the bug result
+ * conversion of {@link GetBugs} is measured instead, together with the former conversion to full j2bugzilla bugs as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginHotPathBenchmark {
+
+	/**
+	 * Number of bugs in a bulk bug state result.
+	 */
+	@Param({"1", "200"})
+	public int bugCount;
+
+	private final Bugzilla4BugTrackerPlugin plugin = new Bugzilla4BugTrackerPlugin();
+	private Map<String, String> bugParams;
+	private List<String> priorities;
+	private GetBugs getBugs;
+	private Object[] resultBugs;
+
+	@Setup
+	public void setUp() {
+		bugParams = new HashMap<>();
+		bugParams.put("product", "Product 1");
+		bugParams.put("component", "Component 1");
+		bugParams.put("version", "1.1");
+		bugParams.put("priority", "High");
+		bugParams.put("summary", "Fortify Bug: SQL Injection in " + String.join("/", Collections.nCopies(40, "module")) + "/Dao.java");
+		bugParams.put("description", "Issue Ids: " + String.join(",", Collections.nCopies(50, "8E3A2C94D1B0F6A7")));
+
+		priorities = new ArrayList<>();
+		for (String priority : new String[]{"---", "P5", "P4", "P3", "P2", "P1", "Highest", "High", "Normal", "Low", "Lowest", "Blocker"}) {
+			priorities.add(priority);
+		}
+
+		final Object[] bugs = new Object[bugCount];
+		for (int i = 0; i < bugCount; i++) {
+			final Map<Object, Object> bug = new LinkedHashMap<>();
+			bug.put("id", i + 1);
+			bug.put("status", i % 3 == 0 ? "RESOLVED" : "CONFIRMED");
+			bug.put("resolution", i % 3 == 0 ? "FIXED" : "");
+			bug.put("summary", "Bug " + (i + 1));
+			bug.put("product", "Product 1");
+			bug.put("component", "Component 1");
+			bug.put("version", "1.1");
+			bug.put("priority", "High");
+			bug.put("op_sys", "All");
+			bug.put("platform", "All");
+			bugs[i] = bug;
+		}
+		final Map<Object, Object> result = new HashMap<>();
+		result.put("bugs", bugs);
+		getBugs = GetBugs.forBugStates(Collections.singletonList(1), true);
+		getBugs.setResultMap(result);
+		resultBugs = bugs;
+	}
+
+	@Benchmark
+	public Map<String, Object> getPostDataStrMap() {
+		return plugin.getPostDataStrMap(bugParams);
+	}
+
+	@Benchmark
+	public List<String> getSortedPriorities() {
+		return plugin.getSortedPriorities(priorities);
+	}
+
+	@Benchmark
+	public double stringVersionToDouble() {
+		return Bugzilla4BugTrackerPlugin.stringVersionToDouble("5.0.4+");
+	}
+
+	@Benchmark
+	public List<Bug> getBugStates() {
+		return getBugs.getBugStates();
+	}
+
+	/**
+	 * Baseline: conversion of the whole bug maps to full j2bugzilla bugs the same way as {@link com.j2bugzilla.rpc.GetBug} does.
+	 */
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<com.j2bugzilla.base.Bug> getBugs() {
+		final BugFactory factory = new BugFactory();
+		final List<com.j2bugzilla.base.Bug> result = new ArrayList<>(resultBugs.length);
+		for (Object bug : resultBugs) {
+			final Map<String, Object> bugMap = new HashMap<>((Map<String, Object>) bug);
+			if (bugMap.get("version") instanceof Double) {
+				bugMap.put("version", Double.toString((Double) bugMap.get("version")));
+			}
+			result.add(factory.createBug(bugMap));
+		}
+		return result;
+	}
+}
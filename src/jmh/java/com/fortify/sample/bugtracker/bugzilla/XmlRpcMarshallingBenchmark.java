@@ -0,0 +1,165 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugFactory;
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.rpc.ReportBug;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcStreamTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactory;
+import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of XML-RPC marshalling of Bug.create and Bug.get requests and unmarshalling of their responses
+ * by {@link XmlRpcBugzillaClient} without any network I/O. Requests are written to a discarding stream and canned
+ * responses are read from memory by an in-memory transport plugged in by {@link HttpTransportFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlRpcMarshallingBenchmark {
+
+	/**
+	 * Number of bugs requested and returned by Bug.get.
+	 */
+	@Param({"1", "200"})
+	public int bugCount;
+
+	private final InMemoryTransportFactory transport = new InMemoryTransportFactory();
+	private XmlRpcBugzillaClient client;
+	private com.j2bugzilla.base.Bug reportedBug;
+	private List<Integer> bugIds;
+	private byte[] reportBugResponse;
+	private byte[] getBugsResponse;
+
+	@Setup
+	public void setUp() throws Exception {
+		client = new XmlRpcBugzillaClient(new URL("http://localhost/bugzilla"), 1000, 1000, transport, null, null, null, null);
+		reportedBug = new BugFactory().newBug()
+				.setProduct("Product 1")
+				.setComponent("Component 1")
+				.setVersion("1.1")
+				.setPriority("High")
+				.setOperatingSystem("All")
+				.setPlatform("All")
+				.setSummary("Fortify Bug: SQL Injection in Dao.java")
+				.setDescription("Issue Ids: " + String.join(",", Collections.nCopies(50, "8E3A2C94D1B0F6A7")))
+				.createBug();
+		reportBugResponse = bytes(XmlRpcCodec.writeResponse(Collections.singletonMap("id", 12345)));
+
+		bugIds = new ArrayList<>();
+		final List<Object> bugs = new ArrayList<>();
+		for (int i = 1; i <= bugCount; i++) {
+			bugIds.add(i);
+			final Map<String, Object> bug = new LinkedHashMap<>();
+			bug.put("id", i);
+			bug.put("status", "CONFIRMED");
+			bug.put("resolution", "");
+			bugs.add(bug);
+		}
+		final Map<String, Object> result = new HashMap<>();
+		result.put("bugs", bugs);
+		result.put("faults", new Object[0]);
+		getBugsResponse = bytes(XmlRpcCodec.writeResponse(result));
+	}
+
+	private static byte[] bytes(final String response) {
+		return response.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public int reportBug() throws BugzillaException {
+		transport.response = reportBugResponse;
+		final ReportBug reportBug = new ReportBug(reportedBug);
+		client.executeMethod(reportBug);
+		return reportBug.getID();
+	}
+
+	@Benchmark
+	public Object getBugStates() throws BugzillaException {
+		transport.response = getBugsResponse;
+		final GetBugs getBugs = GetBugs.forBugStates(bugIds, true);
+		client.executeMethod(getBugs);
+		return getBugs.getBugStates();
+	}
+
+	/**
+	 * Transport factory of the in-memory transport, the benchmark state is thread confined, so the response
+	 * does not have to be synchronized.
+	 */
+	private static final class InMemoryTransportFactory implements HttpTransportFactory {
+		private byte[] response;
+
+		@Override
+		public XmlRpcTransportFactory create(final XmlRpcClient client, final Proxy proxy
+				, final String proxyUser, final String proxyPassword, final ActiveConnections activeConnections
+				, final SessionCookies cookies) {
+			return () -> new XmlRpcStreamTransport(client) {
+				@Override
+				protected void close() {
+					// Nothing to close.
+				}
+
+				@Override
+				protected boolean isResponseGzipCompressed(final XmlRpcStreamRequestConfig config) {
+					return false;
+				}
+
+				@Override
+				protected InputStream getInputStream() {
+					return new ByteArrayInputStream(response);
+				}
+
+				@Override
+				protected void writeRequest(final ReqWriter writer) throws XmlRpcException, IOException, SAXException {
+					writer.write(DISCARD);
+				}
+			};
+		}
+	}
+
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+			// Discarded.
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			// Discarded.
+		}
+	};
+}
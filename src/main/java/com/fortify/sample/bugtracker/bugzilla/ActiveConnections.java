@@ -0,0 +1,59 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP connections of the requests in progress of a single Bugzilla client, so the requests can be aborted from another thread.
+ * <P>
+ * Once aborted, connections of the requests in progress are disconnected, which makes their blocked reads and writes fail,
+ * and every later request fails immediately.
+ */
+final class ActiveConnections {
+
+	private final Set<HttpURLConnection> connections = ConcurrentHashMap.newKeySet();
+	private volatile boolean aborted;
+
+	/**
+	 * Register the connection of a request in progress.
+	 *
+	 * @param conn connection of the request
+	 * @throws IOException if the requests have been aborted
+	 */
+	void add(final HttpURLConnection conn) throws IOException {
+		connections.add(conn);
+		if (aborted) {
+			connections.remove(conn);
+			throw new IOException("Bugzilla request has been aborted");
+		}
+	}
+
+	/**
+	 * Unregister the connection after the request finished.
+	 *
+	 * @param conn connection of the request
+	 */
+	void remove(final HttpURLConnection conn) {
+		connections.remove(conn);
+	}
+
+	boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Abort the requests in progress and reject all later requests.
+	 */
+	void abort() {
+		aborted = true;
+		for (HttpURLConnection conn : connections) {
+			conn.disconnect();
+		}
+		connections.clear();
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor of asynchronous plugin operations shared by all plugin instances.
+ * <P>
+ * Operations are executed by at most {@link #MAX_THREADS} daemon threads with a bounded queue. When the queue is full,
+ * the operation is executed by the submitting thread, which slows down the submitter instead of failing the operation.
+ * Operations submitted from an executor thread (an asynchronous operation using another one) are executed directly,
+ * so nested operations never wait for a free executor thread. Cancelling a returned future with interruption
+ * interrupts the executor thread running the operation.
+ */
+final class AsyncExecutor {
+
+	/**
+	 * Maximum number of threads executing asynchronous operations.
+	 */
+	static final int MAX_THREADS = 32;
+
+	private static final int QUEUE_CAPACITY = 256;
+
+	private static final ThreadPoolExecutor POOL = createPool();
+
+	private AsyncExecutor() {
+		// No implementation.
+	}
+
+	private static ThreadPoolExecutor createPool() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS
+				, new ArrayBlockingQueue<>(QUEUE_CAPACITY)
+				, r -> {
+					final Thread thread = new WorkerThread(r, "bugzilla-async-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+				, new ThreadPoolExecutor.CallerRunsPolicy());
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Execute the operation asynchronously.
+	 *
+	 * @param operation operation to be executed
+	 * @param <T> result type
+	 * @return future completed by the operation result or by the exception thrown by the operation,
+	 * {@code cancel(true)} removes a queued operation and interrupts a running one
+	 */
+	static <T> CompletableFuture<T> supply(final Supplier<T> operation) {
+		if (Thread.currentThread() instanceof WorkerThread) {
+			final CompletableFuture<T> future = new CompletableFuture<>();
+			try {
+				future.complete(operation.get());
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+			return future;
+		}
+		final TaskFuture<T> future = new TaskFuture<>();
+		future.task = POOL.submit(() -> {
+			if (future.isDone()) {
+				// Cancelled while queued
+				return;
+			}
+			try {
+				future.complete(operation.get());
+			} catch (RuntimeException | Error e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Future of an operation submitted to the pool, cancellation is propagated to the pool task.
+	 */
+	private static final class TaskFuture<T> extends CompletableFuture<T> {
+		private volatile Future<?> task;
+
+		@Override
+		public boolean cancel(final boolean mayInterruptIfRunning) {
+			final boolean cancelled = super.cancel(mayInterruptIfRunning);
+			final Future<?> submitted = task;
+			if (submitted != null) {
+				submitted.cancel(mayInterruptIfRunning);
+			}
+			return cancelled;
+		}
+	}
+
+	private static final class WorkerThread extends Thread {
+		WorkerThread(final Runnable target, final String name) {
+			super(target, name);
+		}
+	}
+}
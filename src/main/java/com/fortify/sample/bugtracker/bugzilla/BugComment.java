@@ -0,0 +1,32 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+
+/**
+ * Bug together with a comment to be added to it by a bulk reopen or comment operation.
+ */
+public final class BugComment {
+
+	private final Bug bug;
+	private final String comment;
+
+	/**
+	 * @param bug bug to be updated
+	 * @param comment comment added to the bug, null or blank if no comment is added
+	 */
+	public BugComment(final Bug bug, final String comment) {
+		this.bug = bug;
+		this.comment = comment;
+	}
+
+	public Bug getBug() {
+		return bug;
+	}
+
+	public String getComment() {
+		return comment;
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.CLOSED_STATUS;
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.NON_REOPENABLE_RESOLUTION;
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.STATUS_REOPENED;
+
+/**
+ * Immutable lookup tables classifying bug statuses and resolutions of a Bugzilla server workflow.
+ * <P>
+ * Tables are built from the bug status definitions returned by the server (see {@link GetStatusWorkflow}),
+ * so custom workflows are classified correctly. {@link #DEFAULT} describes the default Bugzilla 4 workflow and is used
+ * when the server definitions cannot be loaded.
+ */
+final class BugWorkflow {
+
+	private static final Set<String> NON_REOPENABLE_RESOLUTIONS = toNameSet(NON_REOPENABLE_RESOLUTION.values());
+
+	/**
+	 * Default Bugzilla 4 workflow, any closed status can be reopened to {@link BugzillaPluginConstants#STATUS_REOPENED}.
+	 */
+	static final BugWorkflow DEFAULT = new BugWorkflow(toNameSet(CLOSED_STATUS.values()), null);
+
+	private final Set<String> closedStatuses;
+	private final Map<String, String> reopenStatuses;
+
+	/**
+	 * @param closedStatuses statuses which are not open
+	 * @param reopenStatuses open status a bug is reopened to, keyed by the statuses which can be reopened,
+	 *                       null if transitions are not known and all statuses are reopened to {@link BugzillaPluginConstants#STATUS_REOPENED}
+	 */
+	BugWorkflow(final Collection<String> closedStatuses, final Map<String, String> reopenStatuses) {
+		this.closedStatuses = Collections.unmodifiableSet(new HashSet<>(closedStatuses));
+		this.reopenStatuses = reopenStatuses == null ? null : Collections.unmodifiableMap(new HashMap<>(reopenStatuses));
+	}
+
+	private static Set<String> toNameSet(final Enum<?>[] values) {
+		final Set<String> names = new HashSet<>();
+		for (Enum<?> value : values) {
+			names.add(value.name());
+		}
+		return Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * @param status bug status
+	 * @return true if the status is not open
+	 */
+	boolean isClosed(final String status) {
+		return (status != null) && closedStatuses.contains(status);
+	}
+
+	/**
+	 * Return true if the bug resolution allows to reopen the bug and the workflow allows to change its status
+	 * to an open status. Status transition is not checked if the bug status is not known.
+	 *
+	 * @param bug bug with its current status and resolution
+	 * @return true if the bug can be reopened
+	 */
+	boolean canReopen(final Bug bug) {
+		if ((bug.getBugResolution() != null) && NON_REOPENABLE_RESOLUTIONS.contains(bug.getBugResolution())) {
+			return false;
+		}
+		return (reopenStatuses == null) || (bug.getBugStatus() == null) || reopenStatuses.containsKey(bug.getBugStatus());
+	}
+
+	/**
+	 * Return the open status the bug is changed to when it is reopened. {@link BugzillaPluginConstants#STATUS_REOPENED}
+	 * is returned if the transitions or the bug status are not known.
+	 *
+	 * @param bug bug which can be reopened
+	 * @return status of the reopened bug
+	 */
+	String getReopenStatus(final Bug bug) {
+		final String status = (reopenStatuses == null) || (bug.getBugStatus() == null) ? null : reopenStatuses.get(bug.getBugStatus());
+		return status == null ? STATUS_REOPENED : status;
+	}
+}
@@ -6,6 +6,7 @@ package com.fortify.sample.bugtracker.bugzilla;
 import com.fortify.pub.bugtracker.plugin.AbstractBatchBugTrackerPlugin;
 import com.fortify.pub.bugtracker.plugin.BatchBugTrackerPlugin;
 import com.fortify.pub.bugtracker.plugin.BugTrackerPluginImplementation;
+import com.fortify.pub.bugtracker.plugin.InterruptableBugtracker;
 import com.fortify.pub.bugtracker.support.Bug;
 import com.fortify.pub.bugtracker.support.BugParam;
 import com.fortify.pub.bugtracker.support.BugParamChoice;
@@ -20,23 +21,21 @@ import com.fortify.pub.bugtracker.support.MultiIssueBugSubmission;
 import com.fortify.pub.bugtracker.support.UserAuthenticationStore;
 
 import com.j2bugzilla.base.BugFactory;
-import com.j2bugzilla.base.BugzillaConnector;
 import com.j2bugzilla.base.BugzillaException;
 import com.j2bugzilla.base.BugzillaMethod;
 import com.j2bugzilla.base.BugzillaTransportException;
 import com.j2bugzilla.base.ConnectionException;
-import com.j2bugzilla.base.Product;
 import com.j2bugzilla.rpc.BugzillaVersion;
 import com.j2bugzilla.rpc.CommentBug;
 import com.j2bugzilla.rpc.GetAccessibleProducts;
-import com.j2bugzilla.rpc.GetBug;
 import com.j2bugzilla.rpc.GetLegalValues;
-import com.j2bugzilla.rpc.GetProduct;
 import com.j2bugzilla.rpc.LogIn;
 import com.j2bugzilla.rpc.ReportBug;
-import com.j2bugzilla.rpc.UpdateBug;
 import org.apache.commons.lang.StringUtils;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClientException;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
@@ -44,18 +43,29 @@ import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -72,23 +82,123 @@ import static java.util.stream.Collectors.toList;
  * Plugin uses modified j2bugzilla library (2.3.1-SNAPSHOT)
  * from https://github.com/TomRK1089/j2bugzilla/commit/07aaff6dfa3d99e8cea2e8e800c813ffee2eb49a
  * Note: Library j2bugzilla uses Apache XML-RPC client for communication with the corresponding Bugzilla RPC API
- *       and XML-RPC client uses for transport java.net.HttpURLConnection
+ *       and XML-RPC client uses for transport java.net.HttpURLConnection.
+ *       Plugin executes j2bugzilla methods by its own {@link XmlRpcBugzillaClient} with a pluggable {@link HttpTransportFactory},
+ *       by default {@link KeepAliveTransportFactory} reusing persistent connections and requesting gzip compressed responses.
+ *       Optionally the same methods are executed through the Bugzilla 5 REST API by {@link RestBugzillaClient},
+ *       XML-RPC stays in use for servers without the REST API.
  * <P>
  * Plugin accepts predefined proxy parameters if they are sent and configured from SSC, and uses a corresponding proxy for http/https requests.
  * <P>
- * A new instance of BugzillaConnector for further processing is returned from
+ * An authenticated BugzillaSession for further processing is returned from
  * {@link com.fortify.sample.bugtracker.bugzilla.Bugzilla4BugTrackerPlugin#connectToBugzilla(com.fortify.pub.bugtracker.support.UserAuthenticationStore)} method.
- * This instance must be used as a client for all other subsequent http requests during the whole top-level plugin API method processing.
+ * This session must be used as a client for all other subsequent http requests during the whole top-level plugin API method processing
+ * and closed afterwards. Closed sessions are returned to the shared {@link BugzillaSessionPool} and reused by later calls
+ * with the same Bugzilla URL, credentials and proxy settings, so the LogIn request is not repeated for every plugin API call.
+ * In the API key authentication mode the password is a Bugzilla API key attached to every request and LogIn is never executed.
+ * <P>
+ * Bug filing, fetching, commenting, reopening and bug parameter methods have asynchronous variants returning
+ * {@link CompletableFuture}s executed by the bounded {@link AsyncExecutor}. The synchronous plugin API methods are executed
+ * by the calling thread, so they never wait for a free executor thread or occupy one.
+ * {@link #stop()} cancels queued operations, aborts requests in progress and makes all later operations fail immediately.
+ * <P>
+ * Bugzilla metadata (version, priorities, product catalogues) is kept in shared {@link MetadataCache}s and optionally saved
+ * to a {@link MetadataSnapshot} in a configured directory, which is restored by {@link #setConfiguration(Map)} after restart.
  *
  * @author Evgeniy Semionov (evgeny.semionov@hp.com)
  * @version 1.0 06/10/2013
  */
 @BugTrackerPluginImplementation
-public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin implements BatchBugTrackerPlugin {
+public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin implements BatchBugTrackerPlugin, InterruptableBugtracker {
 
 	private URL bugzillaURL;	        // URL of the Bugzilla server.
 	private String bugzillaProtocol;	// Protocol of the Bugzilla server
 	private Map<String, String> config; // Full Bugzilla plugin configuration (including an optional proxy)
+	private final BugzillaSessionPool sessionPool = BugzillaSessionPool.getInstance();
+	private volatile HttpTransportFactory httpTransportFactory; // Transport of the XML-RPC clients, created by setConfiguration
+	private volatile MetadataSnapshot metadataSnapshot; // Local metadata snapshot, null if disabled
+	private volatile TrafficCapture trafficCapture; // Capture of Bugzilla traffic, null if disabled
+	private volatile boolean stopped;	// Set by stop(), all later operations fail
+	private final Set<BugzillaSession> activeSessions = ConcurrentHashMap.newKeySet(); // Sessions borrowed by this instance
+	private final Set<Future<?>> pendingOperations = ConcurrentHashMap.newKeySet(); // Asynchronous operations and bulk tasks in progress
+
+	/**
+	 * Default maximum number of entries of every metadata cache, see {@link AdvancedField#METADATA_CACHE_MAX_ENTRIES}.
+	 */
+	private static final int DEFAULT_METADATA_CACHE_SIZE = Integer.parseInt(AdvancedField.METADATA_CACHE_MAX_ENTRIES.getDefaultValue());
+
+	/**
+	 * Default maximum number of cached bug states, see {@link AdvancedField#BUG_STATE_CACHE_MAX_ENTRIES}.
+	 */
+	private static final int DEFAULT_BUG_STATE_CACHE_SIZE = Integer.parseInt(AdvancedField.BUG_STATE_CACHE_MAX_ENTRIES.getDefaultValue());
+
+	/**
+	 * Numeric Bugzilla versions keyed by Bugzilla URL shared by all plugin instances.
+	 */
+	private static final MetadataCache<String, Double> BUGZILLA_VERSIONS = new MetadataCache<>("versions", DEFAULT_METADATA_CACHE_SIZE);
+
+	/**
+	 * Sorted priorities keyed by Bugzilla URL. Priority legal values are the same for all users.
+	 */
+	private static final MetadataCache<String, List<String>> PRIORITIES = new MetadataCache<>("priorities", DEFAULT_METADATA_CACHE_SIZE);
+
+	/**
+	 * Bug status workflows keyed by Bugzilla URL shared by all plugin instances.
+	 */
+	private static final MetadataCache<String, BugWorkflow> WORKFLOWS = new MetadataCache<>("workflows", DEFAULT_METADATA_CACHE_SIZE);
+
+	/**
+	 * Time for which the default workflow is used without another attempt after the workflow could not be loaded.
+	 */
+	private static final long WORKFLOW_FAILURE_TTL = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * Recent failures to load the bug status workflow keyed by Bugzilla URL and user credentials, so bug state checks
+	 * during a Bugzilla outage do not try to connect for every bug.
+	 */
+	private static final ExpiringCache<String, Boolean> WORKFLOW_FAILURES = new ExpiringCache<>(DEFAULT_METADATA_CACHE_SIZE);
+
+	/**
+	 * Metadata snapshot files already restored by this class loader.
+	 */
+	private static final Set<Path> RESTORED_SNAPSHOTS = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Whether the REST API is provided by the Bugzilla server, keyed by Bugzilla URL. XML-RPC is used if it is not.
+	 */
+	private static final ExpiringCache<String, Boolean> REST_API_AVAILABILITY = new ExpiringCache<>();
+
+	/**
+	 * Short-lived bounded cache of bug states fetched during a bug state synchronization, keyed by Bugzilla URL, user name and bug id.
+	 * States are invalidated by the plugin's own writes (filing, reopening and commenting bugs).
+	 */
+	private static final ExpiringCache<String, Bug> BUG_STATES = new ExpiringCache<>(DEFAULT_BUG_STATE_CACHE_SIZE);
+
+	/**
+	 * Maximum number of bugs with a synchronization high-water mark, see {@link #SYNC_HIGH_WATER_MARKS}.
+	 */
+	private static final int SYNC_HIGH_WATER_MARK_CACHE_SIZE = 100000;
+
+	/**
+	 * Time after which a bug not synchronized anymore loses its high-water mark.
+	 */
+	private static final long SYNC_HIGH_WATER_MARK_TTL = TimeUnit.DAYS.toMillis(1);
+
+	/**
+	 * Bugzilla database time of the last successful incremental synchronization of every tracked bug, keyed by Bugzilla URL,
+	 * user credentials and bug id. Bugs without a mark (never synchronized, evicted or expired) are fetched fully.
+	 */
+	private static final ExpiringCache<String, Date> SYNC_HIGH_WATER_MARKS = new ExpiringCache<>(SYNC_HIGH_WATER_MARK_CACHE_SIZE);
+
+	/**
+	 * Product catalogues keyed by Bugzilla URL and user name, because accessible products differ among users.
+	 */
+	private static final MetadataCache<String, ProductCatalog> PRODUCT_CATALOGS = new MetadataCache<>("product catalogues", DEFAULT_METADATA_CACHE_SIZE);
+
+	/**
+	 * Maximum number of products retrieved by a single Product.get request when the product catalogue is loaded.
+	 */
+	private static final int PRODUCT_CATALOG_BATCH_SIZE = 250;
 
 	/**
 	 * List of high level Bugzilla API operation and associated minimum bugzilla version that has such feature.
@@ -131,7 +241,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	 */
 	@Override
 	public List<BugParam> getBatchBugParameters(UserAuthenticationStore credentials) {
-		return getBugParameters(null, credentials);
+		return supplySync(() -> getBugParametersInternal(null, credentials));
 	}
 
 	/**
@@ -148,9 +258,23 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	 */
 	@Override
 	public List<BugParam> getBugParameters(IssueDetail issueDetail, UserAuthenticationStore credentials) {
+		return supplySync(() -> getBugParametersInternal(issueDetail, credentials));
+	}
 
-		try {
-            final BugzillaConnector conn = connectToBugzilla(credentials);
+	/**
+	 * Asynchronous variant of {@link #getBugParameters(IssueDetail, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param issueDetail issue details or null for batch bug submission
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future list of the parameters that should be filled by user for bug submission
+	 */
+	public CompletableFuture<List<BugParam>> getBugParametersAsync(IssueDetail issueDetail, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> getBugParametersInternal(issueDetail, credentials));
+	}
+
+	private List<BugParam> getBugParametersInternal(IssueDetail issueDetail, UserAuthenticationStore credentials) {
+
+		try (final LazySession conn = new LazySession(credentials)) {
             final double bugzillaVersion = getBugzillaVersion(conn);
 
             final BugParam summaryParam = getSummaryParamText(issueDetail);
@@ -161,7 +285,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
             final BugParam versionParam;
 
 			if (canUseBugzillaApi(ApiOperation.GET_PRODUCTS, bugzillaVersion)) {
-				final List<String> products = getProductsFromBugzilla(conn);
+				final List<String> products = getProductCatalog(conn, bugzillaVersion).getProductNames();
 				productParam = getProductParamChoice(products);
 				componentParam = getComponentParamChoice(new ArrayList());
 				versionParam = getVersionParamChoice(new ArrayList());
@@ -176,8 +300,10 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 			return Arrays.asList(summaryParam, descriptionParam, productParam, componentParam, versionParam, severityParam);
 
 		} catch (BugTrackerException e) {
+			invalidateBugzillaVersion();
 			throw e;
 		} catch (Exception e) {
+			invalidateBugzillaVersion();
 			throw new BugTrackerException("Error while setting Bugzilla bug fields configuration: " + e.getMessage(), e);
 		}
 	}
@@ -210,30 +336,48 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	}
 
 	/**
-	 * Return list of the products defined in Bugzilla.
-	 * ATTENTION: This method works very slow if there are many products in Bugzilla. The main problem here is that we cannot load all products at once,
-	 * bug have to query for each product separately.
+	 * Return catalogue of the products accessible by the user, including components and versions of every product.
+	 * Catalogue is cached per Bugzilla URL and user credentials, so dependent product/component/version choices are answered
+	 * from memory and a cached catalogue is never returned to a caller with a wrong password.
+	 *
+	 * @param connector lazily connected session used if the catalogue has to be loaded
+	 * @param bugzillaVersion numeric Bugzilla version
+	 * @return product catalogue
+	 */
+	private ProductCatalog getProductCatalog(LazySession connector, double bugzillaVersion) {
+		return PRODUCT_CATALOGS.get(productCatalogKey(connector.getCredentials())
+				, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.PRODUCT_CATALOG_CACHE_TTL))
+				, () -> loadProductCatalog(connector.get(), bugzillaVersion)
+				, inNewSession(connector.getCredentials(), session -> loadProductCatalog(session, bugzillaVersion)));
+	}
+
+	/**
+	 * Load the whole product catalogue. Ids of the accessible products are queried first and then all products
+	 * are retrieved together with their components and versions by a few chunked Product.get requests.
 	 *
-	 * @param connector BugzillaConnector object.
-	 * @return list of the product names defined in Bugzilla.
+	 * @param connector BugzillaSession object.
+	 * @param bugzillaVersion numeric Bugzilla version
+	 * @return product catalogue
 	 */
-	private List<String> getProductsFromBugzilla(BugzillaConnector connector) {
-		final List<String> result = new LinkedList<>();
+	private ProductCatalog loadProductCatalog(BugzillaSession connector, double bugzillaVersion) {
+		final List<ProductCatalog.ProductEntry> products = new ArrayList<>();
 		try {
 			final GetAccessibleProducts productRequest = new GetAccessibleProducts();
 			executeMethod(connector, productRequest);
 			final int[] productIds = productRequest.getProductIDs();
 			if (productIds != null) {
-				final GetProduct getProduct = new GetProduct(productIds);
-				executeMethod(connector, getProduct);
-				for (final Product product : getProduct.getProducts()) {
-					result.add(product.getName());
+				for (int from = 0; from < productIds.length; from += PRODUCT_CATALOG_BATCH_SIZE) {
+					final GetProducts getProducts = new GetProducts(Arrays.copyOfRange(productIds, from
+							, Math.min(from + PRODUCT_CATALOG_BATCH_SIZE, productIds.length)), bugzillaVersion);
+					executeMethod(connector, getProducts);
+					products.addAll(getProducts.getProducts());
 				}
 			}
 		} catch (BugzillaException e) {
 			throw new BugTrackerException("Cannot obtain the list of products from Bugzilla server " + bugzillaURL, e);
 		}
-		return result;
+		scheduleMetadataSnapshot();
+		return new ProductCatalog(products);
 	}
 
 	private BugParam getProductParamChoice(List<String> products) {
@@ -293,19 +437,29 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	/**
 	 * Return list of all possible bug priorities. Application load this list from Bugzilla only if bugzilla version is higher than 3.6.
 	 * Otherwise predefined list of priories is returned.
+	 * Sorted list loaded from Bugzilla is kept in the metadata cache per Bugzilla URL.
 	 *
-	 * @param connector BugzillaConnector  object.
+	 * @param connector lazily connected session used if the priorities have to be loaded.
 	 * @return list of all possible bug priorities.
 	 */
-	private List<String> getValidPriorityList(BugzillaConnector connector, double bugzillaVer) {
+	private List<String> getValidPriorityList(LazySession connector, double bugzillaVer) {
+
+		if (canUseBugzillaApi(ApiOperation.GET_PRIORITIES, bugzillaVer)) {
+			return PRIORITIES.get(bugzillaURL.toString()
+					, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.LEGAL_VALUES_CACHE_TTL))
+					, () -> fetchSortedPriorities(connector.get())
+					, inNewSession(connector.getCredentials(), this::fetchSortedPriorities));
+		} else {
+			return Arrays.asList(PREDEFINED_PRIORITIES);
+		}
+	}
 
+	private List<String> fetchSortedPriorities(BugzillaSession connector) {
 		GetLegalValues get = new GetLegalValues(GetLegalValues.Fields.PRIORITY);
 		try {
-			if (canUseBugzillaApi(ApiOperation.GET_PRIORITIES, bugzillaVer)) {
-				return getSortedPriorities(executeGetLegalValues(connector, get));
-			} else {
-				return Arrays.asList(PREDEFINED_PRIORITIES);
-			}
+			final List<String> priorities = getSortedPriorities(executeGetLegalValues(connector, get));
+			scheduleMetadataSnapshot();
+			return priorities;
 		} catch (BugzillaException e) {
 			throw new BugTrackerException("Cannot obtain the list of valid priories from Bugzilla server " + bugzillaURL, e);
 		}
@@ -315,7 +469,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	 * but for now handle the default set of priorities a bit better.
 	 * Assign the sortLevels of known priority values and assign any unknown priorities to default sortLevel
 	 * and then sort the list */
-	private List<String> getSortedPriorities(final List<String> prioritiesList) {
+	List<String> getSortedPriorities(final List<String> prioritiesList) {
 		return prioritiesList.stream()
 				.map( s-> KNOWN_PRIORITIES.getOrDefault(s.toLowerCase(), new PriorityWithSortLevel(s)) )
 				.sorted(Comparator.comparingInt(PriorityWithSortLevel::getSortLevel))
@@ -339,32 +493,97 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 
 	@Override
 	public List<BugParam> onBatchBugParameterChange(String changedParamIdentifier, List<BugParam> currentValues, UserAuthenticationStore credentials) {
-        return innerOnParameterChange(changedParamIdentifier, currentValues, credentials);
+		return supplySync(() -> innerOnParameterChange(changedParamIdentifier, currentValues, credentials));
 	}
 
 	@Override
 	public Bug fileMultiIssueBug(MultiIssueBugSubmission bug, UserAuthenticationStore credentials)
 			throws BugTrackerException {
-
-		final BugzillaConnector connector = connectToBugzilla(credentials);
-		return fileBugInternal(connector, getPostDataStrMap(bug.getParams()));
+		return supplySync(() -> fileBugInNewSession(getPostDataStrMap(bug.getParams()), credentials));
 	}
 
 	@Override
 	public Bug fileBug(BugSubmission bug, UserAuthenticationStore credentials)
 			throws BugTrackerException {
+		return supplySync(() -> fileBugInNewSession(getPostDataStrMap(bug.getParams()), credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #fileMultiIssueBug(MultiIssueBugSubmission, UserAuthenticationStore)}
+	 * executed by {@link AsyncExecutor}.
+	 *
+	 * @param bug multi-issue bug submission
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future filed bug
+	 */
+	public CompletableFuture<Bug> fileMultiIssueBugAsync(MultiIssueBugSubmission bug, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> fileBugInNewSession(getPostDataStrMap(bug.getParams()), credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #fileBug(BugSubmission, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bug bug submission
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future filed bug
+	 */
+	public CompletableFuture<Bug> fileBugAsync(BugSubmission bug, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> fileBugInNewSession(getPostDataStrMap(bug.getParams()), credentials));
+	}
+
+	private Bug fileBugInNewSession(final Map<String, Object> bugParams, final UserAuthenticationStore credentials) {
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
+			return fileBugInternal(connector, bugParams, credentials);
+		}
+	}
+
+	/**
+	 * File many bugs in parallel. Bugs are filed by a bounded number of workers configured by
+	 * {@link AdvancedField#BULK_CONCURRENCY}, every worker reuses its authenticated session for many bugs.
+	 *
+	 * @param bugs bug submissions
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return per-bug results in the order of the submissions, a failed submission does not stop the others
+	 */
+	public List<BulkResult<Bug>> fileBugs(List<BugSubmission> bugs, UserAuthenticationStore credentials) {
+		return executeBulk(bugs, credentials
+				, (connector, bug) -> fileBugInternal(connector, getPostDataStrMap(bug.getParams()), credentials));
+	}
 
-		final BugzillaConnector connector = connectToBugzilla(credentials);
-		return fileBugInternal(connector, getPostDataStrMap(bug.getParams()));
+	/**
+	 * File many multi-issue bugs in parallel, see {@link #fileBugs(List, UserAuthenticationStore)}.
+	 *
+	 * @param bugs multi-issue bug submissions
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return per-bug results in the order of the submissions, a failed submission does not stop the others
+	 */
+	public List<BulkResult<Bug>> fileMultiIssueBugs(List<MultiIssueBugSubmission> bugs, UserAuthenticationStore credentials) {
+		return executeBulk(bugs, credentials
+				, (connector, bug) -> fileBugInternal(connector, getPostDataStrMap(bug.getParams()), credentials));
 	}
 
-	private Bug fileBugInternal(final BugzillaConnector connector, final Map<String, Object> bugParams) {
+	/**
+	 * Execute the bulk operation by {@link BulkExecutor}, its pool tasks are cancelled by {@link #stop()}.
+	 */
+	private <T, R> List<BulkResult<R>> executeBulk(final List<T> items, final UserAuthenticationStore credentials
+			, final BiFunction<BugzillaSession, T, R> action) {
+		return BulkExecutor.execute(items, getBulkConcurrency(), () -> connectToBugzilla(credentials), action, pendingOperations);
+	}
+
+	private int getBulkConcurrency() {
+		return Math.min(getAdvancedIntValue(AdvancedField.BULK_CONCURRENCY), BulkExecutor.MAX_POOL_THREADS);
+	}
+
+	private Bug fileBugInternal(final BugzillaSession connector, final Map<String, Object> bugParams
+			, final UserAuthenticationStore credentials) {
 		BugFactory factory = new BugFactory();
 		com.j2bugzilla.base.Bug dtoBug = factory.createBug(bugParams);
 		final ReportBug reportBug = new ReportBug(dtoBug);
 		try {
 			executeMethod(connector, reportBug);
-			return new Bug(String.valueOf(reportBug.getID()), STATUS_NEW);
+			final String bugId = String.valueOf(reportBug.getID());
+			BUG_STATES.invalidate(bugStateKey(credentials, bugId));
+			return new Bug(bugId, STATUS_NEW);
 		} catch (BugzillaException e) {
 			throw new BugTrackerException(e.getMessage(), e);
 		}
@@ -377,126 +596,294 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 
 	@Override
 	public boolean isBugClosed(Bug bug, UserAuthenticationStore credentials) {
-		return isBugClosed(bug);
+		return getBugWorkflowOrDefault(credentials).isClosed(getCachedBugState(bug, credentials).getBugStatus());
 	}
 
 	@Override
 	public boolean isBugClosedAndCanReOpen(Bug bug, UserAuthenticationStore credentials) {
-		return isBugClosed(bug) && canReOpenBug(bug);
+		final Bug bugState = getCachedBugState(bug, credentials);
+		final BugWorkflow workflow = getBugWorkflowOrDefault(credentials);
+		return workflow.isClosed(bugState.getBugStatus()) && workflow.canReopen(bugState);
 	}
 
-	private boolean isBugClosed(Bug bug) {
-		String status = bug.getBugStatus();
-		boolean retval = false;
-		for (CLOSED_STATUS cs : CLOSED_STATUS.values()){
-			if (cs.name().equals(status)) {
-				retval = true;
-				break;
-			}
+	/**
+	 * Return the bug status workflow of the server or {@link BugWorkflow#DEFAULT} if it cannot be loaded,
+	 * so bug state checks and reopening keep working with the default Bugzilla 4 workflow as before workflows were loaded.
+	 * After a failure the default workflow is returned for {@link #WORKFLOW_FAILURE_TTL} without another attempt.
+	 */
+	private BugWorkflow getBugWorkflowOrDefault(final UserAuthenticationStore credentials) {
+		final String failureKey = credentialsKey(credentials);
+		if (WORKFLOW_FAILURES.getIfPresent(failureKey) != null) {
+			return BugWorkflow.DEFAULT;
+		}
+		try {
+			return getBugWorkflow(credentials);
+		} catch (BugTrackerException e) {
+			WORKFLOW_FAILURES.put(failureKey, Boolean.TRUE, WORKFLOW_FAILURE_TTL);
+			return BugWorkflow.DEFAULT;
+		}
+	}
+
+	/**
+	 * Return the bug status workflow of the server. Workflow is loaded once per legal values time-to-live and kept
+	 * in the metadata cache per Bugzilla URL. The default workflow is used if the server does not return status definitions.
+	 *
+	 * @param credentials bug tracker credentials used if the workflow has to be loaded
+	 * @return workflow lookup tables
+	 */
+	private BugWorkflow getBugWorkflow(final UserAuthenticationStore credentials) {
+		try (final LazySession conn = new LazySession(credentials)) {
+			return getBugWorkflow(conn);
 		}
-		return retval;
+	}
+
+	private BugWorkflow getBugWorkflow(final LazySession connector) {
+		return WORKFLOWS.get(bugzillaURL.toString()
+				, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.LEGAL_VALUES_CACHE_TTL))
+				, () -> fetchBugWorkflow(connector.get())
+				, inNewSession(connector.getCredentials(), this::fetchBugWorkflow));
+	}
+
+	private BugWorkflow fetchBugWorkflow(final BugzillaSession connector) {
+		final GetStatusWorkflow get = new GetStatusWorkflow();
+		try {
+			executeMethod(connector, get);
+		} catch (BugzillaException e) {
+			throw new BugTrackerException("Cannot obtain the bug status workflow from Bugzilla server " + bugzillaURL, e);
+		}
+		final BugWorkflow workflow = get.getWorkflow();
+		return workflow == null ? BugWorkflow.DEFAULT : workflow;
+	}
+
+	/**
+	 * Return the bug state fetched by a recent bulk or single bug fetch if it is still cached, otherwise the passed bug.
+	 */
+	private Bug getCachedBugState(final Bug bug, final UserAuthenticationStore credentials) {
+		final Bug cached = BUG_STATES.getIfPresent(bugStateKey(credentials, bug.getBugId()));
+		return cached == null ? bug : cached;
+	}
+
+	private String bugStateKey(final UserAuthenticationStore credentials, final String bugId) {
+		return credentialsKey(credentials) + "|" + bugId;
+	}
+
+	/**
+	 * Key of data cached for the user. It contains digest of the password (or API key) like the session pool key,
+	 * so cached data are never returned to a caller who has not presented the same credentials.
+	 */
+	private String credentialsKey(final UserAuthenticationStore credentials) {
+		return bugzillaURL + "|" + credentials.getUserName() + "|" + BugzillaSessionPool.Key.digest(credentials.getPassword());
+	}
+
+	/**
+	 * Key of the product catalogue of the user. When a metadata snapshot is configured, credentials are keyed by
+	 * the snapshot HMAC, so the catalogue can be saved without exposing the password digest.
+	 */
+	private String productCatalogKey(final UserAuthenticationStore credentials) {
+		final String userKey = credentials.getUserName() + "|" + BugzillaSessionPool.Key.digest(credentials.getPassword());
+		final MetadataSnapshot snapshot = metadataSnapshot;
+		final String catalogKey = snapshot == null ? null : snapshot.catalogKey(userKey);
+		return bugzillaURL + "|" + (catalogKey == null ? userKey : catalogKey);
+	}
+
+	private void cacheBugState(final UserAuthenticationStore credentials, final Bug bug) {
+		BUG_STATES.put(bugStateKey(credentials, bug.getBugId()), copyBug(bug)
+				, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.BUG_STATE_CACHE_TTL)));
+	}
+
+	private static Bug copyBug(final Bug bug) {
+		return new Bug(bug.getBugId(), bug.getBugStatus(), bug.getBugResolution());
 	}
 
 	@Override
 	public void reOpenBug(Bug bug, String comment, UserAuthenticationStore credentials) {
-		if (!canReOpenBug(bug)) {
+		runSync(() -> reOpenBugInternal(bug, comment, credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #reOpenBug(Bug, String, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bug bug to be reopened
+	 * @param comment comment added to the bug
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future completed when the bug is reopened
+	 */
+	public CompletableFuture<Void> reOpenBugAsync(Bug bug, String comment, UserAuthenticationStore credentials) {
+		return runAsync(() -> reOpenBugInternal(bug, comment, credentials));
+	}
+
+	private void reOpenBugInternal(Bug bug, String comment, UserAuthenticationStore credentials) {
+		final Bug bugState = getCachedBugState(bug, credentials);
+		final BugWorkflow workflow = getBugWorkflowOrDefault(credentials);
+		if (!workflow.canReopen(bugState)) {
 			throw new BugTrackerException("Bug " + bug.getBugId() + " cannot be reopened.");
 		}
-		final BugzillaConnector connector = connectToBugzilla(credentials);
-		try {
-			final GetBug getBug = new GetBug(Integer.parseInt(bug.getBugId()));
-			executeMethod(connector, getBug);
+		final UpdateBugStatus reopenBug = new UpdateBugStatus(new int[]{bugIdToNumber(bug.getBugId())}, workflow.getReopenStatus(bugState)
+				, StringUtils.isBlank(comment) ? null : comment);
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
+			executeMethod(connector, reopenBug);
+		} catch (BugzillaException e) {
+			throw new BugTrackerException(e.getMessage(), e);
+		} finally {
+			BUG_STATES.invalidate(bugStateKey(credentials, bug.getBugId()));
+		}
+	}
 
-			com.j2bugzilla.base.Bug dtoBug = getBug.getBug();
-			sanitizeEmptyDtoBugFields2(dtoBug);
-			dtoBug.setStatus(STATUS_REOPENED);
-			dtoBug.clearResolution();
+	@Override
+	public void addCommentToBug(Bug bug, String comment, UserAuthenticationStore credentials) {
+		runSync(() -> addCommentToBugInternal(bug, comment, credentials));
+	}
 
-			final UpdateBug reportBug = new UpdateBug(dtoBug);
-			executeMethod(connector, reportBug);
-			final CommentBug commentBug = new CommentBug(Integer.parseInt(bug.getBugId()), comment);
+	/**
+	 * Asynchronous variant of {@link #addCommentToBug(Bug, String, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bug bug to be commented
+	 * @param comment comment added to the bug
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future completed when the comment is added
+	 */
+	public CompletableFuture<Void> addCommentToBugAsync(Bug bug, String comment, UserAuthenticationStore credentials) {
+		return runAsync(() -> addCommentToBugInternal(bug, comment, credentials));
+	}
+
+	private void addCommentToBugInternal(Bug bug, String comment, UserAuthenticationStore credentials) {
+		final CommentBug commentBug = new CommentBug(bugIdToNumber(bug.getBugId()), comment);
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
 			executeMethod(connector, commentBug);
 		} catch (BugzillaException e) {
 			throw new BugTrackerException(e.getMessage(), e);
+		} finally {
+			BUG_STATES.invalidate(bugStateKey(credentials, bug.getBugId()));
 		}
 	}
 
 	/**
-	 * This mix of hack and workaround fixes D-127579 "BUGZILLA: error processing with bug state management..."
-	 * <p/>Bug properties received from Bugzilla by j2bugzilla can be of a simple Object type (if the property value is empty).
-	 * When updating a bug back to Bugzilla (executing a {@link com.j2bugzilla.rpc.UpdateBug} method) these properties
-	 * are processed by {@link com.j2bugzilla.rpc.UpdateBug#getParameterMap()} where property getters want
-	 * to cast property values to String. But this casting fails if input values are simple Objects as mentioned above.
-	 * <P/>
-	 * Property values returned by following getters are set to null if they cannot be casted to String in getters:<BR/>
-	 *   getAlias()<BR/>
-	 *   getSummary()<BR/>
-	 *   getProduct()<BR/>
-	 *   getComponent()<BR/>
-	 *   getVersion()<BR/>
-	 *   getStatus()<BR/>
-	 *   getResolution()<BR/>
-	 *   getOperatingSystem()<BR/>
-	 *   getPlatform()<BR/>
-	 * <P/>
-	 * Properties related to following two getters cannot be sanitized, because their counter part setter does not exist
-	 * in j2bugzilla (nevertheless these properties seems to have their String walues always set, so it should not matter):<BR/>
-	 *   getSeverity()<BR/>
-	 *   getPriority()<BR/>
-	 * <P/>
-	 * Note: It could theoretically happen that some other j2bugzilla methods might get in to similar problems as well.
-	 * But because the reported bug was caused only by UpdateBug method and no other similar problems are known,
-	 * the fix has been made only for this specific case.
+	 * Reopen many bugs and add comments to them. Every bug is changed to the open status its current status can be changed
+	 * to by the server workflow. Bugs with the same comment and new status are reopened together by a single XML-RPC Bug.update
+	 * request of up to {@link AdvancedField#BULK_UPDATE_BATCH_SIZE} bugs, the requests are executed in parallel
+	 * the same way as by {@link #fileBugs(List, UserAuthenticationStore)}. If a grouped request is rejected by a WebService
+	 * fault, no bug of the group has been updated and its bugs are updated one by one, so the failure is reported only
+	 * for the affected bugs. If a grouped request fails otherwise (e.g. by a timeout), the bugs might have been updated
+	 * and are not retried, because a repeated update would add the comment again; all bugs of the group fail.
 	 *
-	 * @param bug a {@link com.j2bugzilla.base.Bug} object where empty properties are to be sanitized
+	 * @param bugs bugs with their comments
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return per-bug results in the order of the bugs, reopened bugs with their new status
 	 */
+	public List<BulkResult<Bug>> reOpenBugs(List<BugComment> bugs, UserAuthenticationStore credentials) {
+		return updateBugs(bugs, true, credentials);
+	}
 
-	private void sanitizeEmptyDtoBugFields2(com.j2bugzilla.base.Bug bug) {
-		sanitizeEmptyBugField(bug::getAlias, bug::setAlias);
-		sanitizeEmptyBugField(bug::getProduct, bug::setProduct);
-		sanitizeEmptyBugField(bug::getComponent, bug::setComponent);
-		sanitizeEmptyBugField(bug::getVersion, bug::setVersion);
-		sanitizeEmptyBugField(bug::getStatus, bug::setStatus);
-		sanitizeEmptyBugField(bug::getResolution, bug::setResolution);
-		sanitizeEmptyBugField(bug::getOperatingSystem, bug::setOperatingSystem);
-		sanitizeEmptyBugField(bug::getPlatform, bug::setPlatform);
-		sanitizeEmptyBugField(bug::getSummary, bug::setSummary);
+	/**
+	 * Add comments to many bugs, requests are grouped and executed in parallel as by {@link #reOpenBugs(List, UserAuthenticationStore)}.
+	 *
+	 * @param bugs bugs with their comments
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return per-bug results in the order of the bugs
+	 */
+	public List<BulkResult<Bug>> addCommentToBugs(List<BugComment> bugs, UserAuthenticationStore credentials) {
+		return updateBugs(bugs, false, credentials);
 	}
 
-	private void sanitizeEmptyBugField(Supplier<String> getterSupplier, Consumer<String> setterConsumer) {
-		try {
-			getterSupplier.get();
-		} catch (ClassCastException cce) {
-			setterConsumer.accept(null);
-		} catch (Exception  e) {
-			throw new BugTrackerException("Error when converting bug properties data from Bugzilla to SSC", e);
+	private List<BulkResult<Bug>> updateBugs(final List<BugComment> bugs, final boolean reopen, final UserAuthenticationStore credentials) {
+		final List<BulkResult<Bug>> results = new ArrayList<>(Collections.nCopies(bugs.size(), (BulkResult<Bug>) null));
+		final BugWorkflow workflow = reopen ? getBugWorkflowOrDefault(credentials) : null;
+		final String[] openStatuses = new String[bugs.size()];
+		final Map<List<String>, List<Integer>> indexesByUpdate = new LinkedHashMap<>();
+		for (int i = 0; i < bugs.size(); i++) {
+			final Bug bug = bugs.get(i).getBug();
+			try {
+				bugIdToNumber(bug.getBugId());
+				if (workflow != null) {
+					final Bug bugState = getCachedBugState(bug, credentials);
+					if (!workflow.canReopen(bugState)) {
+						throw new BugTrackerException("Bug " + bug.getBugId() + " cannot be reopened.");
+					}
+					openStatuses[i] = workflow.getReopenStatus(bugState);
+				}
+			} catch (BugTrackerException e) {
+				results.set(i, BulkResult.failure(e));
+				continue;
+			}
+			final String comment = bugs.get(i).getComment();
+			indexesByUpdate.computeIfAbsent(Arrays.asList(openStatuses[i], StringUtils.isBlank(comment) ? "" : comment)
+					, k -> new ArrayList<>()).add(i);
 		}
-	}
 
-	private boolean canReOpenBug(Bug bug) {
-		String resolution = bug.getBugResolution();
-		boolean retval = true;
-		for (NON_REOPENABLE_RESOLUTION rr : NON_REOPENABLE_RESOLUTION.values()){
-			if (rr.name().equals(resolution)) {
-				retval = false;
-				break;
+		// REST updates one bug per request, so a failed grouped request would not mean that no bug of the group was updated
+		final int batchSize = isRestApiConfigured() ? 1 : Math.max(1, getAdvancedIntValue(AdvancedField.BULK_UPDATE_BATCH_SIZE));
+		final List<List<Integer>> batches = new ArrayList<>();
+		for (List<Integer> indexes : indexesByUpdate.values()) {
+			for (int from = 0; from < indexes.size(); from += batchSize) {
+				batches.add(indexes.subList(from, Math.min(from + batchSize, indexes.size())));
 			}
 		}
-		return retval;
-	}
 
-	@Override
-	public void addCommentToBug(Bug bug, String comment, UserAuthenticationStore credentials) {
+		final List<BulkResult<Void>> batchResults = executeBulk(batches, credentials
+				, (connector, batch) -> updateBugBatch(connector, bugs, batch, openStatuses, credentials));
+		final List<Integer> retried = new ArrayList<>();
+		for (int b = 0; b < batches.size(); b++) {
+			final List<Integer> batch = batches.get(b);
+			if (batchResults.get(b).isSuccess()) {
+				for (Integer index : batch) {
+					results.set(index, BulkResult.success(updatedBug(bugs.get(index).getBug(), openStatuses[index])));
+				}
+			} else if ((batch.size() > 1) && isWebServiceFault(batchResults.get(b).getError())) {
+				retried.addAll(batch);
+			} else {
+				for (Integer index : batch) {
+					results.set(index, BulkResult.failure(batchResults.get(b).getError()));
+				}
+			}
+		}
+
+		final List<BulkResult<Void>> retriedResults = executeBulk(retried, credentials
+				, (connector, index) -> updateBugBatch(connector, bugs, Collections.singletonList(index), openStatuses, credentials));
+		for (int r = 0; r < retried.size(); r++) {
+			final int index = retried.get(r);
+			results.set(index, retriedResults.get(r).isSuccess()
+					? BulkResult.success(updatedBug(bugs.get(index).getBug(), openStatuses[index]))
+					: BulkResult.failure(retriedResults.get(r).getError()));
+		}
+		return results;
+	}
 
-		final BugzillaConnector connector = connectToBugzilla(credentials);
-		final CommentBug commentBug = new CommentBug(Integer.parseInt(bug.getBugId()), comment);
+	/**
+	 * Update bugs of the batch, all of them have the same comment and the same new status (null if the status is kept).
+	 */
+	private Void updateBugBatch(final BugzillaSession connector, final List<BugComment> bugs, final List<Integer> batch
+			, final String[] openStatuses, final UserAuthenticationStore credentials) {
+		final int[] ids = new int[batch.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = bugIdToNumber(bugs.get(batch.get(i)).getBug().getBugId());
+		}
+		final String comment = bugs.get(batch.get(0)).getComment();
 		try {
-			executeMethod(connector, commentBug);
+			executeMethod(connector, new UpdateBugStatus(ids, openStatuses[batch.get(0)], StringUtils.isBlank(comment) ? null : comment));
+			return null;
 		} catch (BugzillaException e) {
 			throw new BugTrackerException(e.getMessage(), e);
+		} finally {
+			for (Integer index : batch) {
+				BUG_STATES.invalidate(bugStateKey(credentials, bugs.get(index).getBug().getBugId()));
+			}
 		}
 	}
 
+	/**
+	 * @return true if the error is a fault returned by the Bugzilla WebService, i.e. the server processed and rejected
+	 * the request, false for transport errors where the outcome of the request is unknown
+	 */
+	private static boolean isWebServiceFault(final Throwable error) {
+		final Throwable cause = error instanceof BugTrackerException ? error.getCause() : null;
+		return (cause instanceof BugzillaException) && !(cause instanceof BugzillaTransportException)
+				&& (cause.getCause() instanceof XmlRpcException) && !(cause.getCause() instanceof XmlRpcClientException);
+	}
+
+	private static Bug updatedBug(final Bug bug, final String openStatus) {
+		return openStatus == null ? bug : new Bug(bug.getBugId(), openStatus, null);
+	}
+
 	@Override
 	public List<BugTrackerConfig> getConfiguration() {
 
@@ -515,6 +902,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 
 		List<BugTrackerConfig> configs = new ArrayList<>(Arrays.asList(supportedVersions, bugTrackerConfig));
 		configs.addAll(buildSscProxyConfiguration());
+		configs.addAll(buildAdvancedConfiguration());
 		pluginHelper.populateWithDefaultsIfAvailable(configs);
 		return configs;
 	}
@@ -531,6 +919,57 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 		return proxyConfigs;
 	}
 
+	private List<BugTrackerConfig> buildAdvancedConfiguration() {
+		List<BugTrackerConfig> advancedConfigs = new ArrayList<>();
+		for (AdvancedField fld : EnumSet.allOf(AdvancedField.class)) {
+			advancedConfigs.add(new BugTrackerConfig()
+					.setIdentifier(fld.getFieldName())
+					.setDisplayLabel(fld.getDisplayLabel())
+					.setDescription(fld.getDescription())
+					.setValue(fld.getDefaultValue())
+					.setRequired(false));
+		}
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(METADATA_SNAPSHOT_DIR_NAME)
+				.setDisplayLabel(METADATA_SNAPSHOT_DIR_LABEL)
+				.setDescription(METADATA_SNAPSHOT_DIR_DESCRIPTION)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(TRAFFIC_CAPTURE_FILE_NAME)
+				.setDisplayLabel(TRAFFIC_CAPTURE_FILE_LABEL)
+				.setDescription(TRAFFIC_CAPTURE_FILE_DESCRIPTION)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(BUGZILLA_API_NAME)
+				.setDisplayLabel(BUGZILLA_API_LABEL)
+				.setDescription(BUGZILLA_API_DESCRIPTION)
+				.setValue(BUGZILLA_API_XMLRPC)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(HTTP_TRANSPORT_NAME)
+				.setDisplayLabel(HTTP_TRANSPORT_LABEL)
+				.setDescription(HTTP_TRANSPORT_DESCRIPTION)
+				.setValue(HTTP_TRANSPORT_KEEP_ALIVE)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(AUTHENTICATION_MODE_NAME)
+				.setDisplayLabel(AUTHENTICATION_MODE_LABEL)
+				.setDescription(AUTHENTICATION_MODE_DESCRIPTION)
+				.setValue(AUTHENTICATION_MODE_PASSWORD)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(WARM_UP_USERNAME_NAME)
+				.setDisplayLabel(WARM_UP_USERNAME_LABEL)
+				.setDescription(WARM_UP_USERNAME_DESCRIPTION)
+				.setRequired(false));
+		advancedConfigs.add(new BugTrackerConfig()
+				.setIdentifier(WARM_UP_PASSWORD_NAME)
+				.setDisplayLabel(WARM_UP_PASSWORD_LABEL)
+				.setDescription(WARM_UP_PASSWORD_DESCRIPTION)
+				.setRequired(false));
+		return advancedConfigs;
+	}
+
 	@Override
 	public void setConfiguration(Map<String, String> config) {
 
@@ -558,6 +997,53 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 		} catch (URISyntaxException | MalformedURLException e) {
 			throw new BugTrackerException("Invalid Bugzilla URL: " + bugzillaUrlPrefix);
 		}
+
+		for (AdvancedField fld : EnumSet.allOf(AdvancedField.class)) {
+			getAdvancedIntValue(fld);
+		}
+
+		httpTransportFactory = createHttpTransportFactory();
+		KeepAliveTransportFactory.getHostPermits(bugzillaURL).setLimit(getAdvancedIntValue(AdvancedField.HTTP_MAX_CONNECTIONS_PER_HOST));
+		isApiKeyAuthentication();
+		final String bugzillaApi = StringUtils.trimToEmpty(config.get(BUGZILLA_API_NAME));
+		if (!bugzillaApi.isEmpty() && !BUGZILLA_API_XMLRPC.equalsIgnoreCase(bugzillaApi) && !BUGZILLA_API_REST.equalsIgnoreCase(bugzillaApi)) {
+			throw new BugTrackerException(String.format("Bugzilla API should be either %s or %s", BUGZILLA_API_XMLRPC, BUGZILLA_API_REST));
+		}
+
+		final int metadataCacheSize = getAdvancedIntValue(AdvancedField.METADATA_CACHE_MAX_ENTRIES);
+		BUGZILLA_VERSIONS.setMaxEntries(metadataCacheSize);
+		PRIORITIES.setMaxEntries(metadataCacheSize);
+		WORKFLOWS.setMaxEntries(metadataCacheSize);
+		PRODUCT_CATALOGS.setMaxEntries(metadataCacheSize);
+		BUG_STATES.setMaxEntries(getAdvancedIntValue(AdvancedField.BUG_STATE_CACHE_MAX_ENTRIES));
+		RpcMetrics.setLogInterval(getAdvancedIntValue(AdvancedField.METRICS_LOG_INTERVAL));
+		RequestLimiter.forUrl(bugzillaURL.toString()).configure(getAdvancedIntValue(AdvancedField.MAX_CONCURRENT_REQUESTS)
+				, getAdvancedIntValue(AdvancedField.MAX_REQUESTS_PER_SECOND), getAdvancedIntValue(AdvancedField.BULK_CONCURRENCY));
+
+		final String snapshotDir = config.get(METADATA_SNAPSHOT_DIR_NAME);
+		if (StringUtils.isBlank(snapshotDir)) {
+			metadataSnapshot = null;
+		} else {
+			try {
+				metadataSnapshot = new MetadataSnapshot(Paths.get(snapshotDir.trim()), bugzillaURL.toString());
+			} catch (InvalidPathException e) {
+				throw new BugTrackerException("Invalid metadata snapshot directory: " + snapshotDir, e);
+			}
+			restoreMetadataSnapshot();
+		}
+
+		final String captureFile = config.get(TRAFFIC_CAPTURE_FILE_NAME);
+		if (StringUtils.isBlank(captureFile)) {
+			replaceTrafficCapture(null);
+		} else {
+			try {
+				replaceTrafficCapture(TrafficCapture.forFile(Paths.get(captureFile.trim())));
+			} catch (InvalidPathException | IOException e) {
+				throw new BugTrackerException("Invalid traffic capture file: " + captureFile, e);
+			}
+		}
+
+		startMetadataWarmUp();
 	}
 
 	@Override
@@ -568,7 +1054,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	@Override
 	public void validateCredentials(UserAuthenticationStore credentials) {
 		// TODO: stopClock ?
-		connectToBugzilla(credentials);
+		connectToBugzilla(credentials, true).close();
 	}
 
 	@Override
@@ -602,8 +1088,21 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	 */
 	@Override
 	public List<BugParam> onParameterChange(IssueDetail issueDetail, String changedParamIdentifier, List<BugParam> currentValues, UserAuthenticationStore credentials) {
+		return supplySync(() -> innerOnParameterChange(changedParamIdentifier, currentValues, credentials));
+	}
 
-        return innerOnParameterChange(changedParamIdentifier, currentValues, credentials);
+	/**
+	 * Asynchronous variant of {@link #onParameterChange(IssueDetail, String, List, UserAuthenticationStore)}
+	 * executed by {@link AsyncExecutor}.
+	 *
+	 * @param changedParamIdentifier identifier of the changed parameter
+	 * @param currentValues all of the BugParams and their current values
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future list of BugParam objects with updated choices
+	 */
+	public CompletableFuture<List<BugParam>> onParameterChangeAsync(String changedParamIdentifier, List<BugParam> currentValues
+			, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> innerOnParameterChange(changedParamIdentifier, currentValues, credentials));
 	}
 
     private List<BugParam> innerOnParameterChange(
@@ -612,25 +1111,27 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 			, UserAuthenticationStore credentials) {
 
         if (PRODUCT_PARAM_NAME.equals(modifiedParamId) || COMPONENT_PARAM_NAME.equals(modifiedParamId)) {
-            final BugzillaConnector conn = connectToBugzilla(credentials);
-			try {
+			try (final LazySession conn = new LazySession(credentials)) {
 				final double bugzillaVersion = getBugzillaVersion(conn);
 				if (canUseBugzillaApi(ApiOperation.GET_COMPONENTS, bugzillaVersion)) {
 					final BugParam productParam = pluginHelper.findParam(PRODUCT_PARAM_NAME, bugParams);
-					final Product curProduct = new Product(productParam.getValue());
+					final String curProduct = productParam.getValue();
 
 					if (PRODUCT_PARAM_NAME.equals(modifiedParamId)) {
+						final ProductCatalog catalog = getProductCatalog(conn, bugzillaVersion);
 						final BugParamChoice componentParam = (BugParamChoice)pluginHelper.findParam(COMPONENT_PARAM_NAME, bugParams);
-						componentParam.setChoiceList(getValidComponentList(conn, curProduct));
+						componentParam.setChoiceList(catalog.getComponents(curProduct));
 						if (canUseBugzillaApi(ApiOperation.GET_VERSIONS, bugzillaVersion)) {
 							final BugParamChoice versionsParam = (BugParamChoice)pluginHelper.findParam(VERSION_PARAM_NAME, bugParams);
-							versionsParam.setChoiceList(getValidVersionsList(conn, curProduct));
+							versionsParam.setChoiceList(catalog.getVersions(curProduct));
 						}
 					}
 				}
 			} catch (BugTrackerException e) {
+				invalidateBugzillaVersion();
 				throw e;
 			} catch (Exception e) {
+				invalidateBugzillaVersion();
 				throw new BugTrackerException("Error while changing Bugzilla bug fields configuration: " + e.getMessage(), e);
 			}
         }
@@ -639,14 +1140,214 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 
     /**
 	 * Return numeric representation of the Bugzilla version which URL was passed to plugin.
-	 * @param connector BugzillaConnector object to communicate with Bugzilla.
+	 * Version is queried from Bugzilla only once per configured time-to-live and cached per Bugzilla URL.
+	 * @param connector lazily connected session used if the version has to be queried.
 	 * @return numeric version of Bugzilla.
 	 */
-	private double getBugzillaVersion(BugzillaConnector connector) {
+	private double getBugzillaVersion(LazySession connector) {
+		return BUGZILLA_VERSIONS.get(bugzillaURL.toString()
+				, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.BUGZILLA_VERSION_CACHE_TTL))
+				, () -> fetchBugzillaVersion(connector.get())
+				, inNewSession(connector.getCredentials(), this::fetchBugzillaVersion));
+	}
+
+	/**
+	 * Wrap the function to a supplier which executes it with its own session, so it can be used by background metadata refresh.
+	 *
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @param function function using the session
+	 * @return supplier opening the session, executing the function and closing the session
+	 */
+	private <T> Supplier<T> inNewSession(final UserAuthenticationStore credentials, final Function<BugzillaSession, T> function) {
+		return () -> {
+			try (final BugzillaSession session = connectToBugzilla(credentials)) {
+				return function.apply(session);
+			}
+		};
+	}
+
+	/**
+	 * Start background warm-up of the Bugzilla version, priorities and status workflow by the configured service account,
+	 * so the first interactive request is served from the metadata caches. Product catalogues are not warmed up, because
+	 * they are cached per user and the catalogue of the service account is never returned to other users.
+	 * Warm-up is skipped if no service account is configured.
+	 * A previous warm-up of the same Bugzilla server is cancelled.
+	 */
+	private void startMetadataWarmUp() {
+		final String userName = config.get(WARM_UP_USERNAME_NAME);
+		if (StringUtils.isBlank(userName)) {
+			cancelMetadataWarmUp();
+			return;
+		}
+		final UserAuthenticationStore credentials = new SimpleUserAuthStore(userName, config.get(WARM_UP_PASSWORD_NAME));
+		MetadataWarmUp.start(bugzillaURL.toString(), () -> {
+			try (final LazySession conn = new LazySession(credentials)) {
+				final double bugzillaVersion = getBugzillaVersion(conn);
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				getValidPriorityList(conn, bugzillaVersion);
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				getBugWorkflow(conn);
+			}
+		}, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.WARM_UP_TIMEOUT)));
+	}
+
+	/**
+	 * Return metrics of the Bugzilla requests executed by all plugin instances since the plugin was loaded:
+	 * calls, errors and latency percentiles of every Bugzilla WebService method.
+	 *
+	 * @return metrics snapshot
+	 */
+	public RpcMetricsSnapshot getRpcMetrics() {
+		return RpcMetrics.snapshot();
+	}
+
+	/**
+	 * Stop all operations of this plugin instance. Queued asynchronous operations and bulk tasks are cancelled, running
+	 * ones are interrupted, requests in progress are aborted by disconnecting their HTTP connections, callers waiting
+	 * for an identical request of another caller stop waiting, bulk operations fail their remaining items and all later
+	 * operations fail immediately. Background metadata warm-up of the configured Bugzilla server is cancelled as well
+	 * and the traffic capture file is released.
+	 */
+	@Override
+	public void stop() {
+		stopped = true;
+		for (Future<?> operation : pendingOperations) {
+			operation.cancel(true);
+		}
+		cancelMetadataWarmUp();
+		for (BugzillaSession session : activeSessions) {
+			session.abort();
+		}
+		replaceTrafficCapture(null);
+	}
+
+	/**
+	 * Use the traffic capture for new clients and release the previous one, so capture files no configuration uses are closed.
+	 */
+	private synchronized void replaceTrafficCapture(final TrafficCapture capture) {
+		final TrafficCapture previous = trafficCapture;
+		trafficCapture = capture;
+		if (previous != null) {
+			previous.release();
+		}
+	}
+
+	private void checkNotStopped() {
+		if (stopped) {
+			throw new BugTrackerException("Bugzilla plugin has been stopped");
+		}
+	}
+
+	/**
+	 * Execute the operation of a synchronous plugin API method by the calling thread.
+	 */
+	private <T> T supplySync(final Supplier<T> operation) {
+		checkNotStopped();
+		return operation.get();
+	}
+
+	private void runSync(final Runnable operation) {
+		checkNotStopped();
+		operation.run();
+	}
+
+	/**
+	 * Execute the operation by {@link AsyncExecutor}, the operation is cancelled by {@link #stop()}.
+	 */
+	private <T> CompletableFuture<T> supplyAsync(final Supplier<T> operation) {
+		checkNotStopped();
+		final CompletableFuture<T> future = AsyncExecutor.supply(() -> {
+			checkNotStopped();
+			return operation.get();
+		});
+		pendingOperations.add(future);
+		future.whenComplete((result, error) -> pendingOperations.remove(future));
+		return future;
+	}
+
+	private CompletableFuture<Void> runAsync(final Runnable operation) {
+		return supplyAsync(() -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Cancel a running or queued metadata warm-up of the configured Bugzilla server.
+	 */
+	void cancelMetadataWarmUp() {
+		if (bugzillaURL != null) {
+			MetadataWarmUp.cancel(bugzillaURL.toString());
+		}
+	}
+
+	/**
+	 * Restore metadata caches from the snapshot of the configured Bugzilla server. Snapshot is restored only once
+	 * per class loader, restored values are reconciled with the live server in background by the first request.
+	 */
+	private void restoreMetadataSnapshot() {
+		if ((metadataSnapshot == null) || !RESTORED_SNAPSHOTS.add(metadataSnapshot.getFile())) {
+			return;
+		}
+		final MetadataSnapshot.Contents contents = metadataSnapshot.read();
+		if (contents == null) {
+			return;
+		}
+		final String url = bugzillaURL.toString();
+		if (contents.getBugzillaVersion() != null) {
+			BUGZILLA_VERSIONS.restore(url, contents.getBugzillaVersion());
+		}
+		if (contents.getPriorities() != null) {
+			PRIORITIES.restore(url, contents.getPriorities());
+		}
+		for (Map.Entry<String, ProductCatalog> catalog : contents.getProductCatalogs().entrySet()) {
+			PRODUCT_CATALOGS.restore(url + "|" + catalog.getKey(), catalog.getValue());
+		}
+	}
+
+	/**
+	 * Schedule a write of the metadata snapshot after metadata of the configured Bugzilla server has been loaded.
+	 */
+	private void scheduleMetadataSnapshot() {
+		final MetadataSnapshot snapshot = metadataSnapshot;
+		if (snapshot == null) {
+			return;
+		}
+		final String url = bugzillaURL.toString();
+		snapshot.scheduleWrite(() -> {
+			final String catalogKeyPrefix = url + "|";
+			final Map<String, ProductCatalog> catalogs = new LinkedHashMap<>();
+			for (Map.Entry<String, ProductCatalog> catalog : PRODUCT_CATALOGS.snapshot().entrySet()) {
+				final String catalogKey = catalog.getKey().startsWith(catalogKeyPrefix)
+						? catalog.getKey().substring(catalogKeyPrefix.length()) : null;
+				// Catalogues keyed by user name and password digest instead of the snapshot HMAC are never saved
+				if ((catalogKey != null) && (catalogKey.indexOf('|') < 0)) {
+					catalogs.put(catalogKey, catalog.getValue());
+				}
+			}
+			return new MetadataSnapshot.Contents(url, BUGZILLA_VERSIONS.peek(url), PRIORITIES.peek(url), catalogs);
+		});
+	}
+
+	/**
+	 * Forget the cached Bugzilla version, so it is queried again by the next request.
+	 * Called when a request depending on the version fails, because the server might have been upgraded or replaced.
+	 */
+	private void invalidateBugzillaVersion() {
+		BUGZILLA_VERSIONS.invalidate(bugzillaURL.toString());
+	}
+
+	private double fetchBugzillaVersion(BugzillaSession connector) {
 		try {
 			final BugzillaVersion versionCheck = new BugzillaVersion();
 			executeMethod(connector, versionCheck);
-			return stringVersionToDouble(versionCheck.getVersion());
+			final double version = stringVersionToDouble(versionCheck.getVersion());
+			scheduleMetadataSnapshot();
+			return version;
 		} catch (BugzillaException e) {
 			throw new BugTrackerException("Cannot obtain Bugzilla version from Bugzilla server " + bugzillaURL, e);
 		}
@@ -659,7 +1360,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	 * @param strVersion string representation of the version.
 	 * @return double representation of the version.
 	 */
-	private static double stringVersionToDouble(String strVersion) {
+	static double stringVersionToDouble(String strVersion) {
 		final char[] numbers = new char[]{'0','1','2','3','4','5','6','7','8','9'};
 		final char[] chars = strVersion.toCharArray();
 		final StringBuilder result = new StringBuilder();
@@ -682,29 +1383,7 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 	}
 
 
-	private List<String> getValidComponentList(BugzillaConnector connector, Product product) {
-
-		final GetLegalValues get = new GetLegalValues(GetLegalValues.Fields.COMPONENT, product);
-		try {
-			return executeGetLegalValues(connector, get);
-		} catch (BugzillaException e) {
-			throw new BugTrackerException("Cannot obtain the list of valid components from Bugzilla server " + bugzillaURL, e);
-		}
-	}
-
-
-	private List<String> getValidVersionsList(BugzillaConnector connector, Product product) {
-
-		final GetLegalValues get = new GetLegalValues(GetLegalValues.Fields.VERSION, product);
-		try {
-			return executeGetLegalValues(connector, get);
-		} catch (BugzillaException e) {
-			throw new BugTrackerException("Cannot obtain the list of valid versions from Bugzilla server " + bugzillaURL, e);
-		}
-	}
-
-
-	private Map<String, Object> getPostDataStrMap(Map<String, String> paramList) {
+	Map<String, Object> getPostDataStrMap(Map<String, String> paramList) {
 		final Map<String, Object> result = new HashMap<>();
 		for (Map.Entry<String, String> p : paramList.entrySet()) {
 			result.put(p.getKey(), p.getValue());
@@ -723,23 +1402,291 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 
 	@Override
 	public Bug fetchBugDetails(String bugId, UserAuthenticationStore credentials) {
-		final BugzillaConnector connector = connectToBugzilla(credentials);
-		final GetBug getBug = new GetBug(Integer.parseInt(bugId));
-		try {
+		return supplySync(() -> fetchBugDetailsInternal(bugId, credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #fetchBugDetails(String, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bugId id of the bug to be fetched
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future bug with its status and resolution
+	 */
+	public CompletableFuture<Bug> fetchBugDetailsAsync(String bugId, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> fetchBugDetailsInternal(bugId, credentials));
+	}
+
+	private Bug fetchBugDetailsInternal(String bugId, UserAuthenticationStore credentials) {
+		final Bug cached = BUG_STATES.getIfPresent(bugStateKey(credentials, bugId));
+		if (cached != null) {
+			return copyBug(cached);
+		}
+		final GetBugs getBug = GetBugs.forBugStates(Collections.singletonList(bugIdToNumber(bugId)), false);
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
 			executeMethod(connector, getBug);
-			com.j2bugzilla.base.Bug dtoBug = getBug.getBug();
-			return new Bug(String.valueOf(dtoBug.getID()), dtoBug.getStatus(), dtoBug.getResolution());
+			final List<Bug> bugs = getBug.getBugStates();
+			if (bugs.isEmpty()) {
+				throw new BugTrackerException("The bug status could not be fetched correctly");
+			}
+			final Bug bug = bugs.get(0);
+			cacheBugState(credentials, bug);
+			return bug;
 		} catch (BugzillaException e) {
 			throw new BugTrackerException("The bug status could not be fetched correctly", e);
 		}
 	}
 
-	private BugzillaConnector connectToBugzilla(final UserAuthenticationStore credentials) {
+	/**
+	 * Fetch status and resolution of many bugs at once. Bugs are retrieved by multi-id Bug.get requests,
+	 * each request asks for at most the configured number of bugs and only for their id, status and resolution fields.
+	 * <P>
+	 * Fetched bug states are cached for a short time, so subsequent {@link #fetchBugDetails(String, UserAuthenticationStore)},
+	 * {@link #isBugOpen(Bug, UserAuthenticationStore)} and {@link #isBugClosed(Bug, UserAuthenticationStore)} calls
+	 * during the same bug state synchronization do not need to query Bugzilla again.
+	 *
+	 * @param bugIds ids of the bugs to be fetched
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return map of bug id to bug, bugs which do not exist or are not accessible by the user are missing in the map
+	 */
+	public Map<String, Bug> fetchBugDetails(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		return supplySync(() -> fetchBugDetailsInternal(bugIds, credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #fetchBugDetails(Collection, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bugIds ids of the bugs to be fetched
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future map of bug id to bug
+	 */
+	public CompletableFuture<Map<String, Bug>> fetchBugDetailsAsync(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> fetchBugDetailsInternal(bugIds, credentials));
+	}
+
+	private Map<String, Bug> fetchBugDetailsInternal(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		final Map<String, Bug> result = new LinkedHashMap<>();
+		final List<Integer> missingIds = new ArrayList<>();
+		for (String bugId : new LinkedHashSet<>(bugIds)) {
+			final Bug cached = BUG_STATES.getIfPresent(bugStateKey(credentials, bugId));
+			if (cached != null) {
+				result.put(bugId, copyBug(cached));
+			} else {
+				missingIds.add(bugIdToNumber(bugId));
+			}
+		}
+		if (missingIds.isEmpty()) {
+			return result;
+		}
+
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
+			fetchBugStates(connector, missingIds, credentials, result);
+		} catch (BugzillaException e) {
+			throw new BugTrackerException("The bug statuses could not be fetched correctly", e);
+		}
+		return result;
+	}
+
+	/**
+	 * Fetch states of the bugs by Bug.get requests of up to {@link AdvancedField#BUG_FETCH_BATCH_SIZE} bugs and cache them.
+	 */
+	private void fetchBugStates(final BugzillaSession connector, final List<Integer> ids, final UserAuthenticationStore credentials
+			, final Map<String, Bug> result) throws BugzillaException {
+		final int batchSize = Math.max(1, getAdvancedIntValue(AdvancedField.BUG_FETCH_BATCH_SIZE));
+		for (int from = 0; from < ids.size(); from += batchSize) {
+			final GetBugs getBugs = GetBugs.forBugStates(ids.subList(from, Math.min(from + batchSize, ids.size())), true);
+			executeMethod(connector, getBugs);
+			for (Bug bug : getBugs.getBugStates()) {
+				cacheBugState(credentials, bug);
+				result.put(bug.getBugId(), bug);
+			}
+		}
+	}
+
+	/**
+	 * Fetch status and resolution of the tracked bugs changed since their previous synchronization by this method.
+	 * <P>
+	 * Bugzilla database time is remembered as a high-water mark of every bug after every successful call. Subsequent calls
+	 * search for the tracked bugs changed since their mark by Bug.search requests restricted to the bug ids, so only
+	 * the changed bugs are transferred. Bugs without a mark, i.e. bugs tracked since the previous call or all bugs after
+	 * SSC restart, are fetched fully. Changed bug states are cached the same way as fetched ones.
+	 *
+	 * @param bugIds ids of the tracked bugs
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return map of bug id to bug containing the tracked bugs changed since their previous synchronization and all bugs
+	 * synchronized for the first time
+	 */
+	public Map<String, Bug> fetchChangedBugDetails(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		return supplySync(() -> fetchChangedBugDetailsInternal(bugIds, credentials));
+	}
+
+	/**
+	 * Asynchronous variant of {@link #fetchChangedBugDetails(Collection, UserAuthenticationStore)} executed by {@link AsyncExecutor}.
+	 *
+	 * @param bugIds ids of the tracked bugs
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @return future map of bug id to bug containing only the changed bugs
+	 */
+	public CompletableFuture<Map<String, Bug>> fetchChangedBugDetailsAsync(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		return supplyAsync(() -> fetchChangedBugDetailsInternal(bugIds, credentials));
+	}
+
+	private Map<String, Bug> fetchChangedBugDetailsInternal(Collection<String> bugIds, UserAuthenticationStore credentials) {
+		final String markKeyPrefix = credentialsKey(credentials) + "|";
+		final List<Integer> unmarkedIds = new ArrayList<>();
+		final Map<Date, List<Integer>> idsByMark = new HashMap<>();
+		for (Integer id : bugIds.stream().map(this::bugIdToNumber).collect(Collectors.toCollection(LinkedHashSet::new))) {
+			final Date mark = SYNC_HIGH_WATER_MARKS.getIfPresent(markKeyPrefix + id);
+			if (mark == null) {
+				unmarkedIds.add(id);
+			} else {
+				idsByMark.computeIfAbsent(mark, k -> new ArrayList<>()).add(id);
+			}
+		}
+
+		final Date newMark;
+		final Map<String, Bug> result = new LinkedHashMap<>();
+		try (final BugzillaSession connector = connectToBugzilla(credentials)) {
+			// Time is read first, so changes made during the synchronization are found by the next one
+			final GetServerTime getTime = new GetServerTime();
+			executeMethod(connector, getTime);
+			newMark = getTime.getDatabaseTime();
+			fetchBugStates(connector, unmarkedIds, credentials, result);
+			final int batchSize = Math.max(1, getAdvancedIntValue(AdvancedField.BUG_FETCH_BATCH_SIZE));
+			for (Map.Entry<Date, List<Integer>> marked : idsByMark.entrySet()) {
+				final List<Integer> ids = marked.getValue();
+				for (int from = 0; from < ids.size(); from += batchSize) {
+					final SearchChangedBugs search = new SearchChangedBugs(marked.getKey(), ids.subList(from, Math.min(from + batchSize, ids.size())));
+					executeMethod(connector, search);
+					for (Bug bug : search.getBugStates()) {
+						cacheBugState(credentials, bug);
+						result.put(bug.getBugId(), bug);
+					}
+				}
+			}
+		} catch (BugzillaException e) {
+			throw new BugTrackerException("The changed bug statuses could not be fetched correctly", e);
+		}
+		if (newMark != null) {
+			for (Integer id : unmarkedIds) {
+				SYNC_HIGH_WATER_MARKS.put(markKeyPrefix + id, newMark, SYNC_HIGH_WATER_MARK_TTL);
+			}
+			for (List<Integer> ids : idsByMark.values()) {
+				for (Integer id : ids) {
+					SYNC_HIGH_WATER_MARKS.put(markKeyPrefix + id, newMark, SYNC_HIGH_WATER_MARK_TTL);
+				}
+			}
+		}
+		return result;
+	}
+
+	private Integer bugIdToNumber(final String bugId) {
+		try {
+			return Integer.valueOf(bugId.trim());
+		} catch (NumberFormatException e) {
+			throw new BugTrackerException(String.format("Bug id %s is not a number", bugId));
+		}
+	}
+
+	private BugzillaSession connectToBugzilla(final UserAuthenticationStore credentials) {
+		return connectToBugzilla(credentials, false);
+	}
+
+	/**
+	 * Borrow an authenticated session from the session pool. If there is no idle session for the given credentials,
+	 * a new connector is created and the user is logged in.
+	 * In the API key authentication mode the password is sent as an API key with every request and no login is performed,
+	 * a forced login only verifies the key.
+	 *
+	 * @param credentials bug tracker credentials supplied by the user
+	 * @param forceLogin if true, an idle session is not reused and a new login is always performed
+	 * @return authenticated session that must be closed after use
+	 */
+	private BugzillaSession connectToBugzilla(final UserAuthenticationStore credentials, final boolean forceLogin) {
+
+		checkNotStopped();
+		final Proxy sscProxy = resolveSscProxy(config, bugzillaProtocol);
+		final UserAuthenticationStore proxyCreds = sscProxy == null ? null : resolveSscProxyCredentials(config, bugzillaProtocol);
+		final boolean apiKey = isApiKeyAuthentication();
+		final BugzillaSessionPool.Key key = new BugzillaSessionPool.Key(bugzillaURL.toString()
+				, credentials.getUserName(), credentials.getPassword(), apiKey, describeProxy(sscProxy, proxyCreds));
+
+		final BugzillaSession session = sessionPool.borrow(key
+				, () -> createConnector(sscProxy, proxyCreds, apiKey ? credentials.getPassword() : null)
+				, credentials.getUserName(), credentials.getPassword()
+				, getAdvancedIntValue(AdvancedField.SESSION_POOL_MAX_IDLE)
+				, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.SESSION_IDLE_TIMEOUT))
+				, forceLogin);
+		activeSessions.add(session);
+		session.setCloseListener(() -> activeSessions.remove(session));
+		if (stopped) {
+			session.abort();
+		}
+		if (!session.isAuthenticated()) {
+			try {
+				if (apiKey) {
+					session.markApiKeyAuthenticated();
+					if (forceLogin) {
+						verifyApiKey(session, credentials.getUserName());
+					}
+				} else {
+					executeMethod(session, new LogIn(credentials.getUserName(), credentials.getPassword()));
+				}
+			} catch (BugzillaException e) {
+				session.invalidate();
+				session.close();
+				throw new BugTrackerException("Could not login to Bugzilla server at " + bugzillaURL, e);
+			} catch (RuntimeException e) {
+				session.invalidate();
+				session.close();
+				throw e;
+			}
+		}
+		return session;
+	}
+
+	/**
+	 * Verify the API key by asking the server for the authenticated user, which has to match the configured user name if any.
+	 */
+	private void verifyApiKey(final BugzillaSession session, final String userName) throws BugzillaException {
+		final WhoAmI whoAmI = new WhoAmI();
+		executeMethod(session, whoAmI);
+		if (StringUtils.isNotBlank(userName) && !userName.trim().equalsIgnoreCase(whoAmI.getLoginName())) {
+			throw new BugTrackerException(String.format("Bugzilla API key belongs to %s, not to %s", whoAmI.getLoginName(), userName));
+		}
+	}
+
+	private boolean isApiKeyAuthentication() {
+		final String mode = StringUtils.trimToEmpty(config.get(AUTHENTICATION_MODE_NAME));
+		if (mode.isEmpty() || AUTHENTICATION_MODE_PASSWORD.equalsIgnoreCase(mode)) {
+			return false;
+		} else if (AUTHENTICATION_MODE_API_KEY.equalsIgnoreCase(mode)) {
+			return true;
+		}
+		throw new BugTrackerException(String.format("Authentication mode should be either %s or %s", AUTHENTICATION_MODE_PASSWORD, AUTHENTICATION_MODE_API_KEY));
+	}
+
+	private String describeProxy(final Proxy sscProxy, final UserAuthenticationStore proxyCreds) {
+		if (sscProxy == null) {
+			return null;
+		}
+		return proxyCreds == null
+				? String.valueOf(sscProxy.address())
+				: sscProxy.address() + "|" + proxyCreds.getUserName() + "|" + proxyCreds.getPassword();
+	}
+
+	private BugzillaClient createConnector(final Proxy sscProxy, final UserAuthenticationStore proxyCreds, final String apiKey) {
+		BugzillaClient client = createClient(sscProxy, proxyCreds, apiKey);
+		final TrafficCapture capture = trafficCapture;
+		if (capture != null) {
+			client = capture.wrap(client);
+		}
+		final RequestLimiter limiter = RequestLimiter.forUrl(bugzillaURL.toString());
+		return limiter.isEnabled() ? limiter.wrap(client, SOCKET_TIMEOUT) : client;
+	}
+
+	private BugzillaClient createClient(final Proxy sscProxy, final UserAuthenticationStore proxyCreds, final String apiKey) {
 
-		UserAuthenticationStore proxyCreds = null;
-		Proxy sscProxy = resolveSscProxy(config, bugzillaProtocol);
 		if (sscProxy != null) {
-			proxyCreds = resolveSscProxyCredentials(config, bugzillaProtocol);
             if ((proxyCreds != null) && (proxyCreds.getUserName() != null) && (bugzillaProtocol.equals(HTTPS_PROTOCOL))) {
                 throw new BugTrackerException(
                         "Bugzilla plugin does not currently support using authenticated proxy for Bugzilla HTTPS requests."
@@ -747,35 +1694,67 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
             }
 		}
 
-		final BugzillaConnector connector = new BugzillaConnector(CONNNECT_TIMEOUT, SOCKET_TIMEOUT);
+		final String proxyUser = proxyCreds == null ? null : proxyCreds.getUserName();
+		final String proxyPassword = proxyCreds == null ? null : proxyCreds.getPassword();
 		try {
-			if (sscProxy == null) {
-				connector.connectTo(bugzillaURL.toString());
-			} else {
-				if (proxyCreds == null) {
-					connector.connectTo(bugzillaURL.toString(), null, null
-							, sscProxy, null, null);
-				} else {
-					connector.connectTo(bugzillaURL.toString(), null, null
-							, sscProxy, proxyCreds.getUserName(), proxyCreds.getPassword());
+			if (isRestApiConfigured()) {
+				final RestBugzillaClient restClient = new RestBugzillaClient(bugzillaURL, CONNNECT_TIMEOUT, SOCKET_TIMEOUT
+						, sscProxy, proxyUser, proxyPassword, apiKey);
+				if (isRestApiAvailable(restClient)) {
+					return restClient;
 				}
 			}
+			return new XmlRpcBugzillaClient(bugzillaURL, CONNNECT_TIMEOUT, SOCKET_TIMEOUT, httpTransportFactory
+					, sscProxy, proxyUser, proxyPassword, apiKey);
 		} catch (ConnectionException e) {
 			throw new BugTrackerAuthenticationException("Could not connect to Bugzilla server at " + bugzillaURL, e);
 		} catch (Exception e) {
 			throw new BugTrackerException("Could not connect to Bugzilla server at " + bugzillaURL, e);
 		}
-		final LogIn logIn = new LogIn(credentials.getUserName(), credentials.getPassword());
+	}
+
+	/**
+	 * @return true if the configuration selects the REST API, it is used if the server provides it
+	 */
+	private boolean isRestApiConfigured() {
+		return BUGZILLA_API_REST.equalsIgnoreCase(StringUtils.trimToEmpty(config.get(BUGZILLA_API_NAME)));
+	}
+
+	/**
+	 * Check whether the server provides the REST API. Only a definite answer is cached, if the availability cannot be
+	 * determined, the REST API is assumed and the check is repeated by the next new client.
+	 */
+	private boolean isRestApiAvailable(final RestBugzillaClient restClient) {
+		final String url = bugzillaURL.toString();
+		final Boolean cached = REST_API_AVAILABILITY.getIfPresent(url);
+		if (cached != null) {
+			return cached;
+		}
 		try {
-			executeMethod(connector, logIn);
+			final boolean available = restClient.isRestApiAvailable();
+			REST_API_AVAILABILITY.put(url, available, TimeUnit.SECONDS.toMillis(getAdvancedIntValue(AdvancedField.BUGZILLA_VERSION_CACHE_TTL)));
+			return available;
 		} catch (BugzillaException e) {
-			throw new BugTrackerException("Could not login to Bugzilla server at " + bugzillaURL, e);
+			return true;
 		}
-		return connector;
 	}
 
+	/**
+	 * Create the HTTP transport factory selected by the plugin configuration. Keep-alive transport is used by default.
+	 * Factory is created once per applied configuration and shared by all clients of the plugin instance.
+	 */
+	private HttpTransportFactory createHttpTransportFactory() {
+		final String transport = StringUtils.trimToEmpty(config.get(HTTP_TRANSPORT_NAME));
+		if (HTTP_TRANSPORT_LEGACY.equalsIgnoreCase(transport)) {
+			return HttpTransportFactory.LEGACY;
+		} else if (transport.isEmpty() || HTTP_TRANSPORT_KEEP_ALIVE.equalsIgnoreCase(transport)) {
+			return new KeepAliveTransportFactory(SOCKET_TIMEOUT);
+		}
+		throw new BugTrackerException(String.format("HTTP transport should be either %s or %s", HTTP_TRANSPORT_KEEP_ALIVE, HTTP_TRANSPORT_LEGACY));
+	}
 
-    private List<String> executeGetLegalValues(BugzillaConnector connector, GetLegalValues get)
+
+    private List<String> executeGetLegalValues(BugzillaSession connector, GetLegalValues get)
             throws BugzillaException, BugTrackerException {
 
         executeMethod(connector, get);
@@ -785,11 +1764,12 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
         return result;
     }
 
-    private void executeMethod(final BugzillaConnector connector, final BugzillaMethod method)
+    private void executeMethod(final BugzillaSession connector, final BugzillaMethod method)
             throws BugTrackerException, BugzillaException {
 
+        checkNotStopped();
         try {
-            connector.executeMethod(method);
+            executeMetered(connector, method);
         } catch (BugzillaException e) {
             if (e instanceof BugzillaTransportException) {
                 switch (((BugzillaTransportException)e).getStatus()) {
@@ -806,6 +1786,22 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
         }
     }
 
+    /**
+     * Execute the method and record its latency and outcome in {@link RpcMetrics}.
+     */
+    private void executeMetered(final BugzillaSession connector, final BugzillaMethod method) throws BugzillaException {
+        final RpcMetrics.Timer timer = RpcMetrics.start();
+        Throwable error = null;
+        try {
+            connector.execute(method);
+        } catch (BugzillaException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            RpcMetrics.record(timer, bugzillaURL.toString(), method.getMethodName(), error);
+        }
+    }
+
 
     @Override
 	public String getBugDeepLink(String bugId) {
@@ -822,6 +1818,28 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 		return portNum;
 	}
 
+	/**
+	 * Return value of an advanced setting or its default value if the setting is not configured.
+	 *
+	 * @param fld advanced setting field
+	 * @return non-negative integer value of the setting
+	 */
+	private int getAdvancedIntValue(final AdvancedField fld) {
+		String value = config == null ? null : config.get(fld.getFieldName());
+		if (StringUtils.isBlank(value)) {
+			value = fld.getDefaultValue();
+		}
+		try {
+			final int intValue = Integer.parseInt(value.trim());
+			if (intValue < 0) {
+				throw new NumberFormatException();
+			}
+			return intValue;
+		} catch (NumberFormatException e) {
+			throw new BugTrackerException(String.format("Value '%s' of '%s' is not a valid non-negative number", value, fld.getDisplayLabel()));
+		}
+	}
+
 	private Proxy resolveSscProxy(final Map<String, String> config, final String targetProtocol) {
 		if (HTTPS_PROTOCOL.equals(targetProtocol)) {
 			return getSscProxy(config.get(ProxyField.HTTPS_PROXY_HOST.getFieldName())
@@ -892,6 +1910,38 @@ public class Bugzilla4BugTrackerPlugin extends AbstractBatchBugTrackerPlugin imp
 			new SimpleImmutableEntry<>(KNOWN_PRIORITY_LOWEST.getPriority().toLowerCase(), KNOWN_PRIORITY_LOWEST)
 	).collect(Collectors.toMap(SimpleImmutableEntry::getKey, SimpleImmutableEntry::getValue));
 
+	/**
+	 * Session connected to Bugzilla only when it is needed for the first time,
+	 * so requests answered from caches do not need any request to Bugzilla (including the login).
+	 */
+	private class LazySession implements AutoCloseable {
+
+		private final UserAuthenticationStore credentials;
+		private BugzillaSession session;
+
+		LazySession(UserAuthenticationStore credentials) {
+			this.credentials = credentials;
+		}
+
+		UserAuthenticationStore getCredentials() {
+			return credentials;
+		}
+
+		BugzillaSession get() {
+			if (session == null) {
+				session = connectToBugzilla(credentials);
+			}
+			return session;
+		}
+
+		@Override
+		public void close() {
+			if (session != null) {
+				session.close();
+			}
+		}
+	}
+
 	private static class SimpleUserAuthStore implements UserAuthenticationStore {
 
 		private String userName;
@@ -0,0 +1,29 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+
+/**
+ * Connection to a single Bugzilla server executing j2bugzilla methods.
+ * <P>
+ * Client keeps the login token returned by {@link com.j2bugzilla.rpc.LogIn} and sends it with all later methods,
+ * the same way {@link com.j2bugzilla.base.BugzillaConnector} does.
+ */
+interface BugzillaClient {
+
+	/**
+	 * Execute the method and set its result map.
+	 *
+	 * @param method Bugzilla method to be executed
+	 * @throws BugzillaException if the method execution fails
+	 */
+	void executeMethod(BugzillaMethod method) throws BugzillaException;
+
+	/**
+	 * Abort the requests in progress executed by other threads and fail all later requests, so the client cannot be used anymore.
+	 */
+	void abort();
+}
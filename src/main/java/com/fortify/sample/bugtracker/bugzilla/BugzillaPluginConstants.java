@@ -47,6 +47,146 @@ final class BugzillaPluginConstants {
 		}
 	}
 
+	/**
+	 * Optional advanced plugin settings
+	 *
+	 * All fields are sent by getConfiguration() with their default values, an empty value means the default is used.
+	 */
+	enum AdvancedField {
+		SESSION_POOL_MAX_IDLE("sessionPoolMaxIdle", "Max Idle Sessions"
+				, "Maximum number of idle authenticated Bugzilla sessions kept per user and reused by later requests", "8")
+		, SESSION_IDLE_TIMEOUT("sessionIdleTimeoutSeconds", "Session Idle Timeout (seconds)"
+				, "Idle authenticated Bugzilla sessions are discarded after this period", "300")
+		, BUGZILLA_VERSION_CACHE_TTL("bugzillaVersionCacheSeconds", "Bugzilla Version Cache Time (seconds)"
+				, "Bugzilla server version is refreshed after this period, 0 disables caching", "3600")
+		, BUG_FETCH_BATCH_SIZE("bugFetchBatchSize", "Bug Fetch Batch Size"
+				, "Maximum number of bugs retrieved by a single request when bug states are fetched in bulk", "200")
+		, BUG_STATE_CACHE_TTL("bugStateCacheSeconds", "Bug State Cache Time (seconds)"
+				, "Fetched bug states are reused for this period during bug state synchronization, 0 disables caching", "60")
+		, BUG_STATE_CACHE_MAX_ENTRIES("bugStateCacheMaxEntries", "Bug State Cache Size"
+				, "Maximum number of cached bug states, 0 means unbounded", "50000")
+		, PRODUCT_CATALOG_CACHE_TTL("productCatalogCacheSeconds", "Product Catalogue Cache Time (seconds)"
+				, "Products, components and versions accessible by a user are refreshed after this period, 0 disables caching", "600")
+		, LEGAL_VALUES_CACHE_TTL("legalValuesCacheSeconds", "Legal Values Cache Time (seconds)"
+				, "Legal values of bug fields (priorities) are refreshed after this period, 0 disables caching", "600")
+		, METADATA_CACHE_MAX_ENTRIES("metadataCacheMaxEntries", "Metadata Cache Size"
+				, "Maximum number of cached Bugzilla versions, legal value lists and product catalogues of each kind", "1000")
+		, WARM_UP_TIMEOUT("warmUpTimeoutSeconds", "Metadata Warm-up Timeout (seconds)"
+				, "Background metadata warm-up with the warm-up account is cancelled after this period", "120")
+		, BULK_CONCURRENCY("bulkConcurrency", "Bulk Operation Concurrency"
+				, "Maximum number of bugs filed or updated in parallel by bulk operations, 1 means serial processing", "4")
+		, HTTP_MAX_CONNECTIONS_PER_HOST("httpMaxConnectionsPerHost", "Max Connections Per Host"
+				, "Maximum number of concurrent HTTP connections to the Bugzilla host opened by the keep-alive transport and the REST client, shared by all configurations of the host, 0 means unbounded", "8")
+		, BULK_UPDATE_BATCH_SIZE("bulkUpdateBatchSize", "Bulk Update Batch Size"
+				, "Maximum number of bugs with the same comment reopened or commented by a single request in bulk operations, 1 disables grouping."
+				+ " Not used by the REST API, which updates one bug per request", "50")
+		, METRICS_LOG_INTERVAL("metricsLogIntervalSeconds", "Request Metrics Log Interval (seconds)"
+				, "Calls, errors and latency percentiles of Bugzilla requests are written to the plugin log with this period, 0 disables logging", "0")
+		, MAX_CONCURRENT_REQUESTS("maxConcurrentRequests", "Max Concurrent Requests"
+				, "Upper bound of the adaptive limit of concurrent requests to the Bugzilla server, which starts at the bulk operation"
+				+ " concurrency and is lowered automatically when the server latency rises or the server is overloaded, 0 disables the limit."
+				+ " Shared by all configurations of the Bugzilla URL, the last applied configuration wins", "0")
+		, MAX_REQUESTS_PER_SECOND("maxRequestsPerSecond", "Max Requests Per Second"
+				, "Maximum number of requests per second sent to the Bugzilla server, 0 means unlimited."
+				+ " Shared by all configurations of the Bugzilla URL, the last applied configuration wins", "0")
+		;
+
+		final private String fieldName;
+		final private String displayLabel;
+		final private String description;
+		final private String defaultValue;
+
+		String getFieldName() {
+			return fieldName;
+		}
+		String getDisplayLabel() {
+			return displayLabel;
+		}
+		String getDescription() {
+			return description;
+		}
+		String getDefaultValue() {
+			return defaultValue;
+		}
+
+		AdvancedField(final String fieldName, final String displayLabel, final String description, final String defaultValue) {
+			this.fieldName = fieldName;
+			this.displayLabel = displayLabel;
+			this.description = description;
+			this.defaultValue = defaultValue;
+		}
+	}
+
+	/**
+	 * Optional directory of local metadata snapshots restored after SSC restart, snapshots are disabled if empty.
+	 */
+	static final String METADATA_SNAPSHOT_DIR_NAME = "metadataSnapshotDirectory";
+	static final String METADATA_SNAPSHOT_DIR_LABEL = "Metadata Snapshot Directory";
+	static final String METADATA_SNAPSHOT_DIR_DESCRIPTION = "Directory where products, components, versions and priorities are saved"
+			+ " and restored from after SSC restart, leave empty to disable";
+
+	/**
+	 * Optional file where Bugzilla requests and responses are captured for replay, capture is disabled if empty.
+	 */
+	static final String TRAFFIC_CAPTURE_FILE_NAME = "trafficCaptureFile";
+	static final String TRAFFIC_CAPTURE_FILE_LABEL = "Traffic Capture File";
+	static final String TRAFFIC_CAPTURE_FILE_DESCRIPTION = "File where Bugzilla requests, responses and their timings are appended"
+			+ " for later replay, passwords and API keys are not written, leave empty to disable";
+
+	/**
+	 * Bugzilla WebService API used for Bugzilla requests, XML-RPC is used if empty.
+	 */
+	static final String BUGZILLA_API_NAME = "bugzillaApi";
+	static final String BUGZILLA_API_LABEL = "Bugzilla API";
+	static final String BUGZILLA_API_DESCRIPTION = "xmlrpc - XML-RPC API, rest - REST API of Bugzilla 5.0 and newer"
+			+ " (XML-RPC is used if the server does not provide REST API)";
+	static final String BUGZILLA_API_XMLRPC = "xmlrpc";
+	static final String BUGZILLA_API_REST = "rest";
+
+	/**
+	 * HTTP transport used for Bugzilla requests, keep-alive transport is used if empty.
+	 */
+	static final String HTTP_TRANSPORT_NAME = "httpTransport";
+	static final String HTTP_TRANSPORT_LABEL = "HTTP Transport";
+	static final String HTTP_TRANSPORT_DESCRIPTION = "XML-RPC transport: keepalive - persistent gzip compressed connections"
+			+ ", legacy - new connection for every request";
+	static final String HTTP_TRANSPORT_KEEP_ALIVE = "keepalive";
+	static final String HTTP_TRANSPORT_LEGACY = "legacy";
+
+	/**
+	 * Authentication of Bugzilla requests, LogIn by user name and password is used if empty.
+	 */
+	static final String AUTHENTICATION_MODE_NAME = "authenticationMode";
+	static final String AUTHENTICATION_MODE_LABEL = "Authentication Mode";
+	static final String AUTHENTICATION_MODE_DESCRIPTION = "password - user logs in by user name and password"
+			+ ", apikey - password is a Bugzilla API key sent with every request without logging in (Bugzilla 5.0 and newer)";
+	static final String AUTHENTICATION_MODE_PASSWORD = "password";
+	static final String AUTHENTICATION_MODE_API_KEY = "apikey";
+
+	/**
+	 * Optional service account used to warm up metadata in background when the configuration is applied.
+	 */
+	static final String WARM_UP_USERNAME_NAME = "warmUpUsername";
+	static final String WARM_UP_USERNAME_LABEL = "Metadata Warm-up Username";
+	static final String WARM_UP_USERNAME_DESCRIPTION = "Bugzilla account used to load Bugzilla version, priorities and status workflow"
+			+ " in background when the configuration is applied, leave empty to disable";
+	static final String WARM_UP_PASSWORD_NAME = "warmUpPassword";
+	static final String WARM_UP_PASSWORD_LABEL = "Metadata Warm-up Password";
+	static final String WARM_UP_PASSWORD_DESCRIPTION = "Password of the metadata warm-up account";
+
+	/**
+	 * Bugzilla WebService fault codes returned when the login token of a session is not valid (anymore).
+	 * 307 - auth_invalid_token, 410 - login_required
+	 */
+	static final Set<Integer> SESSION_REJECTED_FAULT_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(307, 410)));
+
+	/**
+	 * Bugzilla WebService fault codes returned when the request is not authenticated.
+	 * 300 - invalid_username_or_password, 301 - account_disabled, 306 - api_key_not_valid, 307 - auth_invalid_token,
+	 * 410 - login_required
+	 */
+	static final Set<Integer> AUTHENTICATION_FAULT_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(300, 301, 306, 307, 410)));
+
 	public static final String BUGZILLA_COOKIE = "Bugzilla_login";
 	public static final String BUGZILLA_LOGIN = "Bugzilla_login";
 	public static final String BUGZILLA_PASSWORD = "Bugzilla_password";
@@ -0,0 +1,168 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.rpc.LogIn;
+import org.apache.xmlrpc.XmlRpcException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.SESSION_REJECTED_FAULT_CODES;
+
+/**
+ * Authenticated Bugzilla session borrowed from {@link BugzillaSessionPool}.
+ * <P>
+ * Session wraps a {@link BugzillaClient} holding the Bugzilla login token. If the server rejects the token
+ * (for example because it expired), the session logs in again with the original credentials and repeats the method once.
+ * Sessions of clients authenticated by an API key are authenticated from the start and never log in.
+ * <P>
+ * A session is used by a single thread at a time and must be closed after the top-level plugin API method processing,
+ * which returns it back to the pool.
+ */
+final class BugzillaSession implements AutoCloseable {
+
+	private final BugzillaSessionPool pool;
+	private final BugzillaSessionPool.Key key;
+	private BugzillaSessionPool.Limits limits;
+	private final BugzillaClient connector;
+	private final String userName;
+	private final String password;
+
+	private boolean authenticated;
+	private boolean apiKeyAuthenticated;
+	private volatile boolean invalid;
+	private volatile boolean aborted;
+	private final AtomicBoolean closed = new AtomicBoolean(); // Closed by the current borrower
+	private long lastUsedMillis;
+	private Runnable closeListener;
+
+	BugzillaSession(final BugzillaSessionPool pool, final BugzillaSessionPool.Key key, final BugzillaSessionPool.Limits limits
+			, final BugzillaClient connector, final String userName, final String password) {
+		this.pool = pool;
+		this.key = key;
+		this.limits = limits;
+		this.connector = connector;
+		this.userName = userName;
+		this.password = password;
+		this.lastUsedMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Execute the method. Successful {@link LogIn} marks the session as authenticated.
+	 * If the server rejects the login token of an authenticated session, login is repeated and the method is executed again.
+	 * Concurrent identical read-only methods of sessions with the same key are executed only once, see {@link RequestCoalescer}.
+	 *
+	 * @param method Bugzilla method to be executed
+	 * @throws BugzillaException if the method execution fails
+	 */
+	void execute(final BugzillaMethod method) throws BugzillaException {
+		lastUsedMillis = System.currentTimeMillis();
+		if (method instanceof LogIn) {
+			connector.executeMethod(method);
+			authenticated = true;
+			return;
+		}
+		RequestCoalescer.getInstance().execute(key, method, this::executeAuthenticated, () -> aborted);
+	}
+
+	private void executeAuthenticated(final BugzillaMethod method) throws BugzillaException {
+		try {
+			connector.executeMethod(method);
+		} catch (BugzillaException e) {
+			if (!authenticated || apiKeyAuthenticated || !isSessionRejected(e)) {
+				throw e;
+			}
+			connector.executeMethod(new LogIn(userName, password));
+			connector.executeMethod(method);
+		}
+	}
+
+	private static boolean isSessionRejected(final BugzillaException e) {
+		return (e.getCause() instanceof XmlRpcException)
+				&& SESSION_REJECTED_FAULT_CODES.contains(((XmlRpcException) e.getCause()).code);
+	}
+
+	boolean isAuthenticated() {
+		return authenticated;
+	}
+
+	/**
+	 * Mark the session as authenticated by the API key its client sends with every request, LogIn is never executed.
+	 */
+	void markApiKeyAuthenticated() {
+		authenticated = true;
+		apiKeyAuthenticated = true;
+	}
+
+	/**
+	 * Abort the request in progress executed by the borrowing thread and make all later requests of the session fail.
+	 * Unlike the other methods, this method can be called by any thread. Aborted session is discarded when closed.
+	 */
+	void abort() {
+		aborted = true;
+		invalid = true;
+		connector.abort();
+	}
+
+	/**
+	 * Set the listener notified when the session is closed by the current borrower.
+	 *
+	 * @param closeListener listener or null
+	 */
+	void setCloseListener(final Runnable closeListener) {
+		this.closeListener = closeListener;
+	}
+
+	/**
+	 * Mark the session as not reusable, it is discarded instead of being returned to the pool when closed.
+	 */
+	void invalidate() {
+		invalid = true;
+	}
+
+	boolean isInvalid() {
+		return invalid;
+	}
+
+	BugzillaSessionPool.Key getKey() {
+		return key;
+	}
+
+	BugzillaSessionPool.Limits getLimits() {
+		return limits;
+	}
+
+	void setLimits(final BugzillaSessionPool.Limits limits) {
+		this.limits = limits;
+	}
+
+	long getLastUsedMillis() {
+		return lastUsedMillis;
+	}
+
+	/**
+	 * Mark the idle session as borrowed again, so its next close returns it to the pool.
+	 */
+	void reopen() {
+		closed.set(false);
+	}
+
+	/**
+	 * Return the session back to the pool. Repeated close by the same borrower does nothing.
+	 */
+	@Override
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		final Runnable listener = closeListener;
+		closeListener = null;
+		if (listener != null) {
+			listener.run();
+		}
+		pool.release(this);
+	}
+}
@@ -0,0 +1,209 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pool of authenticated Bugzilla sessions shared by all plugin instances.
+ * <P>
+ * Sessions are keyed by Bugzilla URL, user credentials and proxy settings, so a session authenticated by one user
+ * is never handed over to a request with different credentials. Idle sessions are kept up to a configured count
+ * per key and are evicted after a configured idle period.
+ * <P>
+ * Pool is thread safe, every borrowed session is used exclusively by the borrowing thread until it is closed.
+ */
+final class BugzillaSessionPool {
+
+	private static final BugzillaSessionPool INSTANCE = new BugzillaSessionPool();
+
+	/**
+	 * Minimum period between two sweeps of expired idle sessions of all keys.
+	 */
+	private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private final ConcurrentMap<Key, Deque<BugzillaSession>> idleSessions = new ConcurrentHashMap<>();
+	private final AtomicLong lastSweepMillis = new AtomicLong(System.currentTimeMillis());
+
+	static BugzillaSessionPool getInstance() {
+		return INSTANCE;
+	}
+
+	private BugzillaSessionPool() {
+	}
+
+	/**
+	 * Borrow an idle session for the key or create a new one.
+	 * Newly created session is not authenticated yet, caller has to execute LogIn method first
+	 * or mark it as authenticated by an API key.
+	 *
+	 * @param key pool key of the session
+	 * @param connectorFactory creates a new connected {@link BugzillaClient} if there is no idle session
+	 * @param userName Bugzilla user name used for the repeated login
+	 * @param password Bugzilla password used for the repeated login
+	 * @param maxIdle maximum number of idle sessions kept for the key
+	 * @param idleTimeoutMillis period after which an idle session is evicted
+	 * @param forceNew if true, an idle session is not reused and a new session is always created
+	 * @return borrowed session
+	 */
+	BugzillaSession borrow(final Key key, final Supplier<BugzillaClient> connectorFactory
+			, final String userName, final String password
+			, final int maxIdle, final long idleTimeoutMillis, final boolean forceNew) {
+
+		final Limits limits = new Limits(maxIdle, idleTimeoutMillis);
+		sweepIfNeeded();
+		if (!forceNew) {
+			final Deque<BugzillaSession> idle = idleSessions.get(key);
+			if (idle != null) {
+				final long now = System.currentTimeMillis();
+				synchronized (idle) {
+					BugzillaSession session;
+					while ((session = idle.pollFirst()) != null) {
+						if (now - session.getLastUsedMillis() < idleTimeoutMillis) {
+							session.setLimits(limits);
+							session.reopen();
+							return session;
+						}
+					}
+				}
+			}
+		}
+		return new BugzillaSession(this, key, limits, connectorFactory.get(), userName, password);
+	}
+
+	/**
+	 * Return the session back to the pool. Invalid or not authenticated sessions and sessions exceeding
+	 * the maximum idle count are discarded.
+	 *
+	 * @param session session to be returned
+	 */
+	void release(final BugzillaSession session) {
+		final Limits limits = session.getLimits();
+		if (session.isInvalid() || !session.isAuthenticated() || (limits.maxIdle <= 0)) {
+			return;
+		}
+		final Deque<BugzillaSession> idle = idleSessions.computeIfAbsent(session.getKey(), k -> new ArrayDeque<>());
+		synchronized (idle) {
+			if (idle.size() < limits.maxIdle) {
+				idle.offerFirst(session);
+			}
+		}
+	}
+
+	/**
+	 * Discard all idle sessions of all keys.
+	 */
+	void clear() {
+		idleSessions.clear();
+	}
+
+	private void sweepIfNeeded() {
+		final long now = System.currentTimeMillis();
+		final long lastSweep = lastSweepMillis.get();
+		if ((now - lastSweep < SWEEP_INTERVAL_MILLIS) || !lastSweepMillis.compareAndSet(lastSweep, now)) {
+			return;
+		}
+		for (Map.Entry<Key, Deque<BugzillaSession>> entry : idleSessions.entrySet()) {
+			final Deque<BugzillaSession> idle = entry.getValue();
+			synchronized (idle) {
+				for (Iterator<BugzillaSession> it = idle.iterator(); it.hasNext(); ) {
+					final BugzillaSession session = it.next();
+					if (now - session.getLastUsedMillis() >= session.getLimits().idleTimeoutMillis) {
+						it.remove();
+					}
+				}
+				if (idle.isEmpty()) {
+					idleSessions.remove(entry.getKey(), idle);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Idle session limits configured by the plugin instance which borrowed the session.
+	 */
+	static final class Limits {
+		private final int maxIdle;
+		private final long idleTimeoutMillis;
+
+		Limits(int maxIdle, long idleTimeoutMillis) {
+			this.maxIdle = maxIdle;
+			this.idleTimeoutMillis = idleTimeoutMillis;
+		}
+	}
+
+	/**
+	 * Pool key consisting of Bugzilla URL, user name, password (or API key) digest, authentication mode and proxy settings.
+	 */
+	static final class Key {
+		private final String bugzillaUrl;
+		private final String userName;
+		private final String passwordDigest;
+		private final boolean apiKey;
+		private final String proxy;
+
+		/**
+		 * @param bugzillaUrl Bugzilla URL
+		 * @param userName Bugzilla user name
+		 * @param password Bugzilla password or API key, only its digest is kept
+		 * @param apiKey true if the password is an API key
+		 * @param proxy description of proxy settings (host, port and credentials) or null if no proxy is used
+		 */
+		Key(final String bugzillaUrl, final String userName, final String password, final boolean apiKey, final String proxy) {
+			this.bugzillaUrl = bugzillaUrl;
+			this.userName = userName;
+			this.passwordDigest = digest(password);
+			this.apiKey = apiKey;
+			this.proxy = proxy == null ? null : DigestUtils.sha256Hex(proxy);
+		}
+
+		/**
+		 * @param secret password or API key
+		 * @return digest identifying the secret without revealing it, null if the secret is null
+		 */
+		static String digest(final String secret) {
+			return secret == null ? null : DigestUtils.sha256Hex(secret);
+		}
+
+		String getBugzillaUrl() {
+			return bugzillaUrl;
+		}
+
+		String getUserName() {
+			return userName;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) o;
+			return Objects.equals(bugzillaUrl, other.bugzillaUrl)
+					&& Objects.equals(userName, other.userName)
+					&& Objects.equals(passwordDigest, other.passwordDigest)
+					&& (apiKey == other.apiKey)
+					&& Objects.equals(proxy, other.proxy);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(bugzillaUrl, userName, passwordDigest, apiKey, proxy);
+		}
+	}
+}
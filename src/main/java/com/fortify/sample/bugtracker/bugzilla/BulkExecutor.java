@@ -0,0 +1,152 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.BugTrackerException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Executes a bulk operation on many items by a bounded number of workers.
+ * <P>
+ * Every worker borrows its own {@link BugzillaSession} when it takes its first item, processes items one by one until
+ * there is no item left, and closes the session, so authenticated sessions are reused across the items.
+ * The calling thread is one of the workers, the others run on a shared daemon pool limited to {@link #MAX_POOL_THREADS} threads.
+ * A failure of one item is recorded in its {@link BulkResult} and the workers continue with the other items.
+ * If a worker cannot open its session, all items it takes afterwards fail with the same exception without another login attempt.
+ * Pool tasks are registered in the operations of the caller while they run, so the caller can cancel them.
+ */
+final class BulkExecutor {
+
+	/**
+	 * Maximum number of pool threads shared by all bulk operations.
+	 */
+	static final int MAX_POOL_THREADS = 32;
+
+	private static final ThreadPoolExecutor POOL = createPool();
+
+	private BulkExecutor() {
+		// No implementation.
+	}
+
+	private static ThreadPoolExecutor createPool() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_POOL_THREADS, MAX_POOL_THREADS, 60, TimeUnit.SECONDS
+				, new LinkedBlockingQueue<>()
+				, r -> {
+					final Thread thread = new Thread(r, "bugzilla-bulk-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Process all items and return their results in the order of the items.
+	 *
+	 * @param items items to be processed
+	 * @param concurrency maximum number of items processed in parallel, values lower than 2 mean serial processing in the calling thread
+	 * @param sessionFactory opens an authenticated session for a worker
+	 * @param action processes a single item with the session of the worker
+	 * @param operations operations of the caller, pool tasks are added while they run; cancelling a task interrupts it
+	 *                   and its unprocessed items fail
+	 * @param <T> item type
+	 * @param <R> result value type
+	 * @return results of all items
+	 */
+	static <T, R> List<BulkResult<R>> execute(final List<T> items, final int concurrency
+			, final Supplier<BugzillaSession> sessionFactory, final BiFunction<BugzillaSession, T, R> action
+			, final Set<Future<?>> operations) {
+
+		final AtomicReferenceArray<BulkResult<R>> results = new AtomicReferenceArray<>(items.size());
+		final AtomicInteger nextItem = new AtomicInteger();
+		final Runnable worker = () -> processItems(items, nextItem, results, sessionFactory, action);
+
+		final int workers = Math.max(1, Math.min(concurrency, items.size()));
+		final List<Future<?>> futures = new ArrayList<>(workers - 1);
+		for (int i = 1; i < workers; i++) {
+			final Future<?> future = POOL.submit(worker);
+			operations.add(future);
+			futures.add(future);
+		}
+		try {
+			worker.run();
+			for (Future<?> future : futures) {
+				awaitWorker(future);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			nextItem.set(items.size());
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+		} finally {
+			operations.removeAll(futures);
+		}
+
+		final List<BulkResult<R>> resultList = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			final BulkResult<R> result = results.get(i);
+			resultList.add(result != null ? result
+					: BulkResult.<R>failure(new BugTrackerException("Bulk operation was interrupted before the item was processed")));
+		}
+		return resultList;
+	}
+
+	private static void awaitWorker(final Future<?> future) throws InterruptedException {
+		try {
+			future.get();
+		} catch (ExecutionException | CancellationException e) {
+			// Item failures are recorded by the worker, unprocessed items are reported as failures by the caller
+		}
+	}
+
+	private static <T, R> void processItems(final List<T> items, final AtomicInteger nextItem
+			, final AtomicReferenceArray<BulkResult<R>> results
+			, final Supplier<BugzillaSession> sessionFactory, final BiFunction<BugzillaSession, T, R> action) {
+
+		BugzillaSession session = null;
+		RuntimeException sessionFailure = null;
+		try {
+			for (int index = nextItem.getAndIncrement(); index < items.size(); index = nextItem.getAndIncrement()) {
+				if (sessionFailure != null) {
+					results.set(index, BulkResult.<R>failure(sessionFailure));
+					continue;
+				}
+				if (session == null) {
+					try {
+						session = sessionFactory.get();
+					} catch (RuntimeException e) {
+						// Logging in again for every item could lock the account, so the remaining items fail too
+						sessionFailure = e;
+						results.set(index, BulkResult.<R>failure(e));
+						continue;
+					}
+				}
+				try {
+					results.set(index, BulkResult.success(action.apply(session, items.get(index))));
+				} catch (RuntimeException e) {
+					results.set(index, BulkResult.<R>failure(e));
+				}
+			}
+		} finally {
+			if (session != null) {
+				session.close();
+			}
+		}
+	}
+}
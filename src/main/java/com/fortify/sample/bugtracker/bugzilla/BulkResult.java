@@ -0,0 +1,56 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+/**
+ * Result of a single item of a bulk operation, either a value or an error.
+ * <P>
+ * Bulk operations return one result per item in the order of the items, a failure of one item does not affect the others.
+ *
+ * @param <T> value type
+ */
+public final class BulkResult<T> {
+
+	private final T value;
+	private final RuntimeException error;
+
+	private BulkResult(final T value, final RuntimeException error) {
+		this.value = value;
+		this.error = error;
+	}
+
+	static <T> BulkResult<T> success(final T value) {
+		return new BulkResult<>(value, null);
+	}
+
+	static <T> BulkResult<T> failure(final RuntimeException error) {
+		return new BulkResult<>(null, error);
+	}
+
+	/**
+	 * @return true if the item was processed successfully
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * @return value of the successfully processed item, null if the item failed
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return error of the failed item, null if the item was processed successfully
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return isSuccess() ? "BulkResult{value=" + value + "}" : "BulkResult{error=" + error + "}";
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple thread safe cache where every value expires after a given time-to-live.
+ * <P>
+ * Values are put by the caller and read by {@link #getIfPresent(Object)} until they expire.
+ * Expired values are purged periodically when new values are put to the cache. If the number of values exceeds
+ * the optional maximum, expired values are purged immediately and then the values closest to their expiration are evicted.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class ExpiringCache<K, V> {
+
+	/**
+	 * Minimum period between two purges of expired values.
+	 */
+	private static final long PURGE_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * Fraction of the maximum number of values kept after an eviction, so evictions do not happen on every put.
+	 */
+	private static final double EVICTION_FILL_FACTOR = 0.9;
+
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final AtomicLong lastPurgeMillis = new AtomicLong(System.currentTimeMillis());
+	private volatile int maxEntries;
+
+	/**
+	 * Create an unbounded cache.
+	 */
+	ExpiringCache() {
+		this(0);
+	}
+
+	/**
+	 * @param maxEntries maximum number of cached values, 0 means unbounded
+	 */
+	ExpiringCache(final int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @param maxEntries maximum number of cached values, 0 means unbounded
+	 */
+	void setMaxEntries(final int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Return a cached value if it is present and not expired.
+	 *
+	 * @param key cache key
+	 * @return cached value or null
+	 */
+	V getIfPresent(final K key) {
+		final Entry<V> entry = entries.get(key);
+		return ((entry != null) && (entry.expiresAtMillis > System.currentTimeMillis())) ? entry.value : null;
+	}
+
+	/**
+	 * Put the value to the cache.
+	 *
+	 * @param key cache key
+	 * @param value value to be cached
+	 * @param ttlMillis time-to-live of the value, value is not cached if zero
+	 */
+	void put(final K key, final V value, final long ttlMillis) {
+		if (ttlMillis > 0) {
+			final long now = System.currentTimeMillis();
+			entries.put(key, new Entry<>(value, now + ttlMillis));
+			purgeIfNeeded(now);
+		}
+	}
+
+	private void purgeIfNeeded(final long now) {
+		final int max = maxEntries;
+		if ((max > 0) && (entries.size() > max)) {
+			evict(now, max);
+			return;
+		}
+		final long lastPurge = lastPurgeMillis.get();
+		if ((now - lastPurge >= PURGE_INTERVAL_MILLIS) && lastPurgeMillis.compareAndSet(lastPurge, now)) {
+			entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+		}
+	}
+
+	private synchronized void evict(final long now, final int max) {
+		if (entries.size() <= max) {
+			return;
+		}
+		lastPurgeMillis.set(now);
+		entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+		final int excess = entries.size() - (int) (max * EVICTION_FILL_FACTOR);
+		if (excess <= 0) {
+			return;
+		}
+		final List<Map.Entry<K, Entry<V>>> byExpiration = new ArrayList<>(entries.entrySet());
+		byExpiration.sort(Comparator.comparingLong(e -> e.getValue().expiresAtMillis));
+		for (int i = 0; i < Math.min(excess, byExpiration.size()); i++) {
+			entries.remove(byExpiration.get(i).getKey(), byExpiration.get(i).getValue());
+		}
+	}
+
+	/**
+	 * Remove the value from the cache.
+	 *
+	 * @param key cache key
+	 */
+	void invalidate(final K key) {
+		entries.remove(key);
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAtMillis;
+
+		Entry(V value, long expiresAtMillis) {
+			this.value = value;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bugzilla method retrieving many bugs by a single Bug.get request.
+ * <P>
+ * Unlike {@link com.j2bugzilla.rpc.GetBug} which accepts a single bug id, this method sends an array of ids.
+ * Permissive request does not fail if some bugs do not exist or are not accessible by the user, such bugs
+ * are just missing in the result.
+ * <P>
+ * Method can be created in a projected mode (see {@link #forBugStates(Collection, boolean)}) where Bugzilla is asked
+ * to return only bug id, status and resolution. Results are read by {@link #getBugStates()} directly
+ * into SSC {@link Bug} objects without creating full {@link com.j2bugzilla.base.Bug} objects.
+ */
+final class GetBugs implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Bug.get";
+
+	static final String FIELD_ID = "id";
+	static final String FIELD_STATUS = "status";
+	static final String FIELD_RESOLUTION = "resolution";
+
+	private final Map<Object, Object> params = new HashMap<>();
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	/**
+	 * @param ids ids of the bugs to be retrieved
+	 * @param permissive if false, the request fails if any of the bugs does not exist or is not accessible
+	 * @param includeFields names of the only fields to be returned by Bugzilla, all fields are returned if empty
+	 */
+	GetBugs(final Collection<Integer> ids, final boolean permissive, final String... includeFields) {
+		params.put("ids", ids.toArray());
+		params.put("permissive", permissive);
+		if (includeFields.length > 0) {
+			params.put("include_fields", includeFields.clone());
+		}
+	}
+
+	/**
+	 * Create a projected method retrieving only bug id, status and resolution.
+	 *
+	 * @param ids ids of the bugs to be retrieved
+	 * @param permissive if false, the request fails if any of the bugs does not exist or is not accessible
+	 * @return projected method
+	 */
+	static GetBugs forBugStates(final Collection<Integer> ids, final boolean permissive) {
+		return new GetBugs(ids, permissive, FIELD_ID, FIELD_STATUS, FIELD_RESOLUTION);
+	}
+
+	/**
+	 * Return id, status and resolution of the retrieved bugs.
+	 *
+	 * @return list of the retrieved bug states
+	 */
+	List<Bug> getBugStates() {
+		return readBugStates(hash.get("bugs"));
+	}
+
+	/**
+	 * Read id, status and resolution of the bugs of a Bug.get or Bug.search result.
+	 *
+	 * @param bugs value of the bugs result field
+	 * @return list of the bug states, empty if the result contains no bugs
+	 */
+	static List<Bug> readBugStates(final Object bugs) {
+		if (!(bugs instanceof Object[])) {
+			return Collections.emptyList();
+		}
+		final List<Bug> result = new ArrayList<>(((Object[]) bugs).length);
+		for (Object bug : (Object[]) bugs) {
+			final Map<?, ?> bugMap = (Map<?, ?>) bug;
+			result.add(new Bug(String.valueOf(bugMap.get(FIELD_ID))
+					, asString(bugMap.get(FIELD_STATUS)), asString(bugMap.get(FIELD_RESOLUTION))));
+		}
+		return result;
+	}
+
+	/**
+	 * Empty values can be returned by XML-RPC as a simple Object (see also sanitizeEmptyDtoBugFields2 in the plugin).
+	 */
+	private static String asString(final Object value) {
+		return value instanceof String ? (String) value : null;
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
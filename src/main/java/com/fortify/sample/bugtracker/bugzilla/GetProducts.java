@@ -0,0 +1,101 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bugzilla method retrieving many products together with their components and versions by a single Product.get request.
+ * <P>
+ * Unlike {@link com.j2bugzilla.rpc.GetProduct} which reads only product versions, this method reads components as well,
+ * so the whole product catalogue can be built without querying legal values for every product.
+ */
+final class GetProducts implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Product.get";
+
+	/**
+	 * Fields requested from Bugzilla 5.0 and newer which supports sub-fields in include_fields.
+	 */
+	private static final String[] CATALOG_FIELDS = new String[]{"id", "name"
+			, "components.name", "components.is_active", "versions.name", "versions.is_active"};
+
+	/**
+	 * Fields requested from older Bugzilla versions, whole components and versions are returned.
+	 */
+	private static final String[] CATALOG_FIELDS_LEGACY = new String[]{"id", "name", "components", "versions"};
+
+	private static final double MIN_BUGZILLA_VER_THAT_SUPPORTS_SUB_FIELDS = 5.0;
+
+	private final Map<Object, Object> params = new HashMap<>();
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	/**
+	 * @param ids ids of the products to be retrieved
+	 * @param bugzillaVersion numeric Bugzilla version used to choose the requested fields
+	 */
+	GetProducts(final int[] ids, final double bugzillaVersion) {
+		final Object[] idArray = new Object[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			idArray[i] = ids[i];
+		}
+		params.put("ids", idArray);
+		params.put("include_fields", bugzillaVersion >= MIN_BUGZILLA_VER_THAT_SUPPORTS_SUB_FIELDS
+				? CATALOG_FIELDS.clone() : CATALOG_FIELDS_LEGACY.clone());
+	}
+
+	/**
+	 * Return products retrieved from Bugzilla. Inactive components and versions are skipped.
+	 *
+	 * @return list of the retrieved products
+	 */
+	List<ProductCatalog.ProductEntry> getProducts() {
+		final Object products = hash.get("products");
+		if (!(products instanceof Object[])) {
+			return Collections.emptyList();
+		}
+		final List<ProductCatalog.ProductEntry> result = new ArrayList<>();
+		for (Object product : (Object[]) products) {
+			final Map<?, ?> productMap = (Map<?, ?>) product;
+			result.add(new ProductCatalog.ProductEntry(String.valueOf(productMap.get("name"))
+					, getActiveNames(productMap.get("components")), getActiveNames(productMap.get("versions"))));
+		}
+		return result;
+	}
+
+	private static List<String> getActiveNames(final Object values) {
+		if (!(values instanceof Object[])) {
+			return Collections.emptyList();
+		}
+		final List<String> result = new ArrayList<>();
+		for (Object value : (Object[]) values) {
+			final Map<?, ?> valueMap = (Map<?, ?>) value;
+			if (!Boolean.FALSE.equals(valueMap.get("is_active")) && (valueMap.get("name") != null)) {
+				result.add(String.valueOf(valueMap.get("name")));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Bugzilla method returning the current time of the Bugzilla database by a Bugzilla.time request.
+ * <P>
+ * Bug change times are compared with the database time, so the database time and not the local clock has to be used
+ * as a starting point of searches for changed bugs.
+ */
+final class GetServerTime implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Bugzilla.time";
+
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	/**
+	 * @return current time of the Bugzilla database or null if the server did not return it
+	 */
+	Date getDatabaseTime() {
+		return toDate(hash.get("db_time"));
+	}
+
+	/**
+	 * Convert a date returned by XML-RPC (as a date) or by REST (as an ISO 8601 UTC string) to a date.
+	 */
+	private static Date toDate(final Object value) {
+		if (value instanceof Date) {
+			return (Date) value;
+		}
+		if (value instanceof String) {
+			final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+			format.setTimeZone(TimeZone.getTimeZone("UTC"));
+			try {
+				return format.parse((String) value);
+			} catch (ParseException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
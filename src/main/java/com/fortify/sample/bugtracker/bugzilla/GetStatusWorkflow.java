@@ -0,0 +1,125 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.STATUS_REOPENED;
+
+/**
+ * Bugzilla method retrieving the bug status workflow of the server by a Bug.fields request.
+ * <P>
+ * Unlike {@link com.j2bugzilla.rpc.GetLegalValues} which reads only value names, this method reads whether every status
+ * is open and to which statuses it can be changed, and builds {@link BugWorkflow} lookup tables from them.
+ */
+final class GetStatusWorkflow implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Bug.fields";
+	private static final String STATUS_FIELD = "bug_status";
+	/**
+	 * Preferred statuses of reopened bugs: REOPENED of the Bugzilla 3 workflow (kept by many upgraded servers)
+	 * and the Bugzilla 4 default. Any other open status the bug can be changed to is used otherwise.
+	 */
+	private static final List<String> PREFERRED_REOPEN_STATUSES = Arrays.asList("REOPENED", STATUS_REOPENED);
+
+	private final Map<Object, Object> params = new HashMap<>();
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	GetStatusWorkflow() {
+		params.put("names", new Object[]{STATUS_FIELD});
+	}
+
+	/**
+	 * Return the workflow of the server. Initial transitions (the status value without a name) are skipped.
+	 * Closed statuses are reopened to a preferred open status they can be changed to, or to the first open status
+	 * listed by their transitions.
+	 *
+	 * @return workflow lookup tables or null if the server did not return the status definitions
+	 */
+	BugWorkflow getWorkflow() {
+		final Object fields = hash.get("fields");
+		if (!(fields instanceof Object[]) || (((Object[]) fields).length == 0)) {
+			return null;
+		}
+		final Object values = ((Map<?, ?>) ((Object[]) fields)[0]).get("values");
+		if (!(values instanceof Object[])) {
+			return null;
+		}
+		final List<String> openStatuses = new ArrayList<>();
+		final List<String> closedStatuses = new ArrayList<>();
+		final Map<String, List<String>> transitions = new LinkedHashMap<>();
+		for (Object value : (Object[]) values) {
+			final Map<?, ?> valueMap = (Map<?, ?>) value;
+			final Object name = valueMap.get("name");
+			if (!(name instanceof String) || ((String) name).isEmpty()) {
+				continue;
+			}
+			if (Boolean.FALSE.equals(valueMap.get("is_open"))) {
+				closedStatuses.add((String) name);
+			} else {
+				openStatuses.add((String) name);
+			}
+			transitions.put((String) name, transitionNames(valueMap.get("can_change_to")));
+		}
+		final Map<String, String> reopenStatuses = new HashMap<>();
+		for (Map.Entry<String, List<String>> entry : transitions.entrySet()) {
+			final String reopenStatus = selectReopenStatus(entry.getValue(), openStatuses);
+			if (reopenStatus != null) {
+				reopenStatuses.put(entry.getKey(), reopenStatus);
+			}
+		}
+		return new BugWorkflow(closedStatuses, reopenStatuses);
+	}
+
+	private static String selectReopenStatus(final List<String> targets, final List<String> openStatuses) {
+		for (String preferred : PREFERRED_REOPEN_STATUSES) {
+			if (targets.contains(preferred) && openStatuses.contains(preferred)) {
+				return preferred;
+			}
+		}
+		for (String target : targets) {
+			if (openStatuses.contains(target)) {
+				return target;
+			}
+		}
+		return null;
+	}
+
+	private static List<String> transitionNames(final Object transitions) {
+		if (!(transitions instanceof Object[])) {
+			return Collections.emptyList();
+		}
+		final List<String> names = new ArrayList<>();
+		for (Object transition : (Object[]) transitions) {
+			final Object name = transition instanceof Map ? ((Map<?, ?>) transition).get("name") : null;
+			if (name instanceof String) {
+				names.add((String) name);
+			}
+		}
+		return names;
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.XmlRpcProxyAndCookiesTransportFactory;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcTransportFactory;
+
+import java.net.Proxy;
+
+/**
+ * Pluggable factory of the HTTP transport used by {@link XmlRpcBugzillaClient}.
+ */
+interface HttpTransportFactory {
+
+	/**
+	 * Transport of the j2bugzilla library, every request opens and closes its own connection.
+	 * Requests in progress cannot be aborted. The transport keeps cookies of the client by itself.
+	 */
+	HttpTransportFactory LEGACY = (client, proxy, proxyUser, proxyPassword, activeConnections, cookies) -> {
+		final XmlRpcProxyAndCookiesTransportFactory factory = new XmlRpcProxyAndCookiesTransportFactory(client);
+		if (proxy != null) {
+			factory.setProxy(proxy);
+			if ((proxyUser != null) && (proxyPassword != null)) {
+				factory.setProxyCredentials(proxyUser, proxyPassword);
+			}
+		}
+		return factory;
+	};
+
+	/**
+	 * Create a transport factory for the client.
+	 *
+	 * @param client XML-RPC client
+	 * @param proxy proxy or null if the server is accessed directly
+	 * @param proxyUser proxy user name or null if the proxy does not require authentication
+	 * @param proxyPassword proxy password or null if the proxy does not require authentication
+	 * @param activeConnections registry of the connections of the requests in progress, so they can be aborted
+	 * @param cookies cookies of the client, which authenticate requests to Bugzilla servers not returning a login token
+	 * @return transport factory
+	 */
+	XmlRpcTransportFactory create(XmlRpcClient client, Proxy proxy, String proxyUser, String proxyPassword
+			, ActiveConnections activeConnections, SessionCookies cookies);
+
+	/**
+	 * @return true if the transport asks the server for gzip compressed responses
+	 */
+	default boolean isGzipRequesting() {
+		return false;
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcHttpClientConfig;
+import org.apache.xmlrpc.client.XmlRpcSun15HttpTransport;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP transport reusing persistent connections of the JDK keep-alive cache.
+ * <P>
+ * Unlike the j2bugzilla transport, which disconnects the {@link HttpURLConnection} after every request, this transport
+ * closes only the response stream, so the connection is returned to the JDK keep-alive cache and reused by the next request
+ * to the same server. All HTTPS connections use the same SSL socket factory, so they share the TLS session cache and
+ * the keep-alive cache can reuse them. Responses are requested gzip compressed.
+ * <P>
+ * Number of concurrent requests to a single host (and therefore the number of open connections) is bounded by
+ * {@link HostPermits} shared by all clients of the host, see {@link #getHostPermits(URL)}.
+ * Number of idle connections kept per host is controlled by the JDK system property {@code http.maxConnections}.
+ * Cookies set by the server are kept per client, so servers authenticating by login cookies work as with
+ * the j2bugzilla transport. Proxy handling is the same as in the j2bugzilla transport.
+ */
+final class KeepAliveTransportFactory implements HttpTransportFactory {
+
+	/**
+	 * Permits bounding concurrent requests, keyed by host and port.
+	 */
+	private static final ConcurrentMap<String, HostPermits> HOST_PERMITS = new ConcurrentHashMap<>();
+
+	private final long acquireTimeoutMillis;
+
+	/**
+	 * @param acquireTimeoutMillis maximum time a request waits for a free connection
+	 */
+	KeepAliveTransportFactory(final long acquireTimeoutMillis) {
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	@Override
+	public XmlRpcTransportFactory create(final XmlRpcClient client, final Proxy proxy, final String proxyUser, final String proxyPassword
+			, final ActiveConnections activeConnections, final SessionCookies cookies) {
+		return () -> new KeepAliveTransport(client, proxy, proxyUser, proxyPassword, activeConnections, cookies);
+	}
+
+	@Override
+	public boolean isGzipRequesting() {
+		return true;
+	}
+
+	/**
+	 * Return the permits bounding concurrent requests to the host of the URL. Permits are shared by all clients
+	 * and plugin instances connecting to the host, so the bound is global; its limit is set by
+	 * {@link HostPermits#setLimit(int)} when a plugin configuration is applied, the last applied configuration wins.
+	 *
+	 * @param url server URL
+	 * @return permits of the host, unbounded until a limit is set
+	 */
+	static HostPermits getHostPermits(final URL url) {
+		final String key = url.getHost() + ":" + (url.getPort() < 0 ? url.getDefaultPort() : url.getPort());
+		return HOST_PERMITS.computeIfAbsent(key, k -> new HostPermits());
+	}
+
+	/**
+	 * Bound of concurrent requests to a single host, its limit can be changed while requests are in progress.
+	 */
+	static final class HostPermits {
+		private final ResizableSemaphore semaphore = new ResizableSemaphore();
+		private int limit;
+
+		/**
+		 * @param limit maximum number of concurrent requests to the host, 0 means unbounded
+		 */
+		synchronized void setLimit(final int limit) {
+			if (limit > this.limit) {
+				semaphore.release(limit - this.limit);
+			} else if (limit < this.limit) {
+				semaphore.reducePermits(this.limit - limit);
+			}
+			this.limit = limit;
+		}
+
+		/**
+		 * Take a permit for a request.
+		 *
+		 * @param timeoutMillis maximum waiting time
+		 * @return true if a permit has been taken and must be released by {@link #release()}, false if requests are unbounded
+		 * @throws TimeoutException if no permit has been released in time
+		 * @throws InterruptedException if the waiting thread has been interrupted
+		 */
+		boolean acquire(final long timeoutMillis) throws TimeoutException, InterruptedException {
+			synchronized (this) {
+				if (limit <= 0) {
+					return false;
+				}
+			}
+			if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new TimeoutException();
+			}
+			return true;
+		}
+
+		void release() {
+			semaphore.release();
+		}
+	}
+
+	private static final class ResizableSemaphore extends Semaphore {
+		private static final long serialVersionUID = 1L;
+
+		ResizableSemaphore() {
+			super(0, true);
+		}
+
+		@Override
+		protected void reducePermits(final int reduction) {
+			super.reducePermits(reduction);
+		}
+	}
+
+	private final class KeepAliveTransport extends XmlRpcSun15HttpTransport {
+
+		private final String proxyUser;
+		private final String proxyPassword;
+		private final ActiveConnections activeConnections;
+		private final SessionCookies cookies;
+		private InputStream responseStream;
+
+		KeepAliveTransport(final XmlRpcClient client, final Proxy proxy, final String proxyUser, final String proxyPassword
+				, final ActiveConnections activeConnections, final SessionCookies cookies) {
+			super(client);
+			setProxy(proxy);
+			setSSLSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory());
+			this.proxyUser = proxyUser;
+			this.proxyPassword = proxyPassword;
+			this.activeConnections = activeConnections;
+			this.cookies = cookies;
+		}
+
+		@Override
+		public Object sendRequest(final XmlRpcRequest request) throws XmlRpcException {
+			final HostPermits permits = getHostPermits(((XmlRpcHttpClientConfig) request.getConfig()).getServerURL());
+			final boolean acquired;
+			try {
+				acquired = permits.acquire(acquireTimeoutMillis);
+			} catch (TimeoutException e) {
+				throw new XmlRpcClientException("Timeout waiting for a free connection to the Bugzilla server", null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new XmlRpcClientException("Interrupted while waiting for a free connection to the Bugzilla server", e);
+			}
+			try {
+				return super.sendRequest(request);
+			} finally {
+				if (acquired) {
+					permits.release();
+				}
+			}
+		}
+
+		@Override
+		protected URLConnection newURLConnection(final URL url) throws IOException {
+			final URLConnection conn = super.newURLConnection(url);
+			if ((getProxy() != null) && (proxyUser != null) && (proxyPassword != null)) {
+				final byte[] credentials = (proxyUser + ":" + proxyPassword).getBytes(StandardCharsets.UTF_8);
+				conn.setRequestProperty("Proxy-Authorization", "Basic " + new String(Base64.encodeBase64(credentials), StandardCharsets.US_ASCII));
+			}
+			cookies.apply(conn);
+			if (conn instanceof HttpURLConnection) {
+				activeConnections.add((HttpURLConnection) conn);
+			}
+			return conn;
+		}
+
+		@Override
+		protected InputStream getInputStream() throws XmlRpcException {
+			responseStream = super.getInputStream();
+			cookies.store(getURLConnection());
+			return responseStream;
+		}
+
+		/**
+		 * Close the response stream instead of disconnecting, so the connection can be reused.
+		 * Connection is disconnected if the response has not been received.
+		 */
+		@Override
+		protected void close() throws XmlRpcClientException {
+			final URLConnection conn = getURLConnection();
+			if (!(conn instanceof HttpURLConnection)) {
+				return;
+			}
+			activeConnections.remove((HttpURLConnection) conn);
+			if (responseStream == null) {
+				((HttpURLConnection) conn).disconnect();
+				return;
+			}
+			try {
+				responseStream.close();
+			} catch (IOException e) {
+				((HttpURLConnection) conn).disconnect();
+			}
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the style of HdrHistogram.
+ * <P>
+ * Every power of two range of microseconds is split into {@link #SUB_BUCKET_COUNT} linear sub-buckets, so recorded values
+ * are kept with a relative error below 1/{@link #SUB_BUCKET_COUNT} in a fixed small array regardless of the value range.
+ * Recording is a single atomic increment, so it can be used on the hot path of every request.
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Values of 2^40 microseconds (about 12 days) and more are recorded in the last bucket.
+	 */
+	private static final int MAX_VALUE_BITS = 40;
+	private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalMicros = new LongAdder();
+	private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param micros recorded latency in microseconds
+	 */
+	void record(final long micros) {
+		final long value = Math.max(0, micros);
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.increment();
+		totalMicros.add(value);
+		maxMicros.accumulate(value);
+	}
+
+	private static int bucketIndex(final long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		final int index = (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+		return Math.min(index, BUCKET_COUNT - 1);
+	}
+
+	/**
+	 * @return highest value of the bucket, values recorded in the bucket are not higher
+	 */
+	private static long bucketUpperBound(final int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = index / SUB_BUCKET_COUNT - 1;
+		final long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Return the value at the given percentile. Values are approximated by the upper bound of their bucket.
+	 *
+	 * @param percentile percentile between 0 and 100
+	 * @return latency in microseconds, 0 if no value has been recorded
+	 */
+	long getValueAtPercentile(final double percentile) {
+		final long[] snapshot = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				// The last bucket has no upper bound
+				return i == BUCKET_COUNT - 1 ? maxMicros.get() : Math.min(bucketUpperBound(i), maxMicros.get());
+			}
+		}
+		return maxMicros.get();
+	}
+
+	long getCount() {
+		return totalCount.sum();
+	}
+
+	long getTotalMicros() {
+		return totalMicros.sum();
+	}
+
+	long getMaxMicros() {
+		return maxMicros.get();
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded LRU cache of Bugzilla metadata (server version, legal values, product catalogues)
+ * shared by all plugin instances.
+ * <P>
+ * Values are fresh for a configured time-to-live. When a stale value is requested, it is returned immediately
+ * and refreshed in background (stale-while-revalidate), so UI requests never wait for a refresh. Only a missing value
+ * or a value stale for more than {@link #MAX_STALE_FACTOR} times its time-to-live is loaded synchronously.
+ * If a background refresh fails, the stale value is kept and the refresh is tried again by the next request.
+ * <P>
+ * Values restored from a {@link MetadataSnapshot} are treated as stale since the first request, so they are served
+ * right away and reconciled with the live server in background.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class MetadataCache<K, V> {
+
+	private static final Log LOG = LogFactory.getLog(MetadataCache.class);
+
+	/**
+	 * Stale values older than this multiple of their time-to-live are not served anymore.
+	 */
+	private static final int MAX_STALE_FACTOR = 10;
+
+	private static final ThreadPoolExecutor REFRESH_EXECUTOR = createRefreshExecutor();
+
+	private final String name;
+	private final Map<K, CachedValue<V>> entries;
+	private volatile int maxEntries;
+
+	/**
+	 * @param name cache name used in log messages
+	 * @param maxEntries maximum number of cached values, least recently used values are evicted first
+	 */
+	MetadataCache(final String name, final int maxEntries) {
+		this.name = name;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+				return size() > MetadataCache.this.maxEntries;
+			}
+		};
+	}
+
+	private static ThreadPoolExecutor createRefreshExecutor() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS
+				, new ArrayBlockingQueue<>(64)
+				, r -> {
+					final Thread thread = new Thread(r, "bugzilla-metadata-refresh-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @param maxEntries maximum number of cached values, least recently used values exceeding it are evicted immediately
+	 */
+	void setMaxEntries(final int maxEntries) {
+		synchronized (entries) {
+			this.maxEntries = maxEntries;
+			final Iterator<K> keys = entries.keySet().iterator();
+			for (int excess = entries.size() - maxEntries; excess > 0; excess--) {
+				keys.next();
+				keys.remove();
+			}
+		}
+	}
+
+	/**
+	 * Return a fresh or stale cached value. Missing value is loaded synchronously by the loader,
+	 * stale value is refreshed in background by the refresher.
+	 *
+	 * @param key cache key
+	 * @param ttlMillis time-to-live of the value, caching is disabled if zero
+	 * @param loader loads a missing value in the calling thread
+	 * @param refresher loads a new value in a background thread, so it must not depend on any resources of the calling thread
+	 * @return cached or newly loaded value
+	 */
+	V get(final K key, final long ttlMillis, final Supplier<V> loader, final Supplier<V> refresher) {
+		if (ttlMillis <= 0) {
+			return loader.get();
+		}
+		final long now = System.currentTimeMillis();
+		final CachedValue<V> entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if ((entry != null) && (now < entry.loadedAtMillis + MAX_STALE_FACTOR * ttlMillis)) {
+			if ((entry.restored || (now >= entry.loadedAtMillis + ttlMillis)) && entry.refreshing.compareAndSet(false, true)) {
+				refreshInBackground(key, entry, ttlMillis, refresher);
+			}
+			return entry.value;
+		}
+		final V value = loader.get();
+		put(key, value);
+		return value;
+	}
+
+	private void refreshInBackground(final K key, final CachedValue<V> entry, final long ttlMillis, final Supplier<V> refresher) {
+		try {
+			REFRESH_EXECUTOR.execute(() -> {
+				try {
+					put(key, refresher.get());
+				} catch (RuntimeException e) {
+					LOG.warn("Background refresh of Bugzilla " + name + " failed, stale value is kept", e);
+					entry.refreshing.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			entry.refreshing.set(false);
+		}
+	}
+
+	/**
+	 * Put a newly loaded value to the cache.
+	 *
+	 * @param key cache key
+	 * @param value value to be cached
+	 */
+	void put(final K key, final V value) {
+		synchronized (entries) {
+			entries.put(key, new CachedValue<>(value, System.currentTimeMillis(), false));
+		}
+	}
+
+	/**
+	 * Put a value restored from a snapshot to the cache unless a value is already cached.
+	 * Restored value is refreshed in background by the first request.
+	 *
+	 * @param key cache key
+	 * @param value restored value
+	 */
+	void restore(final K key, final V value) {
+		synchronized (entries) {
+			entries.putIfAbsent(key, new CachedValue<>(value, System.currentTimeMillis(), true));
+		}
+	}
+
+	/**
+	 * Return a cached value without triggering its load or refresh.
+	 *
+	 * @param key cache key
+	 * @return cached value or null
+	 */
+	V peek(final K key) {
+		synchronized (entries) {
+			final CachedValue<V> entry = entries.get(key);
+			return entry == null ? null : entry.value;
+		}
+	}
+
+	/**
+	 * @return copy of all cached values in the LRU order
+	 */
+	Map<K, V> snapshot() {
+		final Map<K, V> result = new LinkedHashMap<>();
+		synchronized (entries) {
+			for (Map.Entry<K, CachedValue<V>> entry : entries.entrySet()) {
+				result.put(entry.getKey(), entry.getValue().value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the value from the cache, so it is loaded synchronously by the next request.
+	 *
+	 * @param key cache key
+	 */
+	void invalidate(final K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	private static class CachedValue<V> {
+		private final V value;
+		private final long loadedAtMillis;
+		private final boolean restored;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		CachedValue(V value, long loadedAtMillis, boolean restored) {
+			this.value = value;
+			this.loadedAtMillis = loadedAtMillis;
+			this.restored = restored;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Local file with Bugzilla metadata (server version, priorities and product catalogues) of a single Bugzilla server,
+ * so metadata caches are warm right after SSC restart or plugin reload.
+ * <P>
+ * File layout: magic number, format version, payload length, payload and CRC32 checksum of the payload.
+ * Files with a different format version, bad checksum or a different Bugzilla URL are ignored.
+ * Product catalogues are stored under an HMAC of user name and digest of the password or API key, never the secret
+ * itself, so a restored catalogue is returned only to callers presenting the same credentials. HMAC key is a random
+ * secret stored in the snapshot directory, so passwords cannot be guessed offline from a copied snapshot file alone.
+ * File is written to a temporary file first and then atomically moved to its final name, so readers never see
+ * a partially written snapshot.
+ */
+final class MetadataSnapshot {
+
+	private static final Log LOG = LogFactory.getLog(MetadataSnapshot.class);
+
+	private static final int MAGIC = 0x425A4D53; // "BZMS"
+	private static final int FORMAT_VERSION = 3;
+	private static final String SECRET_FILE_NAME = "bugzilla-metadata.key";
+	private static final int SECRET_LENGTH = 32;
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private static final int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+	private static final long SAVE_DELAY_SECONDS = 10;
+
+	private static final ScheduledExecutorService SAVE_EXECUTOR = createSaveExecutor();
+
+	/**
+	 * Files with a pending scheduled save, so many metadata updates in a short time are written once.
+	 */
+	private static final ConcurrentMap<Path, Boolean> PENDING_SAVES = new ConcurrentHashMap<>();
+
+	private final Path file;
+	private final Path secretFile;
+	private final String bugzillaUrl;
+	private byte[] secret; // HMAC key of catalogue keys, loaded on first use
+
+	/**
+	 * @param directory directory of the snapshot files
+	 * @param bugzillaUrl Bugzilla URL, file name is derived from it
+	 */
+	MetadataSnapshot(final Path directory, final String bugzillaUrl) {
+		this.file = directory.resolve("bugzilla-metadata-" + DigestUtils.sha256Hex(bugzillaUrl).substring(0, 16) + ".bin");
+		this.secretFile = directory.resolve(SECRET_FILE_NAME);
+		this.bugzillaUrl = bugzillaUrl;
+	}
+
+	private static ScheduledExecutorService createSaveExecutor() {
+		final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+			final Thread thread = new Thread(r, "bugzilla-metadata-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Key under which a product catalogue is stored in the snapshot.
+	 *
+	 * @param credentialsKey user name and digest of the password or API key
+	 * @return hex encoded HMAC of the credentials key or null if the secret of the snapshot directory is not available
+	 */
+	String catalogKey(final String credentialsKey) {
+		final byte[] key = getSecret();
+		if (key == null) {
+			return null;
+		}
+		try {
+			final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+			return Hex.encodeHexString(mac.doFinal(credentialsKey.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC-SHA256 is not supported", e);
+		}
+	}
+
+	private synchronized byte[] getSecret() {
+		if (secret == null) {
+			try {
+				secret = readOrCreateSecret(secretFile);
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Cannot read or create Bugzilla metadata snapshot secret " + secretFile
+						+ ", product catalogues are not saved", e);
+			}
+		}
+		return secret;
+	}
+
+	/**
+	 * Read the secret shared by all snapshots of the directory, or create it if it does not exist yet.
+	 * Secret is created readable by the owner only where the file system supports POSIX permissions.
+	 */
+	private static byte[] readOrCreateSecret(final Path secretFile) throws IOException {
+		synchronized (MetadataSnapshot.class) {
+			if (!Files.exists(secretFile)) {
+				final byte[] created = new byte[SECRET_LENGTH];
+				new SecureRandom().nextBytes(created);
+				Files.createDirectories(secretFile.getParent());
+				final Path tempFile = Files.createTempFile(secretFile.getParent(), SECRET_FILE_NAME, ".tmp");
+				try {
+					try {
+						Files.setPosixFilePermissions(tempFile, PosixFilePermissions.fromString("rw-------"));
+					} catch (UnsupportedOperationException e) {
+						// Not a POSIX file system, secret is protected by permissions of the directory only
+					}
+					Files.write(tempFile, created);
+					// Move fails if another process has created the secret meanwhile, its secret is used then
+					Files.move(tempFile, secretFile);
+				} catch (FileAlreadyExistsException e) {
+					// Created concurrently by another process
+				} finally {
+					Files.deleteIfExists(tempFile);
+				}
+			}
+			final byte[] result = Files.readAllBytes(secretFile);
+			if (result.length != SECRET_LENGTH) {
+				throw new IOException("Invalid length of Bugzilla metadata snapshot secret " + secretFile);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Read the snapshot.
+	 *
+	 * @return snapshot contents or null if the file does not exist or is not valid
+	 */
+	Contents read() {
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+				LOG.info("Ignoring Bugzilla metadata snapshot " + file + " with unknown format");
+				return null;
+			}
+			final int length = in.readInt();
+			if ((length < 0) || (length > MAX_PAYLOAD_LENGTH)) {
+				LOG.warn("Ignoring corrupted Bugzilla metadata snapshot " + file);
+				return null;
+			}
+			final byte[] payload = new byte[length];
+			in.readFully(payload);
+			final CRC32 crc = new CRC32();
+			crc.update(payload);
+			if (in.readLong() != crc.getValue()) {
+				LOG.warn("Ignoring Bugzilla metadata snapshot " + file + " with invalid checksum");
+				return null;
+			}
+			final Contents contents = readPayload(new DataInputStream(new ByteArrayInputStream(payload)));
+			return bugzillaUrl.equals(contents.getBugzillaUrl()) ? contents : null;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Cannot read Bugzilla metadata snapshot " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write the snapshot atomically.
+	 *
+	 * @param contents contents to be written
+	 * @throws IOException if the file cannot be written
+	 */
+	void write(final Contents contents) throws IOException {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writePayload(new DataOutputStream(payload), contents);
+		final CRC32 crc = new CRC32();
+		crc.update(payload.toByteArray());
+
+		Files.createDirectories(file.getParent());
+		final Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (final OutputStream os = Files.newOutputStream(tempFile)
+				; final DataOutputStream out = new DataOutputStream(os)) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(payload.size());
+				payload.writeTo(out);
+				out.writeLong(crc.getValue());
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Schedule a delayed write of the snapshot. Contents are collected when the write is executed,
+	 * so all updates done before the write are saved together.
+	 *
+	 * @param contentsSupplier supplies the current contents
+	 */
+	void scheduleWrite(final Supplier<Contents> contentsSupplier) {
+		if (PENDING_SAVES.putIfAbsent(file, Boolean.TRUE) != null) {
+			return;
+		}
+		SAVE_EXECUTOR.schedule(() -> {
+			PENDING_SAVES.remove(file);
+			try {
+				write(contentsSupplier.get());
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Cannot write Bugzilla metadata snapshot " + file, e);
+			}
+		}, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+	}
+
+	private static Contents readPayload(final DataInputStream in) throws IOException {
+		final String bugzillaUrl = in.readUTF();
+		final Double bugzillaVersion = in.readBoolean() ? in.readDouble() : null;
+		final List<String> priorities = in.readBoolean() ? readStrings(in) : null;
+		final int catalogCount = in.readInt();
+		final Map<String, ProductCatalog> catalogs = new LinkedHashMap<>();
+		for (int i = 0; i < catalogCount; i++) {
+			final String catalogKey = in.readUTF();
+			final int productCount = in.readInt();
+			final List<ProductCatalog.ProductEntry> products = new ArrayList<>(productCount);
+			for (int j = 0; j < productCount; j++) {
+				products.add(new ProductCatalog.ProductEntry(in.readUTF(), readStrings(in), readStrings(in)));
+			}
+			catalogs.put(catalogKey, new ProductCatalog(products));
+		}
+		return new Contents(bugzillaUrl, bugzillaVersion, priorities, catalogs);
+	}
+
+	private static void writePayload(final DataOutputStream out, final Contents contents) throws IOException {
+		out.writeUTF(contents.getBugzillaUrl());
+		out.writeBoolean(contents.getBugzillaVersion() != null);
+		if (contents.getBugzillaVersion() != null) {
+			out.writeDouble(contents.getBugzillaVersion());
+		}
+		out.writeBoolean(contents.getPriorities() != null);
+		if (contents.getPriorities() != null) {
+			writeStrings(out, contents.getPriorities());
+		}
+		out.writeInt(contents.getProductCatalogs().size());
+		for (Map.Entry<String, ProductCatalog> catalog : contents.getProductCatalogs().entrySet()) {
+			out.writeUTF(catalog.getKey());
+			final Collection<ProductCatalog.ProductEntry> products = catalog.getValue().getProducts();
+			out.writeInt(products.size());
+			for (ProductCatalog.ProductEntry product : products) {
+				out.writeUTF(product.getName());
+				writeStrings(out, product.getComponents());
+				writeStrings(out, product.getVersions());
+			}
+		}
+		out.flush();
+	}
+
+	private static List<String> readStrings(final DataInputStream in) throws IOException {
+		final int count = in.readInt();
+		final List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(in.readUTF());
+		}
+		return result;
+	}
+
+	private static void writeStrings(final DataOutputStream out, final List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Metadata of a single Bugzilla server stored in the snapshot.
+	 */
+	static final class Contents {
+		private final String bugzillaUrl;
+		private final Double bugzillaVersion;
+		private final List<String> priorities;
+		private final Map<String, ProductCatalog> productCatalogs;
+
+		/**
+		 * @param bugzillaUrl Bugzilla URL
+		 * @param bugzillaVersion numeric Bugzilla version or null if unknown
+		 * @param priorities sorted priorities or null if unknown
+		 * @param productCatalogs product catalogues keyed by {@link MetadataSnapshot#catalogKey(String)}
+		 */
+		Contents(final String bugzillaUrl, final Double bugzillaVersion, final List<String> priorities
+				, final Map<String, ProductCatalog> productCatalogs) {
+			this.bugzillaUrl = bugzillaUrl;
+			this.bugzillaVersion = bugzillaVersion;
+			this.priorities = priorities == null ? null : Collections.unmodifiableList(new ArrayList<>(priorities));
+			this.productCatalogs = Collections.unmodifiableMap(new LinkedHashMap<>(productCatalogs));
+		}
+
+		String getBugzillaUrl() {
+			return bugzillaUrl;
+		}
+
+		Double getBugzillaVersion() {
+			return bugzillaVersion;
+		}
+
+		List<String> getPriorities() {
+			return priorities;
+		}
+
+		Map<String, ProductCatalog> getProductCatalogs() {
+			return productCatalogs;
+		}
+	}
+}
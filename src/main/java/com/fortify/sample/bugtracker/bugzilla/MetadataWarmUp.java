@@ -0,0 +1,123 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background warm-up of Bugzilla metadata started when the plugin configuration is applied.
+ * <P>
+ * Warm-up tasks run on a single daemon thread with a bounded queue, so they never block SSC startup.
+ * Every task is cancelled when it runs longer than its timeout, when a new warm-up of the same Bugzilla server
+ * is started or when {@link #cancel(String)} is called. Cancelled tasks are interrupted, HTTP requests
+ * in progress are bounded by the socket timeout of the connection.
+ */
+final class MetadataWarmUp {
+
+	private static final Log LOG = LogFactory.getLog(MetadataWarmUp.class);
+
+	private static final int MAX_QUEUED_TASKS = 16;
+
+	private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+	private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
+	/**
+	 * Warm-up tasks not finished yet keyed by Bugzilla URL.
+	 */
+	private static final ConcurrentMap<String, Future<?>> TASKS = new ConcurrentHashMap<>();
+
+	private MetadataWarmUp() {
+		// No implementation.
+	}
+
+	private static ThreadPoolExecutor createExecutor() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS
+				, new ArrayBlockingQueue<>(MAX_QUEUED_TASKS)
+				, r -> {
+					final Thread thread = new Thread(r, "bugzilla-metadata-warm-up-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static ScheduledThreadPoolExecutor createWatchdog() {
+		final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+			final Thread thread = new Thread(r, "bugzilla-metadata-warm-up-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watchdog.setKeepAliveTime(60, TimeUnit.SECONDS);
+		watchdog.allowCoreThreadTimeOut(true);
+		return watchdog;
+	}
+
+	/**
+	 * Start a warm-up task in background. A running or queued warm-up of the same Bugzilla server is cancelled.
+	 *
+	 * @param bugzillaUrl Bugzilla URL the task warms up metadata for
+	 * @param task warm-up task, it should check the interrupted flag of the thread between its steps
+	 * @param timeoutMillis the task is cancelled if it does not finish in this time
+	 * @return future of the task, cancelled already if the queue is full
+	 */
+	static Future<?> start(final String bugzillaUrl, final Runnable task, final long timeoutMillis) {
+		final FutureTask<Void> future = new FutureTask<Void>(() -> {
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				if (!Thread.currentThread().isInterrupted()) {
+					LOG.warn("Warm-up of metadata from Bugzilla server " + bugzillaUrl + " failed", e);
+				}
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				TASKS.remove(bugzillaUrl, this);
+			}
+		};
+		final Future<?> previous = TASKS.put(bugzillaUrl, future);
+		if (previous != null) {
+			previous.cancel(true);
+		}
+		try {
+			EXECUTOR.execute(future);
+		} catch (RejectedExecutionException e) {
+			LOG.info("Warm-up of metadata from Bugzilla server " + bugzillaUrl + " skipped, too many warm-ups are pending");
+			future.cancel(false);
+			return future;
+		}
+		WATCHDOG.schedule(() -> {
+			if (future.cancel(true)) {
+				LOG.warn("Warm-up of metadata from Bugzilla server " + bugzillaUrl + " cancelled after " + timeoutMillis + " ms");
+			}
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+		return future;
+	}
+
+	/**
+	 * Cancel a running or queued warm-up of the Bugzilla server.
+	 *
+	 * @param bugzillaUrl Bugzilla URL
+	 */
+	static void cancel(final String bugzillaUrl) {
+		final Future<?> future = TASKS.remove(bugzillaUrl);
+		if (future != null) {
+			future.cancel(true);
+		}
+	}
+}
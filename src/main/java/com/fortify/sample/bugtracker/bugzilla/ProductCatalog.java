@@ -0,0 +1,94 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of Bugzilla products accessible by a user, with components and versions of every product.
+ * <P>
+ * Catalogue is loaded at once by {@link GetProducts} requests and then answers dependent product/component/version
+ * choices without any further request to Bugzilla.
+ */
+final class ProductCatalog {
+
+	private final List<String> productNames;
+	private final Map<String, ProductEntry> products;
+
+	ProductCatalog(final Collection<ProductEntry> entries) {
+		final Map<String, ProductEntry> productMap = new LinkedHashMap<>();
+		for (ProductEntry entry : entries) {
+			productMap.put(entry.getName(), entry);
+		}
+		this.products = Collections.unmodifiableMap(productMap);
+		this.productNames = Collections.unmodifiableList(new ArrayList<>(productMap.keySet()));
+	}
+
+	/**
+	 * @return names of all products in the order returned by Bugzilla
+	 */
+	List<String> getProductNames() {
+		return productNames;
+	}
+
+	/**
+	 * @param productName name of the product
+	 * @return sorted names of the active components of the product or an empty list if the product is unknown
+	 */
+	List<String> getComponents(final String productName) {
+		final ProductEntry entry = products.get(productName);
+		return entry == null ? Collections.<String>emptyList() : entry.getComponents();
+	}
+
+	/**
+	 * @param productName name of the product
+	 * @return sorted names of the active versions of the product or an empty list if the product is unknown
+	 */
+	List<String> getVersions(final String productName) {
+		final ProductEntry entry = products.get(productName);
+		return entry == null ? Collections.<String>emptyList() : entry.getVersions();
+	}
+
+	Collection<ProductEntry> getProducts() {
+		return products.values();
+	}
+
+	/**
+	 * Single product of the catalogue.
+	 */
+	static final class ProductEntry {
+		private final String name;
+		private final List<String> components;
+		private final List<String> versions;
+
+		ProductEntry(final String name, final List<String> components, final List<String> versions) {
+			this.name = name;
+			this.components = sortedCopy(components);
+			this.versions = sortedCopy(versions);
+		}
+
+		private static List<String> sortedCopy(final List<String> values) {
+			final List<String> result = new ArrayList<>(values);
+			Collections.sort(result);
+			return Collections.unmodifiableList(result);
+		}
+
+		String getName() {
+			return name;
+		}
+
+		List<String> getComponents() {
+			return components;
+		}
+
+		List<String> getVersions() {
+			return versions;
+		}
+	}
+}
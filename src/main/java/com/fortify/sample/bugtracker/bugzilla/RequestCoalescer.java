@@ -0,0 +1,232 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single-flight coalescing of concurrent identical read-only Bugzilla requests.
+ * <P>
+ * Requests are identical if they have the same method name, the same parameters and the same authentication scope
+ * (Bugzilla URL, credentials and proxy, see {@link BugzillaSessionPool.Key}). The first caller executes the request,
+ * concurrent callers wait for it and receive the same result map. If the request fails, every waiting caller receives
+ * its own copy of the exception. If the first caller is aborted (e.g. its plugin instance is stopped), the waiting callers
+ * do not inherit the abort and execute the request again. Waiting callers stop waiting when they are aborted or interrupted.
+ * Results are not cached, a request started after the previous one finished is executed again.
+ */
+final class RequestCoalescer {
+
+	/**
+	 * Read-only Bugzilla WebService methods which are safe to share among concurrent callers.
+	 */
+	static final Set<String> READ_ONLY_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"Bugzilla.version", "Product.get_accessible_products", "Product.get"
+			, "Bug.legal_values", "Bug.fields", "Bug.get", "Bug.search")));
+
+	private static final RequestCoalescer INSTANCE = new RequestCoalescer();
+
+	private static final long WAIT_SLICE_MILLIS = 100;
+
+	private final ConcurrentMap<Map.Entry<BugzillaSessionPool.Key, String>, CompletableFuture<Map<Object, Object>>> inFlight
+			= new ConcurrentHashMap<>();
+
+	static RequestCoalescer getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Execute the method or wait for an identical method already executed by another thread.
+	 *
+	 * @param scope authentication scope of the caller
+	 * @param method method to be executed, its result map is set in both cases
+	 * @param executor executes the method if there is no identical method in flight
+	 * @param aborted returns true if the caller has been aborted
+	 * @throws BugzillaException if the shared method execution fails or the caller is aborted while waiting
+	 */
+	void execute(final BugzillaSessionPool.Key scope, final BugzillaMethod method, final MethodExecutor executor
+			, final BooleanSupplier aborted) throws BugzillaException {
+		if (!READ_ONLY_METHODS.contains(method.getMethodName())) {
+			executor.execute(method);
+			return;
+		}
+		final Map.Entry<BugzillaSessionPool.Key, String> key = new SimpleImmutableEntry<>(scope
+				, method.getMethodName() + "|" + canonicalize(method.getParameterMap()));
+		final CompletableFuture<Map<Object, Object>> future = new CompletableFuture<>();
+		CompletableFuture<Map<Object, Object>> existing;
+		while ((existing = inFlight.putIfAbsent(key, future)) != null) {
+			final Map<Object, Object> result = await(existing, aborted);
+			if (result != null) {
+				method.setResultMap(result);
+				return;
+			}
+			// The first caller has been aborted, execute the request again
+		}
+		try {
+			final ResultCapture capture = new ResultCapture(method);
+			executor.execute(capture);
+			future.complete(capture.result);
+		} catch (BugzillaException | RuntimeException | Error e) {
+			future.completeExceptionally(aborted.getAsBoolean() ? new LeaderAbortedException() : e);
+			throw e;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	/**
+	 * Wait for the request executed by another caller.
+	 *
+	 * @return result map or null if the executing caller has been aborted
+	 */
+	private static Map<Object, Object> await(final CompletableFuture<Map<Object, Object>> future, final BooleanSupplier aborted)
+			throws BugzillaException {
+		try {
+			while (true) {
+				if (aborted.getAsBoolean()) {
+					throw new BugzillaTransportException("Bugzilla request has been aborted", null);
+				}
+				try {
+					return future.get(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// Check the abort again
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BugzillaTransportException("Interrupted while waiting for a Bugzilla request", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof LeaderAbortedException) {
+				return null;
+			}
+			throw copyFailure(cause);
+		}
+	}
+
+	/**
+	 * Copy the failure of the shared request, so callers do not share (and mutate) the same exception instance.
+	 * The copy has the same type, message and cause, the original exception is attached as suppressed.
+	 */
+	private static BugzillaException copyFailure(final Throwable failure) {
+		final BugzillaException copy;
+		if (failure instanceof BugzillaTransportException) {
+			copy = new BugzillaTransportException(failure.getMessage(), ((BugzillaTransportException) failure).getStatus()
+					, failure.getCause());
+		} else if (failure instanceof BugzillaException) {
+			copy = new BugzillaException(failure.getMessage(), failure.getCause());
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else {
+			return new BugzillaException("Bugzilla request failed", failure);
+		}
+		copy.addSuppressed(failure);
+		return copy;
+	}
+
+	/**
+	 * Build a string representation of the parameters which does not depend on the map ordering.
+	 */
+	static String canonicalize(final Object value) {
+		final StringBuilder sb = new StringBuilder();
+		appendCanonical(sb, value);
+		return sb.toString();
+	}
+
+	private static void appendCanonical(final StringBuilder sb, final Object value) {
+		if (value instanceof Map) {
+			final Map<String, Object> sorted = new TreeMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+			}
+			sb.append('{');
+			for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+				sb.append(entry.getKey()).append('=');
+				appendCanonical(sb, entry.getValue());
+				sb.append(',');
+			}
+			sb.append('}');
+		} else if (value instanceof Object[]) {
+			appendCanonical(sb, Arrays.asList((Object[]) value));
+		} else if (value instanceof int[]) {
+			sb.append(Arrays.toString((int[]) value));
+		} else if (value instanceof Collection) {
+			sb.append('[');
+			for (Object item : (Collection<?>) value) {
+				appendCanonical(sb, item);
+				sb.append(',');
+			}
+			sb.append(']');
+		} else if (value == null) {
+			sb.append("null");
+		} else {
+			sb.append(value.getClass().getSimpleName()).append(':').append(value);
+		}
+	}
+
+	/**
+	 * Executes a single Bugzilla method.
+	 */
+	interface MethodExecutor {
+		void execute(BugzillaMethod method) throws BugzillaException;
+	}
+
+	/**
+	 * Completes the shared request of an aborted caller, waiting callers execute the request again.
+	 */
+	private static final class LeaderAbortedException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		LeaderAbortedException() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Delegating method which keeps the result map, so it can be passed to the waiting callers.
+	 */
+	private static final class ResultCapture implements BugzillaMethod {
+		private final BugzillaMethod delegate;
+		private Map<Object, Object> result = Collections.emptyMap();
+
+		ResultCapture(final BugzillaMethod delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			this.result = hash;
+			delegate.setResultMap(hash);
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return delegate.getParameterMap();
+		}
+
+		@Override
+		public String getMethodName() {
+			return delegate.getMethodName();
+		}
+	}
+}
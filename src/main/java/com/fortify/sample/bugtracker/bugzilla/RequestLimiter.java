@@ -0,0 +1,339 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limiter of concurrent requests and request rate to a single Bugzilla server, shared by all plugin instances.
+ * <P>
+ * Number of concurrent requests is bounded by an adaptive limit (additive increase, multiplicative decrease).
+ * Latency of every request is compared to the no-load latency of requests of the same method and a similar size
+ * (number of ids, names or other items of the largest parameter, grouped by powers of two), which is the lowest latency
+ * observed recently, so a bulk request is not compared to a single bug request. While the smoothed ratio stays below {@link #LATENCY_TOLERANCE} and the limit is used, the limit grows by one
+ * per limit of successful requests. When the ratio rises above the tolerance or the server fails a request by a timeout,
+ * an I/O error or an overload HTTP status, the limit is decreased by {@link #BACKOFF_RATIO}, at most once per
+ * round trip. Bulk operations therefore run as fast as the server can sustain and back off when it is overloaded.
+ * <P>
+ * Optional token bucket additionally bounds the number of requests started per second, with a burst of one second of requests.
+ * <P>
+ * Limiting is disabled unless a maximum concurrency or rate is configured. Limits are shared by all plugin instances
+ * of the Bugzilla URL, so the last applied configuration of the URL sets them for all instances.
+ */
+final class RequestLimiter {
+
+	private static final Log LOG = LogFactory.getLog(RequestLimiter.class);
+
+	/**
+	 * Limiters keyed by the Bugzilla URL.
+	 */
+	private static final ConcurrentMap<String, RequestLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+	private static final int MIN_LIMIT = 1;
+	private static final double LATENCY_TOLERANCE = 2.0;
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final double LATENCY_SMOOTHING = 0.2;
+	/**
+	 * Number of requests after which the no-load latency follows a permanent latency increase.
+	 */
+	private static final int BASELINE_WINDOW = 2000;
+	/**
+	 * Latencies below this value are never considered increased, so noise of very fast requests is ignored.
+	 */
+	private static final long MIN_LATENCY_MICROS = 2000;
+	private static final long WAIT_SLICE_MILLIS = 100;
+
+	private final String bugzillaUrl;
+	private final Map<String, Double> baselineMicros = new HashMap<>();
+	private final Queue<Object> waiters = new ArrayDeque<>();
+	private int maxLimit;
+	private double limit;
+	private int inFlight;
+	private double latencyRatio = 1.0;
+	private long lastDecreaseNanos = System.nanoTime();
+	private TokenBucket rate;
+
+	private RequestLimiter(final String bugzillaUrl) {
+		this.bugzillaUrl = bugzillaUrl;
+	}
+
+	/**
+	 * @param bugzillaUrl Bugzilla URL
+	 * @return limiter of the server, shared by all plugin instances
+	 */
+	static RequestLimiter forUrl(final String bugzillaUrl) {
+		return LIMITERS.computeIfAbsent(bugzillaUrl, RequestLimiter::new);
+	}
+
+	/**
+	 * Configure the limits, replacing the limits configured before for the Bugzilla URL.
+	 * The adaptive limit is kept if it is within the new maximum.
+	 *
+	 * @param maxConcurrency maximum of the adaptive concurrency limit, 0 disables concurrency limiting
+	 * @param maxRequestsPerSecond maximum number of started requests per second, 0 disables rate limiting
+	 * @param initialConcurrency adaptive concurrency limit when concurrency limiting is enabled
+	 */
+	synchronized void configure(final int maxConcurrency, final int maxRequestsPerSecond, final int initialConcurrency) {
+		if (maxConcurrency != maxLimit) {
+			if ((maxLimit > 0) && LOG.isInfoEnabled()) {
+				LOG.info(String.format("Maximum concurrency limit of %s changed from %d to %d", bugzillaUrl, maxLimit, maxConcurrency));
+			}
+			maxLimit = maxConcurrency;
+			limit = limit == 0 ? Math.min(maxConcurrency, Math.max(MIN_LIMIT, initialConcurrency)) : Math.min(limit, maxConcurrency);
+			notifyAll();
+		}
+		if ((rate == null ? 0 : rate.perSecond) != maxRequestsPerSecond) {
+			rate = maxRequestsPerSecond == 0 ? null : new TokenBucket(maxRequestsPerSecond);
+		}
+	}
+
+	/**
+	 * @return true if concurrency or rate limiting is enabled
+	 */
+	synchronized boolean isEnabled() {
+		return (maxLimit > 0) || (rate != null);
+	}
+
+	/**
+	 * @return current concurrency limit, 0 if concurrency limiting is disabled
+	 */
+	synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * Wrap the client, so all its requests are limited.
+	 *
+	 * @param client client to be wrapped
+	 * @param timeoutMillis maximum time a request waits for the limiter
+	 * @return limited client
+	 */
+	BugzillaClient wrap(final BugzillaClient client, final long timeoutMillis) {
+		return new LimitedClient(client, timeoutMillis);
+	}
+
+	private final class LimitedClient implements BugzillaClient {
+		private final BugzillaClient delegate;
+		private final long timeoutMillis;
+		private volatile boolean aborted;
+
+		LimitedClient(final BugzillaClient delegate, final long timeoutMillis) {
+			this.delegate = delegate;
+			this.timeoutMillis = timeoutMillis;
+		}
+
+		@Override
+		public void executeMethod(final BugzillaMethod method) throws BugzillaException {
+			final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			awaitRate(deadlineNanos);
+			final boolean limited = acquire(deadlineNanos, this);
+			final long startNanos = System.nanoTime();
+			BugzillaException error = null;
+			try {
+				delegate.executeMethod(method);
+			} catch (BugzillaException e) {
+				error = e;
+				throw e;
+			} finally {
+				if (limited) {
+					release(baselineKey(method), startNanos, error);
+				}
+			}
+		}
+
+		@Override
+		public void abort() {
+			aborted = true;
+			delegate.abort();
+		}
+	}
+
+	private void awaitRate(final long deadlineNanos) throws BugzillaTransportException {
+		final TokenBucket bucket;
+		synchronized (this) {
+			bucket = rate;
+		}
+		if (bucket == null) {
+			return;
+		}
+		final long waitNanos = bucket.reserve(deadlineNanos);
+		if (waitNanos < 0) {
+			throw new BugzillaTransportException("Timeout waiting for the request rate limit of the Bugzilla server", null);
+		}
+		if (waitNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BugzillaTransportException("Interrupted while waiting for the request rate limit of the Bugzilla server", e);
+			}
+		}
+	}
+
+	/**
+	 * Wait for a free request slot, waiting requests get slots in their arrival order.
+	 *
+	 * @return true if a slot has been taken, false if concurrency limiting is disabled
+	 */
+	private synchronized boolean acquire(final long deadlineNanos, final LimitedClient client) throws BugzillaTransportException {
+		final Object waiter = new Object();
+		waiters.add(waiter);
+		try {
+			while ((maxLimit > 0) && ((waiters.peek() != waiter) || (inFlight >= (int) limit))) {
+				if (client.aborted) {
+					throw new BugzillaTransportException("Bugzilla request has been aborted", null);
+				}
+				final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+				if (remainingMillis <= 0) {
+					throw new BugzillaTransportException("Timeout waiting for the concurrency limit of the Bugzilla server ("
+							+ (int) limit + " requests)", null);
+				}
+				try {
+					wait(Math.min(remainingMillis, WAIT_SLICE_MILLIS));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new BugzillaTransportException("Interrupted while waiting for the concurrency limit of the Bugzilla server", e);
+				}
+			}
+		} finally {
+			waiters.remove(waiter);
+			// Next waiter may be the new head of the queue
+			notifyAll();
+		}
+		if (maxLimit <= 0) {
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	private synchronized void release(final String baselineKey, final long startNanos, final BugzillaException error) {
+		final long nowNanos = System.nanoTime();
+		final long micros = TimeUnit.NANOSECONDS.toMicros(nowNanos - startNanos);
+		final boolean limitUsed = inFlight * 2 >= limit;
+		inFlight--;
+		notifyAll();
+		if (maxLimit <= 0) {
+			return;
+		}
+		final boolean overloaded;
+		if (error != null) {
+			overloaded = isOverloadError(error);
+		} else {
+			latencyRatio += LATENCY_SMOOTHING * (latencyToBaseline(baselineKey, micros) - latencyRatio);
+			overloaded = latencyRatio > LATENCY_TOLERANCE;
+		}
+		if (overloaded) {
+			// Requests started before the last decrease reflect the old limit
+			if (startNanos - lastDecreaseNanos > 0) {
+				limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+				lastDecreaseNanos = nowNanos;
+				if (LOG.isDebugEnabled()) {
+					LOG.debug(String.format("Concurrency limit of %s decreased to %d, latency ratio %.2f, error %s"
+							, bugzillaUrl, (int) limit, latencyRatio, error));
+				}
+			}
+		} else if ((error == null) && limitUsed && (limit < maxLimit)) {
+			limit = Math.min(maxLimit, limit + 1.0 / limit);
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @return key of the no-load latency of the method: method name and the size class of its largest parameter
+	 */
+	static String baselineKey(final BugzillaMethod method) {
+		int size = 0;
+		for (Object value : method.getParameterMap().values()) {
+			if (value instanceof Object[]) {
+				size = Math.max(size, ((Object[]) value).length);
+			} else if (value instanceof int[]) {
+				size = Math.max(size, ((int[]) value).length);
+			} else if (value instanceof Collection) {
+				size = Math.max(size, ((Collection<?>) value).size());
+			}
+		}
+		return method.getMethodName() + "#" + (Integer.SIZE - Integer.numberOfLeadingZeros(size));
+	}
+
+	/**
+	 * @return ratio of the latency to the no-load latency of requests with the same baseline key
+	 */
+	private double latencyToBaseline(final String baselineKey, final long micros) {
+		final double sample = Math.max(micros, MIN_LATENCY_MICROS);
+		final Double baseline = baselineMicros.get(baselineKey);
+		if ((baseline == null) || (sample <= baseline)) {
+			baselineMicros.put(baselineKey, sample);
+			return 1.0;
+		}
+		baselineMicros.put(baselineKey, baseline + (sample - baseline) / BASELINE_WINDOW);
+		return sample / baseline;
+	}
+
+	/**
+	 * @return true if the error indicates an overloaded server: I/O error, timeout or HTTP 429, 502, 503 or 504
+	 */
+	private static boolean isOverloadError(final BugzillaException error) {
+		if (!(error instanceof BugzillaTransportException)) {
+			return false;
+		}
+		switch (((BugzillaTransportException) error).getStatus()) {
+			case 0:
+			case 429:
+			case HttpURLConnection.HTTP_BAD_GATEWAY:
+			case HttpURLConnection.HTTP_UNAVAILABLE:
+			case HttpURLConnection.HTTP_GATEWAY_TIMEOUT:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Token bucket refilled continuously, requests reserve tokens in advance, so waiting requests are served in order.
+	 */
+	private static final class TokenBucket {
+		private final int perSecond;
+		private final double nanosPerToken;
+		private double tokens;
+		private long refillNanos = System.nanoTime();
+
+		TokenBucket(final int perSecond) {
+			this.perSecond = perSecond;
+			this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / (double) perSecond;
+			this.tokens = perSecond;
+		}
+
+		/**
+		 * Reserve a token.
+		 *
+		 * @return nanoseconds to wait for the reserved token or -1 if the deadline would pass, nothing is reserved then
+		 */
+		synchronized long reserve(final long deadlineNanos) {
+			final long nowNanos = System.nanoTime();
+			tokens = Math.min(perSecond, tokens + (nowNanos - refillNanos) / nanosPerToken);
+			refillNanos = nowNanos;
+			final long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) * nanosPerToken);
+			if (nowNanos + waitNanos - deadlineNanos > 0) {
+				return -1;
+			}
+			tokens -= 1;
+			return waitNanos;
+		}
+	}
+}
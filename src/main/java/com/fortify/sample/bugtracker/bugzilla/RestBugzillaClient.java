@@ -0,0 +1,490 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import com.j2bugzilla.base.XmlExceptionHandler;
+import com.j2bugzilla.rpc.LogIn;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.net.ssl.HttpsURLConnection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaPluginConstants.AUTHENTICATION_FAULT_CODES;
+
+/**
+ * Bugzilla client executing j2bugzilla methods through the native REST API of Bugzilla 5.0 and newer.
+ * <P>
+ * Every supported WebService method is mapped to its REST resource ({@code /rest/bug}, {@code /rest/product}, ...).
+ * Request parameters are sent as a query string or a JSON body, JSON responses are read by a streaming parser
+ * directly into the same result maps as XML-RPC returns (objects as maps, arrays as {@code Object[]}),
+ * so j2bugzilla methods read them unchanged. REST errors are converted by {@link XmlExceptionHandler} the same way
+ * as XML-RPC faults, except authentication errors, which are reported as HTTP 401 transport errors.
+ * <P>
+ * Client authenticates by an API key or by the token returned by {@link LogIn}, both are sent in HTTP headers.
+ * Connections are reused the same way as by {@link KeepAliveTransportFactory} and responses are requested gzip compressed.
+ */
+final class RestBugzillaClient implements BugzillaClient {
+
+	// Response stream is closed by the client after the rest of the response is read, not by the parser
+	private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+	private static final String REST_PATH = "/rest";
+	private static final String API_KEY_HEADER = "X-BUGZILLA-API-KEY";
+	private static final String TOKEN_HEADER = "X-BUGZILLA-TOKEN";
+	/**
+	 * Maximum number of ids of a multi-id Bug.get. It is mapped to a bug search, whose ids are sent in the URL and whose
+	 * results are capped by the max_search_results parameter of the server, so more ids are searched in chunks.
+	 */
+	private static final int MAX_IDS_PER_SEARCH = 100;
+	private static final int FAULT_UNKNOWN_RESOURCE = 32614;
+
+	private final String restUrl;
+	private final int connectTimeoutMillis;
+	private final int replyTimeoutMillis;
+	private final Proxy proxy;
+	private final String proxyAuthorization;
+	private final KeepAliveTransportFactory.HostPermits permits;
+	private final String apiKey;
+	private final ActiveConnections activeConnections = new ActiveConnections();
+	private volatile String token;
+
+	/**
+	 * @param bugzillaUrl Bugzilla URL without the trailing slash
+	 * @param connectTimeoutMillis connection timeout
+	 * @param replyTimeoutMillis reply timeout
+	 * @param proxy proxy or null if the server is accessed directly
+	 * @param proxyUser proxy user name or null if the proxy does not require authentication
+	 * @param proxyPassword proxy password or null if the proxy does not require authentication
+	 * @param apiKey Bugzilla API key or null if the client authenticates by {@link LogIn}
+	 */
+	RestBugzillaClient(final URL bugzillaUrl, final int connectTimeoutMillis, final int replyTimeoutMillis
+			, final Proxy proxy, final String proxyUser, final String proxyPassword, final String apiKey) {
+		final String url = bugzillaUrl.toString();
+		this.restUrl = (url.endsWith("/") ? url.substring(0, url.length() - 1) : url) + REST_PATH;
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		this.replyTimeoutMillis = replyTimeoutMillis;
+		this.proxy = proxy;
+		this.proxyAuthorization = ((proxy != null) && (proxyUser != null) && (proxyPassword != null))
+				? "Basic " + new String(Base64.encodeBase64((proxyUser + ":" + proxyPassword).getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII)
+				: null;
+		this.permits = KeepAliveTransportFactory.getHostPermits(bugzillaUrl);
+		this.apiKey = apiKey;
+	}
+
+	@Override
+	public void executeMethod(final BugzillaMethod method) throws BugzillaException {
+		final Map<Object, Object> params = new LinkedHashMap<>(method.getParameterMap());
+		final Map<Object, Object> result;
+		if ("Bug.get".equals(method.getMethodName())) {
+			result = getBugs(params);
+		} else if ("Bug.update".equals(method.getMethodName())) {
+			result = updateBugs(params);
+		} else {
+			result = send(toRequest(method.getMethodName(), params));
+		}
+		method.setResultMap(Collections.unmodifiableMap(result));
+		if (method instanceof LogIn) {
+			token = ((LogIn) method).getToken();
+		}
+	}
+
+	/**
+	 * Execute Bug.get, ids exceeding {@link #MAX_IDS_PER_SEARCH} are requested in chunks and the results merged.
+	 */
+	private Map<Object, Object> getBugs(final Map<Object, Object> params) throws BugzillaException {
+		final List<Object> ids = asList(params.get("ids"));
+		if (ids.size() <= MAX_IDS_PER_SEARCH) {
+			return send(toRequest("Bug.get", params));
+		}
+		final List<Object> bugs = new ArrayList<>(ids.size());
+		final List<Object> faults = new ArrayList<>();
+		Map<Object, Object> result = null;
+		for (int from = 0; from < ids.size(); from += MAX_IDS_PER_SEARCH) {
+			final Map<Object, Object> chunkParams = new LinkedHashMap<>(params);
+			chunkParams.put("ids", ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_SEARCH)).toArray());
+			result = send(toRequest("Bug.get", chunkParams));
+			bugs.addAll(asList(result.get("bugs")));
+			faults.addAll(asList(result.get("faults")));
+		}
+		result.put("bugs", bugs.toArray());
+		if (!faults.isEmpty()) {
+			result.put("faults", faults.toArray());
+		}
+		return result;
+	}
+
+	/**
+	 * Execute Bug.update by one request per bug. The REST API updates only the bug of the resource path
+	 * and ignores other ids of the request body, so a multi-id update is not atomic over REST: if a request fails,
+	 * the bugs before it have been updated.
+	 */
+	private Map<Object, Object> updateBugs(final Map<Object, Object> params) throws BugzillaException {
+		final List<Object> ids = asList(params.remove("ids"));
+		firstId(ids, "Bug.update");
+		final List<Object> bugs = new ArrayList<>(ids.size());
+		Map<Object, Object> result = null;
+		for (Object id : ids) {
+			result = send(new Request("PUT", "/bug/" + encode(id), new LinkedHashMap<>(params)));
+			bugs.addAll(asList(result.get("bugs")));
+		}
+		result.put("bugs", bugs.toArray());
+		return result;
+	}
+
+	/**
+	 * Map a WebService method to its REST resource. Parameters used in the resource path are removed from the parameters.
+	 */
+	private static Request toRequest(final String methodName, final Map<Object, Object> params) throws BugzillaException {
+		switch (methodName) {
+			case "Bugzilla.version":
+				return new Request("GET", "/version", params);
+			case "Bugzilla.time":
+				return new Request("GET", "/time", params);
+			case "User.login":
+				return new Request("GET", "/login", params);
+			case "User.whoami":
+				return new Request("GET", "/whoami", params);
+			case "Product.get_accessible_products":
+				return new Request("GET", "/product_accessible", params);
+			case "Product.get":
+				return new Request("GET", "/product", params);
+			case "Bug.fields":
+				return new Request("GET", "/field/bug", params);
+			case "Bug.search":
+				return new Request("GET", "/bug", params);
+			case "Bug.get": {
+				final List<Object> ids = asList(params.remove("ids"));
+				final Object permissive = params.remove("permissive");
+				if ((ids.size() == 1) && !Boolean.TRUE.equals(permissive)) {
+					return new Request("GET", "/bug/" + encode(ids.get(0)), params);
+				}
+				// Search returns only existing bugs accessible by the user, the same as a permissive Bug.get
+				params.put("id", join(ids));
+				return new Request("GET", "/bug", params);
+			}
+			case "Bug.create":
+				return new Request("POST", "/bug", params);
+			case "Bug.add_comment":
+				return new Request("POST", "/bug/" + encode(firstId(asList(params.remove("id")), methodName)) + "/comment", params);
+			default:
+				throw new BugzillaException("Bugzilla method " + methodName + " is not supported by the REST transport");
+		}
+	}
+
+	private static Object firstId(final List<Object> ids, final String methodName) throws BugzillaException {
+		if (ids.isEmpty()) {
+			throw new BugzillaException("Bugzilla method " + methodName + " requires a bug id");
+		}
+		return ids.get(0);
+	}
+
+	private Map<Object, Object> send(final Request request) throws BugzillaException {
+		final boolean acquired;
+		try {
+			acquired = permits.acquire(replyTimeoutMillis);
+		} catch (TimeoutException e) {
+			throw new BugzillaTransportException("Timeout waiting for a free connection to the Bugzilla server", null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BugzillaTransportException("Interrupted while waiting for a free connection to the Bugzilla server", e);
+		}
+		try {
+			return sendNow(request);
+		} finally {
+			if (acquired) {
+				permits.release();
+			}
+		}
+	}
+
+	private Map<Object, Object> sendNow(final Request request) throws BugzillaException {
+		final boolean hasBody = !"GET".equals(request.httpMethod);
+		final String query = hasBody ? "" : toQueryString(request.params);
+		HttpURLConnection conn = null;
+		try {
+			final URL url = new URL(restUrl + request.path + (query.isEmpty() ? "" : "?" + query));
+			conn = (HttpURLConnection) (proxy == null ? url.openConnection() : url.openConnection(proxy));
+			activeConnections.add(conn);
+			if (conn instanceof HttpsURLConnection) {
+				((HttpsURLConnection) conn).setSSLSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory());
+			}
+			conn.setConnectTimeout(connectTimeoutMillis);
+			conn.setReadTimeout(replyTimeoutMillis);
+			conn.setRequestMethod(request.httpMethod);
+			conn.setRequestProperty("Accept", "application/json");
+			conn.setRequestProperty("Accept-Encoding", "gzip");
+			if (proxyAuthorization != null) {
+				conn.setRequestProperty("Proxy-Authorization", proxyAuthorization);
+			}
+			if (apiKey != null) {
+				conn.setRequestProperty(API_KEY_HEADER, apiKey);
+			} else if (token != null) {
+				conn.setRequestProperty(TOKEN_HEADER, token);
+			}
+			if (hasBody) {
+				conn.setDoOutput(true);
+				conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+				try (final OutputStream os = conn.getOutputStream()
+					; final JsonGenerator generator = JSON_FACTORY.createGenerator(os, JsonEncoding.UTF8)) {
+					writeValue(generator, request.params);
+				}
+			}
+			return readResponse(conn);
+		} catch (IOException e) {
+			if (conn != null) {
+				conn.disconnect();
+			}
+			throw new BugzillaTransportException("Bugzilla REST request " + request.httpMethod + " " + request.path + " failed: " + e.getMessage(), e);
+		} finally {
+			if (conn != null) {
+				activeConnections.remove(conn);
+			}
+		}
+	}
+
+	@Override
+	public void abort() {
+		activeConnections.abort();
+	}
+
+	private static Map<Object, Object> readResponse(final HttpURLConnection conn) throws IOException, BugzillaException {
+		final int status = conn.getResponseCode();
+		final InputStream raw = status >= HttpURLConnection.HTTP_BAD_REQUEST ? conn.getErrorStream() : conn.getInputStream();
+		if (raw == null) {
+			throw new BugzillaTransportException("Bugzilla REST request failed with HTTP status " + status, status, null);
+		}
+		Map<Object, Object> result = null;
+		try (final InputStream in = "gzip".equalsIgnoreCase(conn.getContentEncoding()) ? new GZIPInputStream(raw) : raw) {
+			try (final JsonParser parser = JSON_FACTORY.createParser(in)) {
+				if (parser.nextToken() == JsonToken.START_OBJECT) {
+					result = readObject(parser);
+				}
+			} catch (JsonParseException e) {
+				if (status < HttpURLConnection.HTTP_BAD_REQUEST) {
+					throw e;
+				}
+			}
+			// Read the rest of the response, so the connection can be reused
+			final byte[] buffer = new byte[4096];
+			while (in.read(buffer) >= 0) {
+				// Skip
+			}
+		}
+		if ((result != null) && Boolean.TRUE.equals(result.get("error"))) {
+			final int code = result.get("code") instanceof Number ? ((Number) result.get("code")).intValue() : status;
+			final XmlRpcException fault = new XmlRpcException(code, String.valueOf(result.get("message")));
+			if ((status == HttpURLConnection.HTTP_UNAUTHORIZED) || AUTHENTICATION_FAULT_CODES.contains(code)) {
+				// Fault is kept as the cause, so a rejected login token is still recognized by the session
+				throw new BugzillaTransportException("Bugzilla REST request was not authenticated: " + fault.getMessage()
+						, HttpURLConnection.HTTP_UNAUTHORIZED, fault);
+			}
+			throw XmlExceptionHandler.handleFault(fault);
+		}
+		if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+			throw new BugzillaTransportException("Bugzilla REST request failed with HTTP status " + status, status, null);
+		}
+		return result == null ? new LinkedHashMap<>() : result;
+	}
+
+	private static Map<Object, Object> readObject(final JsonParser parser) throws IOException {
+		final Map<Object, Object> result = new LinkedHashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String name = parser.getCurrentName();
+			parser.nextToken();
+			result.put(name, readValue(parser));
+		}
+		return result;
+	}
+
+	private static Object readValue(final JsonParser parser) throws IOException {
+		switch (parser.currentToken()) {
+			case START_OBJECT:
+				return readObject(parser);
+			case START_ARRAY: {
+				final List<Object> values = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					values.add(readValue(parser));
+				}
+				return values.toArray();
+			}
+			case VALUE_STRING:
+				return parser.getText();
+			case VALUE_NUMBER_INT:
+				return parser.getNumberType() == JsonParser.NumberType.INT ? (Object) parser.getIntValue() : (Object) parser.getLongValue();
+			case VALUE_NUMBER_FLOAT:
+				return parser.getDoubleValue();
+			case VALUE_TRUE:
+				return Boolean.TRUE;
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			default:
+				return null;
+		}
+	}
+
+	private static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+		if (value instanceof Map) {
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+		} else if ((value instanceof Object[]) || (value instanceof Collection)) {
+			generator.writeStartArray();
+			for (Object item : asList(value)) {
+				writeValue(generator, item);
+			}
+			generator.writeEndArray();
+		} else if (value instanceof int[]) {
+			generator.writeStartArray();
+			for (int item : (int[]) value) {
+				generator.writeNumber(item);
+			}
+			generator.writeEndArray();
+		} else if (value instanceof Integer || value instanceof Long) {
+			generator.writeNumber(((Number) value).longValue());
+		} else if (value instanceof Number) {
+			generator.writeNumber(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (value instanceof Date) {
+			generator.writeString(formatDate((Date) value));
+		} else if (value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeString(value.toString());
+		}
+	}
+
+	private static String toQueryString(final Map<Object, Object> params) {
+		final StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Object, Object> param : params.entrySet()) {
+			for (Object value : asList(param.getValue())) {
+				if (sb.length() > 0) {
+					sb.append('&');
+				}
+				sb.append(urlEncode(String.valueOf(param.getKey()))).append('=').append(encode(value));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String encode(final Object value) {
+		final String text;
+		if (value instanceof Boolean) {
+			text = (Boolean) value ? "1" : "0";
+		} else if (value instanceof Date) {
+			text = formatDate((Date) value);
+		} else {
+			text = String.valueOf(value);
+		}
+		return urlEncode(text);
+	}
+
+	private static String urlEncode(final String text) {
+		try {
+			return URLEncoder.encode(text, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 encoding is not supported", e);
+		}
+	}
+
+	private static String join(final List<Object> values) {
+		final StringBuilder sb = new StringBuilder();
+		for (Object value : values) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(value);
+		}
+		return sb.toString();
+	}
+
+	private static List<Object> asList(final Object value) {
+		if (value instanceof Object[]) {
+			final List<Object> result = new ArrayList<>();
+			Collections.addAll(result, (Object[]) value);
+			return result;
+		} else if (value instanceof int[]) {
+			final List<Object> result = new ArrayList<>();
+			for (int item : (int[]) value) {
+				result.add(item);
+			}
+			return result;
+		} else if (value instanceof Collection) {
+			return new ArrayList<>((Collection<?>) value);
+		}
+		return value == null ? Collections.emptyList() : Collections.singletonList(value);
+	}
+
+	private static String formatDate(final Date date) {
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format.format(date);
+	}
+
+	/**
+	 * Check whether the Bugzilla server provides the REST API.
+	 *
+	 * @return true if the REST version resource returns a version, false if the server does not know the resource
+	 * @throws BugzillaException if the availability cannot be determined, e.g. the server is not reachable or overloaded
+	 */
+	boolean isRestApiAvailable() throws BugzillaException {
+		try {
+			final Map<Object, Object> result = send(new Request("GET", "/version", new LinkedHashMap<>()));
+			return result.get("version") != null;
+		} catch (BugzillaTransportException e) {
+			if (e.getStatus() == HttpURLConnection.HTTP_NOT_FOUND) {
+				return false;
+			}
+			throw e;
+		} catch (BugzillaException e) {
+			if ((e.getCause() instanceof XmlRpcException) && (((XmlRpcException) e.getCause()).code == FAULT_UNKNOWN_RESOURCE)) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	private static final class Request {
+		private final String httpMethod;
+		private final String path;
+		private final Map<Object, Object> params;
+
+		Request(final String httpMethod, final String path, final Map<Object, Object> params) {
+			this.httpMethod = httpMethod;
+			this.path = path;
+			this.params = params;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event of a single Bugzilla request, see {@link RpcMetrics}.
+ * <P>
+ * The class is used only if the JVM provides the {@code jdk.jfr} API, so the plugin still runs on JVMs without it.
+ */
+@Name("com.fortify.bugzilla.Rpc")
+@Label("Bugzilla Request")
+@Category({"Fortify", "Bugzilla"})
+@Description("Bugzilla WebService method executed by the Bugzilla bug tracker plugin")
+final class RpcEvent extends Event {
+
+	@Label("Bugzilla URL")
+	String bugzillaUrl;
+
+	@Label("Method")
+	String method;
+
+	@Label("Error")
+	@Description("Error kind (HTTP status or WebService fault code) or null if the request succeeded")
+	String error;
+
+	/**
+	 * @return started event
+	 */
+	static Object start() {
+		final RpcEvent event = new RpcEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End the event started by {@link #start()} and commit it if the event is enabled.
+	 */
+	static void commit(final Object started, final String bugzillaUrl, final String method, final String error) {
+		final RpcEvent event = (RpcEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.bugzillaUrl = bugzillaUrl;
+			event.method = method;
+			event.error = error;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaTransportException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.xmlrpc.XmlRpcException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of Bugzilla requests shared by all plugin instances: calls, errors by kind and latency histogram
+ * of every Bugzilla WebService method.
+ * <P>
+ * Every request is also emitted as a {@code com.fortify.bugzilla.Rpc} JDK Flight Recorder event when the JVM provides
+ * the {@code jdk.jfr} API. Metrics can be periodically written to the plugin log, see {@link #setLogInterval(long)}.
+ */
+final class RpcMetrics {
+
+	private static final Log LOG = LogFactory.getLog(RpcMetrics.class);
+
+	private static final ConcurrentMap<String, MethodStats> METHODS = new ConcurrentHashMap<>();
+
+	private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+	private static final ScheduledExecutorService LOG_EXECUTOR = createLogExecutor();
+	private static ScheduledFuture<?> logTask;
+	private static long logIntervalSeconds;
+
+	private RpcMetrics() {
+		// No implementation.
+	}
+
+	private static boolean isJfrAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, RpcMetrics.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static ScheduledExecutorService createLogExecutor() {
+		final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+			final Thread thread = new Thread(r, "bugzilla-metrics-log");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+	/**
+	 * Start timing of a Bugzilla request.
+	 *
+	 * @return timer to be passed to {@link #record(Timer, String, String, Throwable)}
+	 */
+	static Timer start() {
+		return new Timer(JFR_AVAILABLE ? RpcEvent.start() : null);
+	}
+
+	/**
+	 * Record a finished Bugzilla request.
+	 *
+	 * @param timer timer returned by {@link #start()}
+	 * @param bugzillaUrl Bugzilla URL
+	 * @param methodName Bugzilla WebService method name
+	 * @param error exception thrown by the request or null if it succeeded
+	 */
+	static void record(final Timer timer, final String bugzillaUrl, final String methodName, final Throwable error) {
+		final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - timer.startNanos);
+		final String errorKind = error == null ? null : errorKind(error);
+		if (timer.event != null) {
+			RpcEvent.commit(timer.event, bugzillaUrl, methodName, errorKind);
+		}
+		METHODS.computeIfAbsent(methodName, name -> new MethodStats()).record(micros, errorKind);
+	}
+
+	/**
+	 * @return error kind: {@code http <status>} of transport errors, {@code fault <code>} of WebService faults
+	 *         or {@code other}
+	 */
+	private static String errorKind(final Throwable error) {
+		if (error instanceof BugzillaTransportException) {
+			final int status = ((BugzillaTransportException) error).getStatus();
+			return status > 0 ? "http " + status : "transport";
+		}
+		if (error.getCause() instanceof XmlRpcException) {
+			return "fault " + ((XmlRpcException) error.getCause()).code;
+		}
+		return "other";
+	}
+
+	/**
+	 * @return snapshot of the metrics collected so far
+	 */
+	static RpcMetricsSnapshot snapshot() {
+		final List<RpcMetricsSnapshot.MethodMetrics> methods = new ArrayList<>();
+		for (Map.Entry<String, MethodStats> entry : new TreeMap<>(METHODS).entrySet()) {
+			methods.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		return new RpcMetricsSnapshot(System.currentTimeMillis(), methods);
+	}
+
+	/**
+	 * Set the period of writing the metrics to the plugin log.
+	 *
+	 * @param seconds period in seconds, 0 disables logging
+	 */
+	static synchronized void setLogInterval(final long seconds) {
+		if (seconds == logIntervalSeconds) {
+			return;
+		}
+		if (logTask != null) {
+			logTask.cancel(false);
+			logTask = null;
+		}
+		logIntervalSeconds = seconds;
+		if (seconds > 0) {
+			logTask = LOG_EXECUTOR.scheduleAtFixedRate(RpcMetrics::logSnapshot, seconds, seconds, TimeUnit.SECONDS);
+		}
+	}
+
+	private static void logSnapshot() {
+		if (!METHODS.isEmpty() && LOG.isInfoEnabled()) {
+			LOG.info(snapshot());
+		}
+	}
+
+	/**
+	 * Start of a Bugzilla request. The flight recorder event is typed as Object, so this class can be loaded
+	 * without the {@code jdk.jfr} API.
+	 */
+	static final class Timer {
+		private final long startNanos = System.nanoTime();
+		private final Object event;
+
+		private Timer(final Object event) {
+			this.event = event;
+		}
+	}
+
+	private static final class MethodStats {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final ConcurrentMap<String, LongAdder> errorsByKind = new ConcurrentHashMap<>();
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		void record(final long micros, final String errorKind) {
+			calls.increment();
+			if (errorKind != null) {
+				errors.increment();
+				errorsByKind.computeIfAbsent(errorKind, kind -> new LongAdder()).increment();
+			}
+			latency.record(micros);
+		}
+
+		RpcMetricsSnapshot.MethodMetrics snapshot(final String methodName) {
+			final Map<String, Long> errorCounts = new TreeMap<>();
+			errorsByKind.forEach((kind, count) -> errorCounts.put(kind, count.sum()));
+			final long count = latency.getCount();
+			return new RpcMetricsSnapshot.MethodMetrics(methodName, calls.sum(), errors.sum(), errorCounts
+					, count == 0 ? 0 : latency.getTotalMicros() / count
+					, latency.getValueAtPercentile(50), latency.getValueAtPercentile(90), latency.getValueAtPercentile(99)
+					, latency.getMaxMicros());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the Bugzilla request metrics collected since the plugin was loaded, see {@link RpcMetrics}.
+ */
+public final class RpcMetricsSnapshot {
+
+	private final long timestampMillis;
+	private final List<MethodMetrics> methods;
+
+	RpcMetricsSnapshot(final long timestampMillis, final List<MethodMetrics> methods) {
+		this.timestampMillis = timestampMillis;
+		this.methods = Collections.unmodifiableList(methods);
+	}
+
+	/**
+	 * @return time when the snapshot was taken
+	 */
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+
+	/**
+	 * @return metrics of every Bugzilla method executed at least once, sorted by the method name
+	 */
+	public List<MethodMetrics> getMethods() {
+		return methods;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("Bugzilla request metrics:");
+		for (MethodMetrics method : methods) {
+			sb.append(System.lineSeparator()).append("  ").append(method);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Metrics of a single Bugzilla WebService method. Latencies are in microseconds.
+	 */
+	public static final class MethodMetrics {
+
+		private final String methodName;
+		private final long calls;
+		private final long errors;
+		private final Map<String, Long> errorsByKind;
+		private final long meanMicros;
+		private final long p50Micros;
+		private final long p90Micros;
+		private final long p99Micros;
+		private final long maxMicros;
+
+		MethodMetrics(final String methodName, final long calls, final long errors, final Map<String, Long> errorsByKind
+				, final long meanMicros, final long p50Micros, final long p90Micros, final long p99Micros, final long maxMicros) {
+			this.methodName = methodName;
+			this.calls = calls;
+			this.errors = errors;
+			this.errorsByKind = Collections.unmodifiableMap(errorsByKind);
+			this.meanMicros = meanMicros;
+			this.p50Micros = p50Micros;
+			this.p90Micros = p90Micros;
+			this.p99Micros = p99Micros;
+			this.maxMicros = maxMicros;
+		}
+
+		public String getMethodName() {
+			return methodName;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return error counts keyed by error kind, e.g. {@code http 401}, {@code fault 307} or {@code other}
+		 */
+		public Map<String, Long> getErrorsByKind() {
+			return errorsByKind;
+		}
+
+		public long getMeanMicros() {
+			return meanMicros;
+		}
+
+		public long getP50Micros() {
+			return p50Micros;
+		}
+
+		public long getP90Micros() {
+			return p90Micros;
+		}
+
+		public long getP99Micros() {
+			return p99Micros;
+		}
+
+		public long getMaxMicros() {
+			return maxMicros;
+		}
+
+		@Override
+		public String toString() {
+			return methodName + ": calls=" + calls + ", errors=" + errors + (errorsByKind.isEmpty() ? "" : " " + errorsByKind)
+					+ ", mean=" + meanMicros + "us, p50=" + p50Micros + "us, p90=" + p90Micros + "us, p99=" + p99Micros
+					+ "us, max=" + maxMicros + "us";
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bugzilla method searching for bugs of the given ids changed since a given time by a single Bug.search request.
+ * <P>
+ * {@link com.j2bugzilla.rpc.BugSearch} cannot search by the last change time and always creates full
+ * {@link com.j2bugzilla.base.Bug} objects, so this method is used instead. Only bug id, status and resolution are
+ * requested and read directly into SSC {@link Bug} objects the same way as by {@link GetBugs#forBugStates(java.util.Collection, boolean)}.
+ * Search is restricted to the given bug ids, so the number of results is bounded by the number of ids.
+ */
+final class SearchChangedBugs implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Bug.search";
+
+	private final Map<Object, Object> params = new HashMap<>();
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	/**
+	 * @param changedSince only bugs changed at or after this Bugzilla database time are returned
+	 * @param ids ids of the searched bugs
+	 */
+	SearchChangedBugs(final Date changedSince, final Collection<Integer> ids) {
+		params.put("id", ids.toArray());
+		params.put("last_change_time", changedSince);
+		params.put("include_fields", new String[]{GetBugs.FIELD_ID, GetBugs.FIELD_STATUS, GetBugs.FIELD_RESOLUTION});
+	}
+
+	/**
+	 * @return id, status and resolution of the changed bugs
+	 */
+	List<Bug> getBugStates() {
+		return GetBugs.readBugStates(hash.get("bugs"));
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
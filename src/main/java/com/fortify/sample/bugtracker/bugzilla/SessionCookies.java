@@ -0,0 +1,70 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import java.net.URLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cookies set by the Bugzilla server for a single Bugzilla client.
+ * <P>
+ * Bugzilla before 4.4.3 does not return a login token and authenticates requests only by the login cookies, so every
+ * transport of a client has to store cookies of the responses and send them with the following requests,
+ * like the j2bugzilla transport does. Cookie attributes (path, domain, expiration) are ignored, because all requests
+ * of a client go to the same Bugzilla URL; a cookie set with an empty value is removed.
+ */
+final class SessionCookies {
+
+	private static final String SET_COOKIE_HEADER = "Set-Cookie";
+
+	private final Map<String, String> cookies = new ConcurrentHashMap<>();
+
+	/**
+	 * Store cookies set by the response of the connection.
+	 *
+	 * @param conn connection with a received response
+	 */
+	void store(final URLConnection conn) {
+		final List<String> headers = conn.getHeaderFields().get(SET_COOKIE_HEADER);
+		if (headers == null) {
+			return;
+		}
+		for (String header : headers) {
+			final int end = header.indexOf(';');
+			final String cookie = end < 0 ? header : header.substring(0, end);
+			final int separator = cookie.indexOf('=');
+			if (separator <= 0) {
+				continue;
+			}
+			final String name = cookie.substring(0, separator).trim();
+			final String value = cookie.substring(separator + 1).trim();
+			if (value.isEmpty()) {
+				cookies.remove(name);
+			} else {
+				cookies.put(name, value);
+			}
+		}
+	}
+
+	/**
+	 * Add the stored cookies to the request of the connection.
+	 *
+	 * @param conn connection of a request which has not been sent yet
+	 */
+	void apply(final URLConnection conn) {
+		if (cookies.isEmpty()) {
+			return;
+		}
+		final StringBuilder header = new StringBuilder();
+		for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+			if (header.length() > 0) {
+				header.append("; ");
+			}
+			header.append(cookie.getKey()).append('=').append(cookie.getValue());
+		}
+		conn.setRequestProperty("Cookie", header.toString());
+	}
+}
@@ -0,0 +1,623 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import com.j2bugzilla.rpc.LogIn;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.xmlrpc.XmlRpcException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only capture file of Bugzilla traffic, written by clients wrapped by {@link #wrap(BugzillaClient)}
+ * and read by {@link Reader} to replay the traffic later.
+ * <P>
+ * Every executed method is written as a record with its start time, duration, client session, method name, parameters
+ * and either the result or the error. Passwords, API keys and login tokens are replaced by {@link #REDACTED}.
+ * <P>
+ * File layout: every time the file is opened for writing, a segment header (magic number, format version and start time)
+ * is appended, followed by the records. Values are written with a type tag, integers as variable length numbers
+ * and repeated short strings (method names, field names, statuses) as references to their first occurrence
+ * in the segment, so the file stays compact. A record truncated by a crash ends the file.
+ */
+final class TrafficCapture implements Closeable {
+
+	private static final Log LOG = LogFactory.getLog(TrafficCapture.class);
+
+	private static final int MAGIC = 0x425A5452; // "BZTR"
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte TAG_SEGMENT = 'S';
+	private static final byte TAG_RECORD = 'R';
+
+	private static final byte VALUE_NULL = 0;
+	private static final byte VALUE_FALSE = 1;
+	private static final byte VALUE_TRUE = 2;
+	private static final byte VALUE_INT = 3;
+	private static final byte VALUE_DOUBLE = 4;
+	private static final byte VALUE_STRING = 5;
+	private static final byte VALUE_STRING_REF = 6;
+	private static final byte VALUE_DATE = 7;
+	private static final byte VALUE_BYTES = 8;
+	private static final byte VALUE_MAP = 9;
+	private static final byte VALUE_ARRAY = 10;
+
+	/**
+	 * Strings up to this length are written once per segment and referenced later.
+	 */
+	private static final int MAX_SHARED_STRING_LENGTH = 64;
+	private static final int MAX_SHARED_STRINGS = 8192;
+
+	/**
+	 * Replacement of secret values.
+	 */
+	static final String REDACTED = "***";
+	private static final Set<String> SECRET_NAMES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"password", "Bugzilla_password", "api_key", "Bugzilla_api_key", "token", "Bugzilla_token")));
+
+	/**
+	 * Outcome of a recorded method.
+	 */
+	enum Outcome {
+		/** Method succeeded, the record contains its result. */
+		SUCCESS,
+		/** Method failed by a WebService fault, the error code is the fault code. */
+		FAULT,
+		/** Method failed by an HTTP or I/O error, the error code is the HTTP status or 0. */
+		TRANSPORT_ERROR,
+		/** Method failed by another error. */
+		OTHER_ERROR
+	}
+
+	/**
+	 * Open capture files keyed by their path, shared by all plugin instances. A file is closed and removed when its last
+	 * user releases it.
+	 */
+	private static final Map<Path, TrafficCapture> CAPTURES = new HashMap<>();
+
+	private static final AtomicInteger SESSION_IDS = new AtomicInteger();
+
+	private final Path file;
+	private final DataOutputStream out;
+	private final long segmentStartMillis;
+	private final Map<String, Integer> sharedStrings = new HashMap<>();
+	private boolean failed;
+	private int references; // Users of the capture, guarded by CAPTURES
+
+	private TrafficCapture(final Path file) throws IOException {
+		this.file = file;
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file
+				, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)));
+		this.segmentStartMillis = System.currentTimeMillis();
+		out.writeByte(TAG_SEGMENT);
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeLong(segmentStartMillis);
+		out.flush();
+	}
+
+	/**
+	 * Return the capture writing to the file, the file is opened when first used. Every returned capture has to be
+	 * released by {@link #release()} when it is no longer used.
+	 *
+	 * @param file capture file, created if it does not exist
+	 * @return capture shared by all users of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	static TrafficCapture forFile(final Path file) throws IOException {
+		final Path key = file.toAbsolutePath().normalize();
+		synchronized (CAPTURES) {
+			TrafficCapture capture = CAPTURES.get(key);
+			if (capture == null) {
+				capture = new TrafficCapture(key);
+				CAPTURES.put(key, capture);
+			}
+			capture.references++;
+			return capture;
+		}
+	}
+
+	/**
+	 * Release the capture returned by {@link #forFile(Path)}, the file is closed when its last user releases it.
+	 */
+	void release() {
+		synchronized (CAPTURES) {
+			if (--references > 0) {
+				return;
+			}
+			CAPTURES.remove(file, this);
+		}
+		close();
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Wrap the client, so all methods executed by it are recorded as a single session.
+	 *
+	 * @param client client to be wrapped
+	 * @return recording client
+	 */
+	BugzillaClient wrap(final BugzillaClient client) {
+		return new RecordingClient(client, SESSION_IDS.incrementAndGet());
+	}
+
+	private final class RecordingClient implements BugzillaClient {
+		private final BugzillaClient delegate;
+		private final int sessionId;
+
+		RecordingClient(final BugzillaClient delegate, final int sessionId) {
+			this.delegate = delegate;
+			this.sessionId = sessionId;
+		}
+
+		@Override
+		public void executeMethod(final BugzillaMethod method) throws BugzillaException {
+			final long startMillis = System.currentTimeMillis();
+			final long startNanos = System.nanoTime();
+			// LogIn is passed unwrapped, the client reads the login token from it
+			final ResultCapture capture = method instanceof LogIn ? null : new ResultCapture(method);
+			try {
+				delegate.executeMethod(capture == null ? method : capture);
+			} catch (BugzillaException | RuntimeException e) {
+				write(sessionId, startMillis, System.nanoTime() - startNanos, method, null, e);
+				throw e;
+			}
+			final Map<Object, Object> result;
+			if (capture == null) {
+				result = new LinkedHashMap<>();
+				result.put("id", ((LogIn) method).getUserID());
+				result.put("token", REDACTED);
+			} else {
+				result = capture.result;
+			}
+			write(sessionId, startMillis, System.nanoTime() - startNanos, method, result, null);
+		}
+
+		@Override
+		public void abort() {
+			delegate.abort();
+		}
+	}
+
+	/**
+	 * Delegating method which keeps the result map.
+	 */
+	private static final class ResultCapture implements BugzillaMethod {
+		private final BugzillaMethod delegate;
+		private Map<Object, Object> result = Collections.emptyMap();
+
+		ResultCapture(final BugzillaMethod delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			this.result = hash;
+			delegate.setResultMap(hash);
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return delegate.getParameterMap();
+		}
+
+		@Override
+		public String getMethodName() {
+			return delegate.getMethodName();
+		}
+	}
+
+	private synchronized void write(final int sessionId, final long startMillis, final long durationNanos
+			, final BugzillaMethod method, final Map<Object, Object> result, final Exception error) {
+		if (failed) {
+			return;
+		}
+		try {
+			out.writeByte(TAG_RECORD);
+			writeVarLong(out, Math.max(0, startMillis - segmentStartMillis));
+			writeVarLong(out, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+			writeVarLong(out, sessionId);
+			writeString(method.getMethodName());
+			writeValue(method.getParameterMap(), false);
+			if (error == null) {
+				out.writeByte(Outcome.SUCCESS.ordinal());
+				writeValue(result, false);
+			} else {
+				out.writeByte(outcomeOf(error).ordinal());
+				writeVarLong(out, zigZag(errorCodeOf(error)));
+				writeValue(String.valueOf(error.getMessage()), false);
+			}
+			out.flush();
+		} catch (IOException | RuntimeException e) {
+			// Capture must never fail the Bugzilla request, the capture is stopped instead
+			failed = true;
+			LOG.warn("Cannot write Bugzilla traffic capture " + file + ", capture is stopped", e);
+		}
+	}
+
+	/**
+	 * @param error exception thrown by a Bugzilla method or null if it succeeded
+	 * @return outcome of the method
+	 */
+	static Outcome outcomeOf(final Exception error) {
+		if (error == null) {
+			return Outcome.SUCCESS;
+		} else if (error instanceof BugzillaTransportException) {
+			return Outcome.TRANSPORT_ERROR;
+		} else if (error.getCause() instanceof XmlRpcException) {
+			return Outcome.FAULT;
+		}
+		return Outcome.OTHER_ERROR;
+	}
+
+	/**
+	 * @param error exception thrown by a Bugzilla method
+	 * @return HTTP status of transport errors, fault code of WebService faults or 0
+	 */
+	static int errorCodeOf(final Exception error) {
+		if (error instanceof BugzillaTransportException) {
+			return ((BugzillaTransportException) error).getStatus();
+		} else if ((error != null) && (error.getCause() instanceof XmlRpcException)) {
+			return ((XmlRpcException) error.getCause()).code;
+		}
+		return 0;
+	}
+
+	private void writeValue(final Object value, final boolean secret) throws IOException {
+		if (secret && (value != null)) {
+			writeValue(REDACTED, false);
+		} else if (value == null) {
+			out.writeByte(VALUE_NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+		} else if ((value instanceof Integer) || (value instanceof Long) || (value instanceof Short) || (value instanceof Byte)) {
+			out.writeByte(VALUE_INT);
+			writeVarLong(out, zigZag(((Number) value).longValue()));
+		} else if (value instanceof Number) {
+			out.writeByte(VALUE_DOUBLE);
+			out.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof Date) {
+			out.writeByte(VALUE_DATE);
+			writeVarLong(out, zigZag(((Date) value).getTime()));
+		} else if (value instanceof byte[]) {
+			out.writeByte(VALUE_BYTES);
+			writeVarLong(out, ((byte[]) value).length);
+			out.write((byte[]) value);
+		} else if (value instanceof Map) {
+			out.writeByte(VALUE_MAP);
+			writeVarLong(out, ((Map<?, ?>) value).size());
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				final String name = String.valueOf(entry.getKey());
+				writeString(name);
+				writeValue(entry.getValue(), SECRET_NAMES.contains(name));
+			}
+		} else if ((value instanceof Object[]) || (value instanceof Collection) || (value instanceof int[])) {
+			final List<Object> items = asList(value);
+			out.writeByte(VALUE_ARRAY);
+			writeVarLong(out, items.size());
+			for (Object item : items) {
+				writeValue(item, false);
+			}
+		} else {
+			writeString(value.toString());
+		}
+	}
+
+	private void writeString(final String value) throws IOException {
+		final Integer index = sharedStrings.get(value);
+		if (index != null) {
+			out.writeByte(VALUE_STRING_REF);
+			writeVarLong(out, index);
+			return;
+		}
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(VALUE_STRING);
+		writeVarLong(out, bytes.length);
+		out.write(bytes);
+		if ((value.length() <= MAX_SHARED_STRING_LENGTH) && (sharedStrings.size() < MAX_SHARED_STRINGS)) {
+			sharedStrings.put(value, sharedStrings.size());
+		}
+	}
+
+	private static List<Object> asList(final Object value) {
+		if (value instanceof Object[]) {
+			return Arrays.asList((Object[]) value);
+		} else if (value instanceof int[]) {
+			final List<Object> result = new ArrayList<>();
+			for (int item : (int[]) value) {
+				result.add(item);
+			}
+			return result;
+		}
+		return new ArrayList<>((Collection<?>) value);
+	}
+
+	private static long zigZag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarLong(final DataOutputStream out, final long value) throws IOException {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			out.writeByte((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		out.writeByte((int) remaining);
+	}
+
+	private static long readVarLong(final DataInputStream in) throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Invalid variable length number");
+	}
+
+	/**
+	 * Close the capture file regardless of its other users, later records are not written.
+	 */
+	@Override
+	public synchronized void close() {
+		synchronized (CAPTURES) {
+			CAPTURES.remove(file, this);
+		}
+		failed = true;
+		try {
+			out.close();
+		} catch (IOException e) {
+			LOG.warn("Cannot close Bugzilla traffic capture " + file, e);
+		}
+	}
+
+	/**
+	 * Single recorded method.
+	 */
+	static final class Record {
+		private final long startMillis;
+		private final long durationMicros;
+		private final int sessionId;
+		private final String methodName;
+		private final Map<Object, Object> params;
+		private final Outcome outcome;
+		private final Map<Object, Object> result;
+		private final int errorCode;
+		private final String errorMessage;
+
+		Record(final long startMillis, final long durationMicros, final int sessionId, final String methodName
+				, final Map<Object, Object> params, final Outcome outcome, final Map<Object, Object> result
+				, final int errorCode, final String errorMessage) {
+			this.startMillis = startMillis;
+			this.durationMicros = durationMicros;
+			this.sessionId = sessionId;
+			this.methodName = methodName;
+			this.params = params;
+			this.outcome = outcome;
+			this.result = result;
+			this.errorCode = errorCode;
+			this.errorMessage = errorMessage;
+		}
+
+		/**
+		 * @return wall clock time when the method was started
+		 */
+		long getStartMillis() {
+			return startMillis;
+		}
+
+		long getDurationMicros() {
+			return durationMicros;
+		}
+
+		/**
+		 * @return id of the client session which executed the method, unique within a segment
+		 */
+		int getSessionId() {
+			return sessionId;
+		}
+
+		String getMethodName() {
+			return methodName;
+		}
+
+		/**
+		 * @return method parameters with redacted secrets
+		 */
+		Map<Object, Object> getParams() {
+			return params;
+		}
+
+		Outcome getOutcome() {
+			return outcome;
+		}
+
+		/**
+		 * @return result map or null if the method failed
+		 */
+		Map<Object, Object> getResult() {
+			return result;
+		}
+
+		/**
+		 * @return fault code or HTTP status of a failed method
+		 */
+		int getErrorCode() {
+			return errorCode;
+		}
+
+		String getErrorMessage() {
+			return errorMessage;
+		}
+	}
+
+	/**
+	 * Sequential reader of a capture file. Session ids of different segments are made distinct.
+	 */
+	static final class Reader implements Closeable {
+		private final DataInputStream in;
+		private final List<String> sharedStrings = new ArrayList<>();
+		private long segmentStartMillis;
+		private int sessionIdBase;
+		private int maxSessionId;
+
+		/**
+		 * @param file capture file
+		 * @throws IOException if the file cannot be opened
+		 */
+		Reader(final Path file) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+		}
+
+		/**
+		 * Read the next record.
+		 *
+		 * @return next record or null at the end of the file or at a truncated record
+		 * @throws IOException if the file cannot be read or has an unknown format
+		 */
+		Record next() throws IOException {
+			try {
+				while (true) {
+					final int tag = in.read();
+					if (tag < 0) {
+						return null;
+					}
+					if (tag == TAG_SEGMENT) {
+						readSegmentHeader();
+					} else if (tag == TAG_RECORD) {
+						return readRecord();
+					} else {
+						throw new IOException("Invalid Bugzilla traffic capture record " + tag);
+					}
+				}
+			} catch (EOFException e) {
+				return null;
+			}
+		}
+
+		private void readSegmentHeader() throws IOException {
+			if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+				throw new IOException("Unknown Bugzilla traffic capture format");
+			}
+			segmentStartMillis = in.readLong();
+			sharedStrings.clear();
+			sessionIdBase = maxSessionId;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Record readRecord() throws IOException {
+			final long startMillis = segmentStartMillis + readVarLong(in);
+			final long durationMicros = readVarLong(in);
+			final int sessionId = sessionIdBase + (int) readVarLong(in);
+			maxSessionId = Math.max(maxSessionId, sessionId);
+			final String methodName = (String) readValue();
+			final Map<Object, Object> params = (Map<Object, Object>) readValue();
+			final Outcome outcome = Outcome.values()[in.readUnsignedByte()];
+			if (outcome == Outcome.SUCCESS) {
+				return new Record(startMillis, durationMicros, sessionId, methodName, params, outcome
+						, (Map<Object, Object>) readValue(), 0, null);
+			}
+			final int code = (int) unZigZag(readVarLong(in));
+			return new Record(startMillis, durationMicros, sessionId, methodName, params, outcome, null, code, (String) readValue());
+		}
+
+		private Object readValue() throws IOException {
+			final byte type = in.readByte();
+			switch (type) {
+				case VALUE_NULL:
+					return null;
+				case VALUE_FALSE:
+					return Boolean.FALSE;
+				case VALUE_TRUE:
+					return Boolean.TRUE;
+				case VALUE_INT: {
+					final long value = unZigZag(readVarLong(in));
+					return (value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE) ? (Object) (int) value : (Object) value;
+				}
+				case VALUE_DOUBLE:
+					return in.readDouble();
+				case VALUE_STRING: {
+					final byte[] bytes = new byte[(int) readVarLong(in)];
+					in.readFully(bytes);
+					final String value = new String(bytes, StandardCharsets.UTF_8);
+					if ((value.length() <= MAX_SHARED_STRING_LENGTH) && (sharedStrings.size() < MAX_SHARED_STRINGS)) {
+						sharedStrings.add(value);
+					}
+					return value;
+				}
+				case VALUE_STRING_REF:
+					return sharedStrings.get((int) readVarLong(in));
+				case VALUE_DATE:
+					return new Date(unZigZag(readVarLong(in)));
+				case VALUE_BYTES: {
+					final byte[] bytes = new byte[(int) readVarLong(in)];
+					in.readFully(bytes);
+					return bytes;
+				}
+				case VALUE_MAP: {
+					final int size = (int) readVarLong(in);
+					final Map<Object, Object> map = new LinkedHashMap<>();
+					for (int i = 0; i < size; i++) {
+						map.put(readValue(), readValue());
+					}
+					return map;
+				}
+				case VALUE_ARRAY: {
+					final int size = (int) readVarLong(in);
+					final Object[] array = new Object[size];
+					for (int i = 0; i < size; i++) {
+						array[i] = readValue();
+					}
+					return array;
+				}
+				default:
+					throw new IOException("Invalid Bugzilla traffic capture value " + type);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
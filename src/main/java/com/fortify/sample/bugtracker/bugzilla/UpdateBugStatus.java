@@ -0,0 +1,61 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bugzilla method changing the status of bugs and adding a comment by a single Bug.update request.
+ * <P>
+ * Unlike {@link com.j2bugzilla.rpc.UpdateBug}, which sends back the whole bug read before by {@link com.j2bugzilla.rpc.GetBug},
+ * this method sends only the changed fields, so no prior read of the bug is needed. The status change and the comment
+ * are applied by the server atomically.
+ */
+final class UpdateBugStatus implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "Bug.update";
+
+	private final Map<Object, Object> params = new HashMap<>();
+
+	/**
+	 * @param ids ids of the bugs to be updated
+	 * @param openStatus new open status of the bugs, their resolution is cleared; null if the status is not changed
+	 * @param comment comment added to the bugs or null if no comment is added
+	 */
+	UpdateBugStatus(final int[] ids, final String openStatus, final String comment) {
+		final Object[] idArray = new Object[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			idArray[i] = ids[i];
+		}
+		params.put("ids", idArray);
+		if (openStatus != null) {
+			params.put("status", openStatus);
+			params.put("resolution", "");
+		}
+		if (comment != null) {
+			final Map<Object, Object> commentMap = new HashMap<>();
+			commentMap.put("body", comment);
+			params.put("comment", commentMap);
+		}
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		// Result is not needed, a failed update is reported by a fault
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Bugzilla method returning the login name of the user authenticated by the request credentials (Bugzilla 5.0 and newer).
+ * <P>
+ * Used to verify an API key, which is not checked by any LogIn request.
+ */
+final class WhoAmI implements BugzillaMethod {
+
+	private static final String METHOD_NAME = "User.whoami";
+
+	private Map<Object, Object> hash = Collections.emptyMap();
+
+	/**
+	 * @return login name of the authenticated user or null if the server did not return it
+	 */
+	String getLoginName() {
+		final Object name = hash.get("name");
+		return name == null ? null : String.valueOf(name);
+	}
+
+	@Override
+	public void setResultMap(Map<Object, Object> hash) {
+		this.hash = hash;
+	}
+
+	@Override
+	public Map<Object, Object> getParameterMap() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	public String getMethodName() {
+		return METHOD_NAME;
+	}
+}
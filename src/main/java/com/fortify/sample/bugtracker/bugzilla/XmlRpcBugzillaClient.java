@@ -0,0 +1,107 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import com.j2bugzilla.base.ConnectionException;
+import com.j2bugzilla.base.XmlExceptionHandler;
+import com.j2bugzilla.rpc.LogIn;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bugzilla XML-RPC client with a pluggable HTTP transport.
+ * <P>
+ * Client executes methods the same way as {@link com.j2bugzilla.base.BugzillaConnector}, but it owns its
+ * {@link XmlRpcClient}, so the plugin controls the HTTP transport (see {@link HttpTransportFactory}) and response compression.
+ * Requests are authenticated either by an API key or by the token returned by {@link LogIn}. Servers older than 4.4.3
+ * return no token and authenticate requests by the login cookies, which are kept per client by the transport.
+ */
+final class XmlRpcBugzillaClient implements BugzillaClient {
+
+	private static final String XMLRPC_PATH = "xmlrpc.cgi";
+	private static final String TOKEN_PARAM_NAME = "Bugzilla_token";
+	private static final String API_KEY_PARAM_NAME = "Bugzilla_api_key";
+
+	private final XmlRpcClient client;
+	private final String apiKey;
+	private final ActiveConnections activeConnections = new ActiveConnections();
+	private final SessionCookies cookies = new SessionCookies();
+	private volatile String token;
+
+	/**
+	 * @param bugzillaUrl Bugzilla URL without the trailing slash
+	 * @param connectTimeoutMillis connection timeout
+	 * @param replyTimeoutMillis reply timeout
+	 * @param transportFactory HTTP transport factory
+	 * @param proxy proxy or null if the server is accessed directly
+	 * @param proxyUser proxy user name or null if the proxy does not require authentication
+	 * @param proxyPassword proxy password or null if the proxy does not require authentication
+	 * @param apiKey Bugzilla API key sent with every request or null if the client authenticates by {@link LogIn}
+	 * @throws ConnectionException if the XML-RPC URL cannot be derived from the Bugzilla URL
+	 */
+	XmlRpcBugzillaClient(final URL bugzillaUrl, final int connectTimeoutMillis, final int replyTimeoutMillis
+			, final HttpTransportFactory transportFactory, final Proxy proxy, final String proxyUser, final String proxyPassword
+			, final String apiKey) throws ConnectionException {
+		final XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+		config.setServerURL(getXmlRpcUrl(bugzillaUrl));
+		config.setConnectionTimeout(connectTimeoutMillis);
+		config.setReplyTimeout(replyTimeoutMillis);
+		config.setGzipRequesting(transportFactory.isGzipRequesting());
+		client = new XmlRpcClient();
+		client.setConfig(config);
+		client.setTransportFactory(transportFactory.create(client, proxy, proxyUser, proxyPassword, activeConnections, cookies));
+		this.apiKey = apiKey;
+	}
+
+	private static URL getXmlRpcUrl(final URL bugzillaUrl) throws ConnectionException {
+		final String url = bugzillaUrl.toString();
+		try {
+			return new URL(url.endsWith("/") ? url + XMLRPC_PATH : url + "/" + XMLRPC_PATH);
+		} catch (MalformedURLException e) {
+			throw new ConnectionException("Invalid Bugzilla URL: " + url, e);
+		}
+	}
+
+	@Override
+	public void executeMethod(final BugzillaMethod method) throws BugzillaException {
+		if (activeConnections.isAborted()) {
+			throw new BugzillaTransportException("Bugzilla request has been aborted", null);
+		}
+		final Map<Object, Object> params = new HashMap<>();
+		if (apiKey != null) {
+			params.put(API_KEY_PARAM_NAME, apiKey);
+		} else if (token != null) {
+			params.put(TOKEN_PARAM_NAME, token);
+		}
+		params.putAll(method.getParameterMap());
+		try {
+			final Object result = client.execute(method.getMethodName(), new Object[]{params});
+			@SuppressWarnings("unchecked")
+			final Map<Object, Object> resultMap = result instanceof Map
+					? Collections.unmodifiableMap((Map<Object, Object>) result) : Collections.emptyMap();
+			method.setResultMap(resultMap);
+			if (method instanceof LogIn) {
+				token = ((LogIn) method).getToken();
+			}
+		} catch (XmlRpcException e) {
+			throw XmlExceptionHandler.handleFault(e);
+		}
+	}
+
+	@Override
+	public void abort() {
+		activeConnections.abort();
+	}
+}
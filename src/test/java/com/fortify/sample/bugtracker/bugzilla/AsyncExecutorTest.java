@@ -0,0 +1,51 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncExecutorTest {
+
+	@Test
+	public void completesWithResultOrFailure() throws Exception {
+		assertEquals("result", AsyncExecutor.supply(() -> "result").get(5, TimeUnit.SECONDS));
+		try {
+			AsyncExecutor.supply(() -> {
+				throw new IllegalStateException("failed");
+			}).get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals("failed", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void cancelInterruptsRunningOperation() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		final CompletableFuture<Object> future = AsyncExecutor.supply(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return null;
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		assertTrue(future.cancel(true));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertTrue(future.isCancelled());
+	}
+}
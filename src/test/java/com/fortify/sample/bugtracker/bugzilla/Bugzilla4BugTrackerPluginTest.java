@@ -0,0 +1,161 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.fortify.pub.bugtracker.support.BugTrackerException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaSessionPoolTest.credentials;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Bugzilla4BugTrackerPluginTest {
+
+	private BugzillaStubServer server;
+	private Bugzilla4BugTrackerPlugin plugin;
+
+	@Before
+	public void setUp() throws Exception {
+		server = BugzillaStubServer.builder().start();
+		plugin = new Bugzilla4BugTrackerPlugin();
+		final Map<String, String> config = new HashMap<>();
+		config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+		plugin.setConfiguration(config);
+	}
+
+	@After
+	public void tearDown() {
+		plugin.stop();
+		server.close();
+	}
+
+	@Test
+	public void cachesBugStatesPerCredentials() throws Exception {
+		plugin.fetchBugDetails("1", credentials("user", "password"));
+		plugin.fetchBugDetails("1", credentials("user", "password"));
+		assertEquals(1, server.getRequestCount("Bug.get"));
+
+		plugin.fetchBugDetails("1", credentials("user", "other password"));
+		assertEquals(2, server.getRequestCount("Bug.get"));
+	}
+
+	@Test
+	public void cachesProductCatalogPerCredentials() throws Exception {
+		plugin.getBugParameters(null, credentials("user", "password"));
+		plugin.getBugParameters(null, credentials("user", "password"));
+		assertEquals(1, server.getRequestCount("Product.get"));
+
+		plugin.getBugParameters(null, credentials("user", "other password"));
+		assertEquals(2, server.getRequestCount("User.login"));
+		assertEquals(2, server.getRequestCount("Product.get"));
+	}
+
+	@Test
+	public void retriesBugsOfBatchRejectedByFault() throws Exception {
+		final List<BulkResult<Bug>> results = plugin.addCommentToBugs(Arrays.asList(
+				new BugComment(new Bug("1", "CONFIRMED", null), "Comment")
+				, new BugComment(new Bug("99999", "CONFIRMED", null), "Comment")
+				, new BugComment(new Bug("2", "CONFIRMED", null), "Comment")), credentials("user", "password"));
+
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertTrue(results.get(2).isSuccess());
+		assertEquals(4, server.getRequestCount("Bug.update"));
+	}
+
+	@Test
+	public void doesNotRetryBatchWithUnknownOutcome() throws Exception {
+		try (final BugzillaStubServer failing = BugzillaStubServer.builder().errorRate(1).start()) {
+			final Bugzilla4BugTrackerPlugin apiKeyPlugin = new Bugzilla4BugTrackerPlugin();
+			final Map<String, String> config = new HashMap<>();
+			config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, failing.getUrl());
+			config.put(BugzillaPluginConstants.AUTHENTICATION_MODE_NAME, BugzillaPluginConstants.AUTHENTICATION_MODE_API_KEY);
+			apiKeyPlugin.setConfiguration(config);
+			final List<BulkResult<Bug>> results = apiKeyPlugin.addCommentToBugs(Arrays.asList(
+					new BugComment(new Bug("1", "CONFIRMED", null), "Comment")
+					, new BugComment(new Bug("2", "CONFIRMED", null), "Comment")), credentials("user", "api key"));
+
+			assertFalse(results.get(0).isSuccess());
+			assertFalse(results.get(1).isSuccess());
+			assertEquals(1, failing.getRequestCount("Bug.update"));
+		}
+	}
+
+	@Test
+	public void rejectsNonNumericBugIdByBugTrackerException() throws Exception {
+		try {
+			plugin.fetchBugDetails("abc", credentials("user", "password"));
+			fail();
+		} catch (BugTrackerException e) {
+			assertEquals("Bug id abc is not a number", e.getMessage());
+		}
+		try {
+			plugin.addCommentToBug(new Bug("abc", "CONFIRMED", null), "Comment", credentials("user", "password"));
+			fail();
+		} catch (BugTrackerException e) {
+			assertEquals("Bug id abc is not a number", e.getMessage());
+		}
+		assertEquals(0, server.getRequestCount("Bug.get") + server.getRequestCount("Bug.update"));
+	}
+
+	@Test
+	public void reopensBugToStatusOfWorkflow() throws Exception {
+		assertTrue(plugin.isBugClosedAndCanReOpen(new Bug("1", "RESOLVED", "FIXED"), credentials("user", "password")));
+		plugin.reOpenBug(new Bug("1", "RESOLVED", "FIXED"), "Reopened", credentials("user", "password"));
+
+		assertEquals("CONFIRMED", plugin.fetchBugDetails("1", credentials("user", "password")).getBugStatus());
+	}
+
+	@Test
+	public void checksBugStateByDefaultWorkflowIfWorkflowCannotBeLoaded() throws Exception {
+		try (final BugzillaStubServer failing = BugzillaStubServer.builder().errorRate(1).start()) {
+			final Bugzilla4BugTrackerPlugin failingPlugin = new Bugzilla4BugTrackerPlugin();
+			final Map<String, String> config = new HashMap<>();
+			config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, failing.getUrl());
+			failingPlugin.setConfiguration(config);
+
+			assertTrue(failingPlugin.isBugClosed(new Bug("1", "RESOLVED", "FIXED"), credentials("user", "password")));
+			assertTrue(failingPlugin.isBugOpen(new Bug("2", "CONFIRMED", null), credentials("user", "password")));
+			assertFalse(failingPlugin.isBugClosedAndCanReOpen(new Bug("3", "RESOLVED", "WONTFIX"), credentials("user", "password")));
+			// Failure is cached, so later checks do not connect again
+			assertEquals(1, failing.getRequestCount("User.login"));
+		}
+	}
+
+	@Test
+	public void fetchesChangedBugsOfEveryTrackedSet() throws Exception {
+		final List<String> setA = Arrays.asList("1", "2");
+		final List<String> setB = Collections.singletonList("3");
+		assertEquals(new HashSet<>(setA), plugin.fetchChangedBugDetails(setA, credentials("user", "password")).keySet());
+		assertEquals(new HashSet<>(setB), plugin.fetchChangedBugDetails(setB, credentials("user", "password")).keySet());
+		assertEquals(0, plugin.fetchChangedBugDetails(setA, credentials("user", "password")).size());
+
+		plugin.addCommentToBug(new Bug("1", "CONFIRMED", null), "Changed", credentials("user", "password"));
+		// Synchronization of another set does not hide the change
+		assertEquals(0, plugin.fetchChangedBugDetails(setB, credentials("user", "password")).size());
+		assertEquals(Collections.singleton("1"), plugin.fetchChangedBugDetails(setA, credentials("user", "password")).keySet());
+	}
+
+	@Test
+	public void fetchesNewlyTrackedBugsFully() throws Exception {
+		plugin.fetchChangedBugDetails(Arrays.asList("1", "2"), credentials("user", "password"));
+		final long searches = server.getRequestCount("Bug.search");
+
+		assertEquals(Collections.singleton("4"), plugin.fetchChangedBugDetails(Arrays.asList("1", "2", "4")
+				, credentials("user", "password")).keySet());
+		assertEquals(searches + 1, server.getRequestCount("Bug.search"));
+	}
+}
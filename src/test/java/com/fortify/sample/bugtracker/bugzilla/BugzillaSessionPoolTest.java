@@ -0,0 +1,137 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.UserAuthenticationStore;
+import com.j2bugzilla.base.BugzillaMethod;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BugzillaSessionPoolTest {
+
+	private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+	private final BugzillaSessionPool pool = BugzillaSessionPool.getInstance();
+	private final AtomicInteger createdClients = new AtomicInteger();
+	private final Supplier<BugzillaClient> clientFactory = () -> {
+		createdClients.incrementAndGet();
+		return new BugzillaClient() {
+			@Override
+			public void executeMethod(final BugzillaMethod method) {
+				// Not used
+			}
+
+			@Override
+			public void abort() {
+				// Not used
+			}
+		};
+	};
+
+	private BugzillaSession borrow(final BugzillaSessionPool.Key key) {
+		final BugzillaSession session = pool.borrow(key, clientFactory, key.getUserName(), "password", 8, IDLE_TIMEOUT, false);
+		session.markApiKeyAuthenticated();
+		return session;
+	}
+
+	@Test
+	public void reusesSessionOfTheSameKey() {
+		final BugzillaSessionPool.Key key = new BugzillaSessionPool.Key("http://reuse", "user", "password", false, null);
+		final BugzillaSession first = borrow(key);
+		first.close();
+		final BugzillaSession second = borrow(new BugzillaSessionPool.Key("http://reuse", "user", "password", false, null));
+		second.close();
+		assertSame(first, second);
+		assertEquals(1, createdClients.get());
+	}
+
+	@Test
+	public void releasesSessionClosedTwiceOnlyOnce() {
+		final BugzillaSessionPool.Key key = new BugzillaSessionPool.Key("http://double-close", "user", "password", false, null);
+		final BugzillaSession session = borrow(key);
+		session.close();
+		session.close();
+		final BugzillaSession first = borrow(key);
+		final BugzillaSession second = borrow(key);
+		assertSame(session, first);
+		assertNotSame(session, second);
+		first.close();
+		second.close();
+	}
+
+	@Test
+	public void doesNotShareSessionsAmongDifferentCredentials() {
+		final BugzillaSession session = borrow(new BugzillaSessionPool.Key("http://isolation", "user", "password", false, null));
+		session.close();
+		final BugzillaSessionPool.Key[] otherKeys = {
+				new BugzillaSessionPool.Key("http://isolation", "user", "wrong password", false, null)
+				, new BugzillaSessionPool.Key("http://isolation", "other", "password", false, null)
+				, new BugzillaSessionPool.Key("http://isolation", "user", "password", true, null)
+				, new BugzillaSessionPool.Key("http://isolation", "user", "password", false, "proxy:8080")
+				, new BugzillaSessionPool.Key("http://other", "user", "password", false, null)
+		};
+		for (BugzillaSessionPool.Key key : otherKeys) {
+			final BugzillaSession other = borrow(key);
+			assertNotSame(session, other);
+			other.invalidate();
+			other.close();
+		}
+		assertEquals(1 + otherKeys.length, createdClients.get());
+	}
+
+	@Test
+	public void discardsInvalidAndExpiredSessions() {
+		final BugzillaSessionPool.Key key = new BugzillaSessionPool.Key("http://discard", "user", "password", false, null);
+		final BugzillaSession invalid = borrow(key);
+		invalid.invalidate();
+		invalid.close();
+		final BugzillaSession expired = pool.borrow(key, clientFactory, "user", "password", 8, 0, false);
+		expired.markApiKeyAuthenticated();
+		expired.close();
+		final BugzillaSession fresh = pool.borrow(key, clientFactory, "user", "password", 8, 0, false);
+		assertNotSame(invalid, fresh);
+		assertNotSame(expired, fresh);
+		assertEquals(3, createdClients.get());
+	}
+
+	@Test
+	public void logsInOncePerCredentials() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().start()) {
+			final Bugzilla4BugTrackerPlugin plugin = new Bugzilla4BugTrackerPlugin();
+			final Map<String, String> config = new HashMap<>();
+			config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+			config.put(BugzillaPluginConstants.AdvancedField.BUG_STATE_CACHE_TTL.getFieldName(), "0");
+			plugin.setConfiguration(config);
+			for (int i = 1; i <= 3; i++) {
+				plugin.fetchBugDetails(String.valueOf(i), credentials("user", "password"));
+			}
+			plugin.fetchBugDetails("1", credentials("user", "other password"));
+			assertEquals(2, server.getRequestCount("User.login"));
+			assertEquals(4, server.getRequestCount("Bug.get"));
+		}
+	}
+
+	static UserAuthenticationStore credentials(final String userName, final String password) {
+		return new UserAuthenticationStore() {
+			@Override
+			public String getUserName() {
+				return userName;
+			}
+
+			@Override
+			public String getPassword() {
+				return password;
+			}
+		};
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.BugTrackerException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BulkExecutorTest {
+
+	private static final List<Integer> ITEMS = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8);
+
+	@Test
+	public void failsRemainingItemsOfWorkerWithoutLoggingInAgain() {
+		final AtomicInteger logins = new AtomicInteger();
+		final BugTrackerException loginFailure = new BugTrackerException("Login failed");
+		final List<BulkResult<Integer>> results = BulkExecutor.execute(ITEMS, 1, () -> {
+			logins.incrementAndGet();
+			throw loginFailure;
+		}, (session, item) -> item, Collections.newSetFromMap(new ConcurrentHashMap<>()));
+
+		assertEquals(1, logins.get());
+		assertEquals(ITEMS.size(), results.size());
+		for (BulkResult<Integer> result : results) {
+			assertFalse(result.isSuccess());
+			assertSame(loginFailure, result.getError());
+		}
+	}
+
+	@Test
+	public void logsInAtMostOncePerWorker() {
+		final AtomicInteger logins = new AtomicInteger();
+		final List<BulkResult<Integer>> results = BulkExecutor.execute(ITEMS, 3, () -> {
+			logins.incrementAndGet();
+			throw new BugTrackerException("Login failed");
+		}, (session, item) -> item, Collections.newSetFromMap(new ConcurrentHashMap<>()));
+
+		assertTrue(logins.get() <= 3);
+		for (BulkResult<Integer> result : results) {
+			assertFalse(result.isSuccess());
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringCacheTest {
+
+	private final ExpiringCache<String, Integer> cache = new ExpiringCache<>();
+
+	@Test
+	public void servesCachedValueUntilItExpires() throws Exception {
+		cache.put("key", 1, 100);
+		assertEquals(Integer.valueOf(1), cache.getIfPresent("key"));
+
+		Thread.sleep(150);
+		assertNull(cache.getIfPresent("key"));
+	}
+
+	@Test
+	public void doesNotCacheWithoutTimeToLive() {
+		cache.put("key", 1, 0);
+		assertNull(cache.getIfPresent("key"));
+	}
+
+	@Test
+	public void forgetsInvalidatedValue() {
+		cache.put("key", 1, 60000);
+		cache.invalidate("key");
+		assertNull(cache.getIfPresent("key"));
+	}
+
+	@Test
+	public void evictsValuesClosestToExpirationWhenFull() {
+		final ExpiringCache<String, Integer> bounded = new ExpiringCache<>(10);
+		for (int i = 0; i < 10; i++) {
+			bounded.put("key" + i, i, 60000 + i * 1000);
+		}
+		bounded.put("key10", 10, 120000);
+
+		// Full cache is trimmed to 90 % of its maximum, values expiring first are evicted
+		assertNull(bounded.getIfPresent("key0"));
+		assertNull(bounded.getIfPresent("key1"));
+		for (int i = 2; i <= 10; i++) {
+			assertEquals(Integer.valueOf(i), bounded.getIfPresent("key" + i));
+		}
+	}
+
+	@Test
+	public void evictsExpiredValuesFirst() throws Exception {
+		final ExpiringCache<String, Integer> bounded = new ExpiringCache<>(10);
+		bounded.put("expired", 0, 50);
+		for (int i = 1; i < 10; i++) {
+			bounded.put("key" + i, i, 60000 + i * 1000);
+		}
+		Thread.sleep(100);
+		bounded.put("key10", 10, 120000);
+
+		assertNull(bounded.getIfPresent("expired"));
+		assertNull(bounded.getIfPresent("key1"));
+		for (int i = 2; i <= 10; i++) {
+			assertEquals(Integer.valueOf(i), bounded.getIfPresent("key" + i));
+		}
+	}
+}
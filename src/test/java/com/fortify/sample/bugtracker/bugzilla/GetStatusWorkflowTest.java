@@ -0,0 +1,88 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GetStatusWorkflowTest {
+
+	@Test
+	public void prefersReopenedStatus() {
+		final BugWorkflow workflow = workflow(
+				status("CONFIRMED", true, "RESOLVED")
+				, status("REOPENED", true, "RESOLVED")
+				, status("RESOLVED", false, "CONFIRMED", "REOPENED"));
+
+		assertTrue(workflow.isClosed("RESOLVED"));
+		assertFalse(workflow.isClosed("REOPENED"));
+		assertEquals("REOPENED", workflow.getReopenStatus(new Bug("1", "RESOLVED", "FIXED")));
+	}
+
+	@Test
+	public void reopensToFirstOpenStatusOfCustomWorkflow() {
+		final BugWorkflow workflow = workflow(
+				status("TRIAGE", true, "DONE")
+				, status("ACTIVE", true, "DONE")
+				, status("ARCHIVED", false)
+				, status("DONE", false, "ARCHIVED", "ACTIVE", "TRIAGE"));
+
+		assertTrue(workflow.canReopen(new Bug("1", "DONE", "FIXED")));
+		assertEquals("ACTIVE", workflow.getReopenStatus(new Bug("1", "DONE", "FIXED")));
+		assertFalse(workflow.canReopen(new Bug("2", "ARCHIVED", "FIXED")));
+	}
+
+	@Test
+	public void checksResolutionAndUnknownStatus() {
+		final BugWorkflow workflow = workflow(status("CONFIRMED", true), status("RESOLVED", false, "CONFIRMED"));
+
+		assertFalse(workflow.canReopen(new Bug("1", "RESOLVED", "DUPLICATE")));
+		assertTrue(workflow.canReopen(new Bug("2", null, null)));
+		assertEquals(BugzillaPluginConstants.STATUS_REOPENED, workflow.getReopenStatus(new Bug("2", null, null)));
+	}
+
+	@Test
+	public void defaultWorkflowReopensToConfirmed() {
+		assertTrue(BugWorkflow.DEFAULT.isClosed("VERIFIED"));
+		assertTrue(BugWorkflow.DEFAULT.canReopen(new Bug("1", "VERIFIED", "FIXED")));
+		assertEquals(BugzillaPluginConstants.STATUS_REOPENED, BugWorkflow.DEFAULT.getReopenStatus(new Bug("1", "VERIFIED", "FIXED")));
+	}
+
+	@Test
+	public void returnsNullWithoutStatusDefinitions() {
+		final GetStatusWorkflow get = new GetStatusWorkflow();
+		get.setResultMap(new HashMap<>(Collections.singletonMap("fields", new Object[0])));
+		assertNull(get.getWorkflow());
+	}
+
+	private static BugWorkflow workflow(final Object... statuses) {
+		final Map<Object, Object> field = new HashMap<>();
+		field.put("name", "bug_status");
+		field.put("values", statuses);
+		final GetStatusWorkflow get = new GetStatusWorkflow();
+		get.setResultMap(new HashMap<>(Collections.singletonMap("fields", new Object[]{field})));
+		return get.getWorkflow();
+	}
+
+	private static Map<String, Object> status(final String name, final boolean open, final String... transitions) {
+		final Object[] canChangeTo = new Object[transitions.length];
+		for (int i = 0; i < transitions.length; i++) {
+			canChangeTo[i] = Collections.singletonMap("name", transitions[i]);
+		}
+		final Map<String, Object> status = new HashMap<>();
+		status.put("name", name);
+		status.put("is_open", open);
+		status.put("can_change_to", canChangeTo);
+		return status;
+	}
+}
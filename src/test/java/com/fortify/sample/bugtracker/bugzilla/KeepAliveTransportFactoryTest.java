@@ -0,0 +1,59 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KeepAliveTransportFactoryTest {
+
+	@Test
+	public void sharesPermitsOfTheHost() throws Exception {
+		assertSame(KeepAliveTransportFactory.getHostPermits(new URL("http://shared:8080/bugzilla"))
+				, KeepAliveTransportFactory.getHostPermits(new URL("http://shared:8080/other")));
+		assertSame(KeepAliveTransportFactory.getHostPermits(new URL("https://shared/bugzilla"))
+				, KeepAliveTransportFactory.getHostPermits(new URL("https://shared:443/bugzilla")));
+	}
+
+	@Test
+	public void boundsRequestsByTheLastLimit() throws Exception {
+		final KeepAliveTransportFactory.HostPermits permits = KeepAliveTransportFactory.getHostPermits(new URL("http://bounded"));
+		assertFalse(permits.acquire(10));
+
+		permits.setLimit(1);
+		assertTrue(permits.acquire(10));
+		assertNoPermit(permits);
+
+		permits.setLimit(2);
+		assertTrue(permits.acquire(10));
+		assertNoPermit(permits);
+
+		// Lowered limit applies after the requests in progress finish
+		permits.setLimit(1);
+		permits.release();
+		assertNoPermit(permits);
+		permits.release();
+		assertTrue(permits.acquire(10));
+		permits.release();
+
+		permits.setLimit(0);
+		assertFalse(permits.acquire(10));
+	}
+
+	private static void assertNoPermit(final KeepAliveTransportFactory.HostPermits permits) throws InterruptedException {
+		try {
+			permits.acquire(10);
+			fail();
+		} catch (TimeoutException e) {
+			// Expected
+		}
+	}
+}
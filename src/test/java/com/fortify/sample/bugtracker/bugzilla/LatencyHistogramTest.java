@@ -0,0 +1,62 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void returnsZeroWithoutValues() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void keepsSmallValuesExactly() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10; i++) {
+			histogram.record(i);
+		}
+		assertEquals(5, histogram.getValueAtPercentile(50));
+		assertEquals(10, histogram.getValueAtPercentile(100));
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(10, histogram.getCount());
+		assertEquals(55, histogram.getTotalMicros());
+	}
+
+	@Test
+	public void approximatesLargeValuesWithinBucketPrecision() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1000; value <= 1000000; value += 1000) {
+			histogram.record(value);
+		}
+		assertWithinPrecision(500000, histogram.getValueAtPercentile(50));
+		assertWithinPrecision(990000, histogram.getValueAtPercentile(99));
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+		assertEquals(1000000, histogram.getMaxMicros());
+	}
+
+	@Test
+	public void recordsNegativeAndHugeValues() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE / 2);
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(Long.MAX_VALUE / 2, histogram.getValueAtPercentile(100));
+		assertEquals(2, histogram.getCount());
+	}
+
+	/**
+	 * Values are reported by the upper bound of their bucket, which is at most 1/16 higher.
+	 */
+	private static void assertWithinPrecision(final long expected, final long actual) {
+		assertTrue(actual + " < " + expected, actual >= expected);
+		assertTrue(actual + " > " + expected + " + 1/16", actual <= expected + expected / 16);
+	}
+}
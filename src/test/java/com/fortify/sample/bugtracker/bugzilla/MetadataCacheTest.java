@@ -0,0 +1,139 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataCacheTest {
+
+	private final MetadataCache<String, Integer> cache = new MetadataCache<>("test values", 10);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private Integer load() {
+		return loads.incrementAndGet();
+	}
+
+	private static Supplier<Integer> refresher(final int value, final CountDownLatch refreshed) {
+		return () -> {
+			refreshed.countDown();
+			return value;
+		};
+	}
+
+	/**
+	 * Wait until a background refresh puts its value to the cache.
+	 */
+	private void awaitValue(final String key, final Integer expected) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 5000;
+		while (!expected.equals(cache.peek(key)) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(5);
+		}
+		assertEquals(expected, cache.peek(key));
+	}
+
+	@Test
+	public void servesFreshValueWithoutLoading() {
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		assertEquals(Integer.valueOf(1), cache.get("key", 60000, this::load, refresher(10, refreshed)));
+		assertEquals(Integer.valueOf(1), cache.get("key", 60000, this::load, refresher(10, refreshed)));
+		assertEquals(1, loads.get());
+		assertEquals(1, refreshed.getCount());
+	}
+
+	@Test
+	public void loadsEveryTimeWithoutTimeToLive() {
+		cache.get("key", 0, this::load, this::load);
+		cache.get("key", 0, this::load, this::load);
+		assertEquals(2, loads.get());
+		assertNull(cache.peek("key"));
+	}
+
+	@Test
+	public void servesStaleValueAndRefreshesItInBackground() throws Exception {
+		cache.get("key", 50, this::load, this::load);
+		Thread.sleep(100);
+
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		assertEquals(Integer.valueOf(1), cache.get("key", 50, this::load, refresher(10, refreshed)));
+		assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+		awaitValue("key", 10);
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void keepsStaleValueWhenRefreshFails() throws Exception {
+		cache.get("key", 50, this::load, this::load);
+		Thread.sleep(100);
+
+		final CountDownLatch failed = new CountDownLatch(1);
+		assertEquals(Integer.valueOf(1), cache.get("key", 50, this::load, () -> {
+			failed.countDown();
+			throw new IllegalStateException("Refresh failed");
+		}));
+		assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+		// Next request tries the refresh again
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		final long deadline = System.currentTimeMillis() + 5000;
+		while ((refreshed.getCount() > 0) && (System.currentTimeMillis() < deadline)) {
+			assertEquals(Integer.valueOf(1), cache.get("key", 50, this::load, refresher(10, refreshed)));
+			Thread.sleep(5);
+		}
+		awaitValue("key", 10);
+	}
+
+	@Test
+	public void loadsValueStaleForTooLong() throws Exception {
+		cache.get("key", 10, this::load, this::load);
+		Thread.sleep(150);
+
+		assertEquals(Integer.valueOf(2), cache.get("key", 10, this::load, this::load));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedValues() {
+		final MetadataCache<String, Integer> small = new MetadataCache<>("test values", 2);
+		small.put("a", 1);
+		small.put("b", 2);
+		small.get("a", 60000, this::load, this::load);
+		small.put("c", 3);
+
+		assertEquals(Integer.valueOf(1), small.peek("a"));
+		assertNull(small.peek("b"));
+		assertEquals(Integer.valueOf(3), small.peek("c"));
+		assertEquals(new ArrayList<>(Arrays.asList("a", "c")), new ArrayList<>(small.snapshot().keySet()));
+
+		small.setMaxEntries(1);
+		small.put("d", 4);
+		assertEquals(Arrays.asList("d"), new ArrayList<>(small.snapshot().keySet()));
+	}
+
+	@Test
+	public void refreshesRestoredValueOnFirstRequest() throws Exception {
+		cache.restore("key", 5);
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		assertEquals(Integer.valueOf(5), cache.get("key", 60000, this::load, refresher(10, refreshed)));
+		assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+		awaitValue("key", 10);
+		assertEquals(0, loads.get());
+	}
+
+	@Test
+	public void doesNotRestoreOverLoadedValue() {
+		cache.put("key", 1);
+		cache.restore("key", 5);
+		assertEquals(Integer.valueOf(1), cache.peek("key"));
+	}
+}
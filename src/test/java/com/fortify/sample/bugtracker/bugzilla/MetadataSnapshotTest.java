@@ -0,0 +1,113 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataSnapshotTest {
+
+	private static final String URL = "http://bugzilla";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private MetadataSnapshot.Contents contents() {
+		final ProductCatalog catalog = new ProductCatalog(Arrays.asList(
+				new ProductCatalog.ProductEntry("Product A", Arrays.asList("Core", "UI"), Arrays.asList("1.0", "2.0"))
+				, new ProductCatalog.ProductEntry("Product B", Collections.singletonList("Core"), Collections.<String>emptyList())));
+		return new MetadataSnapshot.Contents(URL, 5.0, Arrays.asList("Low", "High")
+				, Collections.singletonMap("user|digest", catalog));
+	}
+
+	@Test
+	public void readsWrittenContents() throws Exception {
+		final MetadataSnapshot snapshot = new MetadataSnapshot(folder.getRoot().toPath(), URL);
+		snapshot.write(contents());
+
+		final MetadataSnapshot.Contents read = snapshot.read();
+		assertEquals(URL, read.getBugzillaUrl());
+		assertEquals(5.0, read.getBugzillaVersion(), 0);
+		assertEquals(Arrays.asList("Low", "High"), read.getPriorities());
+		final Map<String, ProductCatalog> catalogs = read.getProductCatalogs();
+		assertEquals(Collections.singleton("user|digest"), catalogs.keySet());
+		final ProductCatalog catalog = catalogs.get("user|digest");
+		assertEquals(Arrays.asList("Product A", "Product B"), catalog.getProductNames());
+		assertEquals(Arrays.asList("Core", "UI"), catalog.getComponents("Product A"));
+		assertEquals(Arrays.asList("1.0", "2.0"), catalog.getVersions("Product A"));
+		assertEquals(Collections.emptyList(), catalog.getVersions("Product B"));
+	}
+
+	@Test
+	public void keepsUnknownValuesUnknown() throws Exception {
+		final MetadataSnapshot snapshot = new MetadataSnapshot(folder.getRoot().toPath(), URL);
+		snapshot.write(new MetadataSnapshot.Contents(URL, null, null, Collections.<String, ProductCatalog>emptyMap()));
+
+		final MetadataSnapshot.Contents read = snapshot.read();
+		assertNull(read.getBugzillaVersion());
+		assertNull(read.getPriorities());
+		assertEquals(0, read.getProductCatalogs().size());
+	}
+
+	@Test
+	public void rejectsCorruptedPayload() throws Exception {
+		final MetadataSnapshot snapshot = new MetadataSnapshot(folder.getRoot().toPath(), URL);
+		snapshot.write(contents());
+		final Path file = snapshot.getFile();
+		final byte[] bytes = Files.readAllBytes(file);
+		// Header is magic, format version and payload length
+		bytes[12 + 5] ^= 0x01;
+		Files.write(file, bytes);
+
+		assertNull(snapshot.read());
+	}
+
+	@Test
+	public void rejectsTruncatedFile() throws Exception {
+		final MetadataSnapshot snapshot = new MetadataSnapshot(folder.getRoot().toPath(), URL);
+		snapshot.write(contents());
+		final Path file = snapshot.getFile();
+		final byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+		assertNull(snapshot.read());
+	}
+
+	@Test
+	public void ignoresSnapshotOfOtherServer() throws Exception {
+		new MetadataSnapshot(folder.getRoot().toPath(), URL).write(contents());
+		final MetadataSnapshot other = new MetadataSnapshot(folder.getRoot().toPath(), "http://other");
+		Files.copy(new MetadataSnapshot(folder.getRoot().toPath(), URL).getFile(), other.getFile());
+
+		assertNull(other.read());
+	}
+
+	@Test
+	public void ignoresMissingFile() {
+		assertNull(new MetadataSnapshot(folder.getRoot().toPath(), URL).read());
+	}
+
+	@Test
+	public void keysCataloguesByHmacWithSecretOfDirectory() throws Exception {
+		final String key = new MetadataSnapshot(folder.getRoot().toPath(), URL).catalogKey("user|digest");
+
+		assertTrue(key.matches("[0-9a-f]{64}"));
+		assertFalse(key.contains("digest"));
+		assertTrue(Files.exists(folder.getRoot().toPath().resolve("bugzilla-metadata.key")));
+		assertEquals(key, new MetadataSnapshot(folder.getRoot().toPath(), "http://other").catalogKey("user|digest"));
+		assertFalse(key.equals(new MetadataSnapshot(folder.newFolder("other").toPath(), URL).catalogKey("user|digest")));
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+	private static final BugzillaSessionPool.Key SCOPE = new BugzillaSessionPool.Key("http://coalescer", "user", "password", false, null);
+
+	private final RequestCoalescer coalescer = RequestCoalescer.getInstance();
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+	private final AtomicInteger executions = new AtomicInteger();
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		threads.shutdownNow();
+	}
+
+	/**
+	 * Executor blocking until {@link #release} is counted down, so concurrent callers join the execution.
+	 */
+	private void blockingExecute(final BugzillaMethod method, final BugzillaException error) throws BugzillaException {
+		executions.incrementAndGet();
+		started.countDown();
+		try {
+			assertTrue(release.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new BugzillaException("Interrupted", e);
+		}
+		if (error != null) {
+			throw error;
+		}
+		method.setResultMap(Collections.<Object, Object>singletonMap("result", method.getMethodName()));
+	}
+
+	private Future<Map<Object, Object>> submit(final BugzillaSessionPool.Key scope, final TestMethod method, final BugzillaException error) {
+		return submit(scope, method, error, new AtomicBoolean());
+	}
+
+	private Future<Map<Object, Object>> submit(final BugzillaSessionPool.Key scope, final TestMethod method, final BugzillaException error
+			, final AtomicBoolean aborted) {
+		return threads.submit(() -> {
+			coalescer.execute(scope, method, m -> blockingExecute(m, error), aborted::get);
+			return method.result;
+		});
+	}
+
+	/**
+	 * Start a caller executing the method and wait until it executes the request.
+	 */
+	private Future<Map<Object, Object>> startLeader(final TestMethod method, final BugzillaException error) throws Exception {
+		final Future<Map<Object, Object>> leader = submit(SCOPE, method, error);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return leader;
+	}
+
+	/**
+	 * Give concurrent callers time to join the request in flight.
+	 */
+	private static void pause() throws InterruptedException {
+		Thread.sleep(200);
+	}
+
+	@Test
+	public void sharesResultOfIdenticalRequests() throws Exception {
+		final Future<Map<Object, Object>> leader = startLeader(new TestMethod("Bug.get", 1, 2), null);
+		final Future<Map<Object, Object>> waiter = submit(SCOPE, new TestMethod("Bug.get", 1, 2), null);
+		pause();
+		release.countDown();
+
+		assertEquals("Bug.get", leader.get(5, TimeUnit.SECONDS).get("result"));
+		assertSame(leader.get(), waiter.get(5, TimeUnit.SECONDS));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	public void propagatesFailureToWaitingCallers() throws Exception {
+		final BugzillaException error = new BugzillaException("Bug.get failed");
+		final Future<Map<Object, Object>> leader = startLeader(new TestMethod("Bug.get", 1), error);
+		final Future<Map<Object, Object>> waiter = submit(SCOPE, new TestMethod("Bug.get", 1), null);
+		pause();
+		release.countDown();
+
+		try {
+			leader.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(error, e.getCause());
+		}
+		try {
+			waiter.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			// Waiter receives its own copy of the failure
+			assertNotSame(error, e.getCause());
+			assertEquals(BugzillaException.class, e.getCause().getClass());
+			assertEquals(error.getMessage(), e.getCause().getMessage());
+			assertArrayEquals(new Throwable[]{error}, e.getCause().getSuppressed());
+		}
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	public void waitersExecuteAgainIfLeaderIsAborted() throws Exception {
+		final AtomicBoolean leaderAborted = new AtomicBoolean();
+		final Future<Map<Object, Object>> leader = submit(SCOPE, new TestMethod("Bug.get", 4)
+				, new BugzillaTransportException("Aborted", null), leaderAborted);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		final Future<Map<Object, Object>> waiter = submit(SCOPE, new TestMethod("Bug.get", 4), null);
+		pause();
+		leaderAborted.set(true);
+		release.countDown();
+
+		try {
+			leader.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals("Aborted", e.getCause().getMessage());
+		}
+		assertEquals("Bug.get", waiter.get(5, TimeUnit.SECONDS).get("result"));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void abortedWaiterStopsWaiting() throws Exception {
+		final Future<Map<Object, Object>> leader = startLeader(new TestMethod("Bug.get", 5), null);
+		final AtomicBoolean waiterAborted = new AtomicBoolean();
+		final Future<Map<Object, Object>> waiter = submit(SCOPE, new TestMethod("Bug.get", 5), null, waiterAborted);
+		pause();
+		waiterAborted.set(true);
+
+		try {
+			waiter.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof BugzillaTransportException);
+		}
+		assertFalse(leader.isDone());
+		release.countDown();
+		assertEquals("Bug.get", leader.get(5, TimeUnit.SECONDS).get("result"));
+	}
+
+	@Test
+	public void executesAgainAfterFailure() throws Exception {
+		release.countDown();
+		try {
+			coalescer.execute(SCOPE, new TestMethod("Bug.get", 3), m -> blockingExecute(m, new BugzillaException("failed")), () -> false);
+			fail();
+		} catch (BugzillaException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		final TestMethod method = new TestMethod("Bug.get", 3);
+		coalescer.execute(SCOPE, method, m -> blockingExecute(m, null), () -> false);
+		assertEquals("Bug.get", method.result.get("result"));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void doesNotShareRequestsOfDifferentScopesParametersOrWriteMethods() throws Exception {
+		final Future<Map<Object, Object>> leader = startLeader(new TestMethod("Bug.get", 1), null);
+		submit(new BugzillaSessionPool.Key("http://coalescer", "user", "other password", false, null), new TestMethod("Bug.get", 1), null);
+		submit(SCOPE, new TestMethod("Bug.get", 2), null);
+		submit(SCOPE, new TestMethod("Bug.update", 1), null);
+		submit(SCOPE, new TestMethod("Bug.update", 1), null);
+		pause();
+		release.countDown();
+		leader.get(5, TimeUnit.SECONDS);
+
+		assertEquals(5, executions.get());
+	}
+
+	@Test
+	public void canonicalizesParametersIndependentlyOfMapOrder() {
+		final Map<Object, Object> first = new LinkedHashMap<>();
+		first.put("ids", new Object[]{1, 2});
+		first.put("include_fields", Collections.singletonList("status"));
+		final Map<Object, Object> second = new LinkedHashMap<>();
+		second.put("include_fields", Collections.singletonList("status"));
+		second.put("ids", new Object[]{1, 2});
+		assertEquals(RequestCoalescer.canonicalize(first), RequestCoalescer.canonicalize(second));
+	}
+
+	private static final class TestMethod implements BugzillaMethod {
+		private final String name;
+		private final Map<Object, Object> params = new HashMap<>();
+		private Map<Object, Object> result;
+
+		TestMethod(final String name, final Object... ids) {
+			this.name = name;
+			params.put("ids", ids);
+		}
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			this.result = hash;
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return params;
+		}
+
+		@Override
+		public String getMethodName() {
+			return name;
+		}
+	}
+}
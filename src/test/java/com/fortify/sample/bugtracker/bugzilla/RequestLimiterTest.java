@@ -0,0 +1,169 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.BugzillaTransportException;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestLimiterTest {
+
+	private static final AtomicInteger URL_COUNTER = new AtomicInteger();
+
+	/**
+	 * @return limiter of a URL not used by other tests
+	 */
+	private static RequestLimiter limiter(final int maxConcurrency, final int initialConcurrency) {
+		final RequestLimiter limiter = RequestLimiter.forUrl("http://limiter" + URL_COUNTER.incrementAndGet());
+		limiter.configure(maxConcurrency, 0, initialConcurrency);
+		return limiter;
+	}
+
+	@Test
+	public void isDisabledWithoutLimits() {
+		final RequestLimiter limiter = limiter(0, 4);
+		assertFalse(limiter.isEnabled());
+		assertEquals(0, limiter.getLimit());
+	}
+
+	@Test
+	public void startsAtInitialConcurrencyAndLastConfigurationWins() {
+		final RequestLimiter limiter = limiter(32, 4);
+		assertTrue(limiter.isEnabled());
+		assertEquals(4, limiter.getLimit());
+
+		limiter.configure(2, 0, 4);
+		assertEquals(2, limiter.getLimit());
+		limiter.configure(0, 0, 4);
+		assertFalse(limiter.isEnabled());
+	}
+
+	@Test
+	public void increasesLimitWhileItIsUsed() throws Exception {
+		final RequestLimiter limiter = limiter(8, 1);
+		final BugzillaClient client = limiter.wrap(new TestClient(0, null), 1000);
+		for (int i = 0; i < 20; i++) {
+			client.executeMethod(new TestMethod(1));
+		}
+		// Serial requests use a single slot, the limit grows only while at least half of it is used
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	public void decreasesLimitByOverloadErrors() throws Exception {
+		final RequestLimiter limiter = limiter(8, 8);
+		final BugzillaClient overloaded = limiter.wrap(new TestClient(0
+				, new BugzillaTransportException("Service Unavailable", 503, null)), 1000);
+		execute(overloaded, new TestMethod(1));
+		assertEquals(7, limiter.getLimit());
+		execute(overloaded, new TestMethod(1));
+		assertEquals(6, limiter.getLimit());
+
+		final BugzillaClient faulty = limiter.wrap(new TestClient(0
+				, new BugzillaException("Invalid bug", new XmlRpcException(101, "Invalid bug"))), 1000);
+		execute(faulty, new TestMethod(1));
+		assertEquals(6, limiter.getLimit());
+	}
+
+	@Test
+	public void decreasesLimitWhenLatencyRises() throws Exception {
+		final RequestLimiter limiter = limiter(8, 8);
+		for (int i = 0; i < 5; i++) {
+			limiter.wrap(new TestClient(0, null), 1000).executeMethod(new TestMethod(1));
+		}
+		limiter.wrap(new TestClient(40, null), 1000).executeMethod(new TestMethod(1));
+		assertEquals(7, limiter.getLimit());
+	}
+
+	@Test
+	public void comparesLatencyOfRequestsOfSimilarSize() throws Exception {
+		final RequestLimiter limiter = limiter(8, 8);
+		for (int i = 0; i < 5; i++) {
+			limiter.wrap(new TestClient(0, null), 1000).executeMethod(new TestMethod(1));
+		}
+		// Bulk request is slower than a single bug request, but it is compared only to requests of its size
+		limiter.wrap(new TestClient(40, null), 1000).executeMethod(new TestMethod(200));
+		limiter.wrap(new TestClient(40, null), 1000).executeMethod(new TestMethod(150));
+		assertEquals(8, limiter.getLimit());
+	}
+
+	@Test
+	public void groupsBaselinesByMethodAndSizeClass() {
+		assertEquals("Bug.get#0", RequestLimiter.baselineKey(new TestMethod(0)));
+		assertEquals("Bug.get#1", RequestLimiter.baselineKey(new TestMethod(1)));
+		assertEquals(RequestLimiter.baselineKey(new TestMethod(150)), RequestLimiter.baselineKey(new TestMethod(200)));
+		assertFalse(RequestLimiter.baselineKey(new TestMethod(100)).equals(RequestLimiter.baselineKey(new TestMethod(200))));
+	}
+
+	private static void execute(final BugzillaClient client, final BugzillaMethod method) {
+		try {
+			client.executeMethod(method);
+			fail();
+		} catch (BugzillaException e) {
+			// Expected
+		}
+	}
+
+	private static final class TestClient implements BugzillaClient {
+		private final long latencyMillis;
+		private final BugzillaException error;
+
+		TestClient(final long latencyMillis, final BugzillaException error) {
+			this.latencyMillis = latencyMillis;
+			this.error = error;
+		}
+
+		@Override
+		public void executeMethod(final BugzillaMethod method) throws BugzillaException {
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				throw new BugzillaException("Interrupted", e);
+			}
+			if (error != null) {
+				throw error;
+			}
+			method.setResultMap(Collections.emptyMap());
+		}
+
+		@Override
+		public void abort() {
+			// Nothing to abort
+		}
+	}
+
+	private static final class TestMethod implements BugzillaMethod {
+		private final Map<Object, Object> params;
+
+		TestMethod(final int ids) {
+			params = Collections.<Object, Object>singletonMap("ids", new Object[ids]);
+		}
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			// Result is not used
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return params;
+		}
+
+		@Override
+		public String getMethodName() {
+			return "Bug.get";
+		}
+	}
+}
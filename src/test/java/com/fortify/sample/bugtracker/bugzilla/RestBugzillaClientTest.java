@@ -0,0 +1,157 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.fortify.pub.bugtracker.support.BugTrackerAuthenticationException;
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaTransportException;
+import com.j2bugzilla.rpc.LogIn;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.fortify.sample.bugtracker.bugzilla.BugzillaSessionPoolTest.credentials;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RestBugzillaClientTest {
+
+	private static final int TIMEOUT_MILLIS = 5000;
+
+	private static RestBugzillaClient client(final String url) throws Exception {
+		return new RestBugzillaClient(new URL(url), TIMEOUT_MILLIS, TIMEOUT_MILLIS, null, null, null, null);
+	}
+
+	@Test
+	public void getsManyBugsBySeveralSearches() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().bugs(300).start()) {
+			final List<Integer> ids = new ArrayList<>();
+			for (int id = 1; id <= 250; id++) {
+				ids.add(id);
+			}
+			ids.add(1000);
+			final GetBugs get = GetBugs.forBugStates(ids, true);
+			client(server.getUrl()).executeMethod(get);
+
+			assertEquals(250, get.getBugStates().size());
+			assertEquals("250", get.getBugStates().get(249).getBugId());
+			assertEquals(3, server.getRequestCount("Bug.get"));
+		}
+	}
+
+	@Test
+	public void updatesEveryBugOfMultiIdUpdate() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().start()) {
+			final RestBugzillaClient client = client(server.getUrl());
+			client.executeMethod(new UpdateBugStatus(new int[]{1, 2, 3}, "IN_PROGRESS", "Comment"));
+
+			assertEquals(3, server.getRequestCount("Bug.update"));
+			final GetBugs get = GetBugs.forBugStates(Arrays.asList(1, 2, 3), false);
+			client.executeMethod(get);
+			for (Bug bug : get.getBugStates()) {
+				assertEquals("IN_PROGRESS", bug.getBugStatus());
+			}
+		}
+	}
+
+	@Test
+	public void stubUpdatesOnlyBugOfResourcePath() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().start()) {
+			final HttpURLConnection conn = (HttpURLConnection) new URL(server.getUrl() + "/rest/bug/1").openConnection();
+			conn.setRequestMethod("PUT");
+			conn.setDoOutput(true);
+			conn.setRequestProperty("Content-Type", "application/json");
+			try (final OutputStream os = conn.getOutputStream()) {
+				os.write("{\"ids\": [1, 2], \"status\": \"IN_PROGRESS\"}".getBytes(StandardCharsets.UTF_8));
+			}
+			assertEquals(200, conn.getResponseCode());
+			conn.disconnect();
+
+			final GetBugs get = GetBugs.forBugStates(Arrays.asList(1, 2), false);
+			client(server.getUrl()).executeMethod(get);
+			assertEquals("IN_PROGRESS", get.getBugStates().get(0).getBugStatus());
+			assertEquals("UNCONFIRMED", get.getBugStates().get(1).getBugStatus());
+		}
+	}
+
+	@Test
+	public void reopensEveryBugOfBulkReopenOverRest() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().start()) {
+			final Bugzilla4BugTrackerPlugin plugin = new Bugzilla4BugTrackerPlugin();
+			final Map<String, String> config = new HashMap<>();
+			config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+			config.put(BugzillaPluginConstants.BUGZILLA_API_NAME, BugzillaPluginConstants.BUGZILLA_API_REST);
+			plugin.setConfiguration(config);
+			final List<BulkResult<Bug>> results = plugin.reOpenBugs(Arrays.asList(
+					new BugComment(new Bug("1", "RESOLVED", "FIXED"), "Reopened")
+					, new BugComment(new Bug("2", "RESOLVED", "FIXED"), "Reopened")), credentials("user", "password"));
+
+			assertTrue(results.get(0).isSuccess());
+			assertTrue(results.get(1).isSuccess());
+			assertEquals("CONFIRMED", plugin.fetchBugDetails("1", credentials("user", "password")).getBugStatus());
+			assertEquals("CONFIRMED", plugin.fetchBugDetails("2", credentials("user", "password")).getBugStatus());
+			plugin.stop();
+		}
+	}
+
+	@Test
+	public void reportsAuthenticationErrorsAsHttp401() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().password("secret").start()) {
+			client(server.getUrl()).executeMethod(new LogIn("user", "secret"));
+			try {
+				client(server.getUrl()).executeMethod(new LogIn("user", "wrong"));
+				fail();
+			} catch (BugzillaTransportException e) {
+				assertEquals(401, e.getStatus());
+			}
+		}
+	}
+
+	@Test
+	public void failsPluginLoginByAuthenticationException() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().password("secret").start()) {
+			final Bugzilla4BugTrackerPlugin plugin = new Bugzilla4BugTrackerPlugin();
+			final Map<String, String> config = new HashMap<>();
+			config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+			config.put(BugzillaPluginConstants.BUGZILLA_API_NAME, BugzillaPluginConstants.BUGZILLA_API_REST);
+			plugin.setConfiguration(config);
+			plugin.validateCredentials(credentials("user", "secret"));
+			try {
+				plugin.validateCredentials(credentials("user", "wrong"));
+				fail();
+			} catch (BugTrackerAuthenticationException e) {
+				// Expected
+			}
+		}
+	}
+
+	@Test
+	public void detectsRestApiAvailability() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().start()) {
+			assertTrue(client(server.getUrl()).isRestApiAvailable());
+			assertFalse(client(server.getUrl() + "/missing").isRestApiAvailable());
+		}
+	}
+
+	@Test
+	public void doesNotDecideRestApiAvailabilityOnServerErrors() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder().errorRate(1).start()) {
+			client(server.getUrl()).isRestApiAvailable();
+			fail();
+		} catch (BugzillaException e) {
+			// Expected
+		}
+	}
+}
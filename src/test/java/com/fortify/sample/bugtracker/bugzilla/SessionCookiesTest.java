@@ -0,0 +1,64 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SessionCookiesTest {
+
+	private final SessionCookies cookies = new SessionCookies();
+
+	private static URLConnection connection(final String... setCookies) throws Exception {
+		return new URLConnection(new URL("http://bugzilla")) {
+			@Override
+			public void connect() {
+				// Not used
+			}
+
+			@Override
+			public Map<String, List<String>> getHeaderFields() {
+				return setCookies.length == 0 ? Collections.<String, List<String>>emptyMap()
+						: Collections.singletonMap("Set-Cookie", Arrays.asList(setCookies));
+			}
+		};
+	}
+
+	@Test
+	public void sendsNoCookiesUntilSet() throws Exception {
+		final URLConnection conn = connection();
+		cookies.store(conn);
+		cookies.apply(conn);
+		assertNull(conn.getRequestProperty("Cookie"));
+	}
+
+	@Test
+	public void sendsLoginCookiesWithNextRequests() throws Exception {
+		cookies.store(connection("Bugzilla_login=1; path=/bugzilla; HttpOnly", "Bugzilla_logincookie=abc; path=/bugzilla"));
+		final URLConnection conn = connection();
+		cookies.apply(conn);
+		final List<String> sent = Arrays.asList(conn.getRequestProperty("Cookie").split("; "));
+		assertEquals(2, sent.size());
+		assertEquals(true, sent.contains("Bugzilla_login=1"));
+		assertEquals(true, sent.contains("Bugzilla_logincookie=abc"));
+	}
+
+	@Test
+	public void replacesAndRemovesCookies() throws Exception {
+		cookies.store(connection("Bugzilla_login=1", "Bugzilla_logincookie=abc"));
+		cookies.store(connection("Bugzilla_login=2", "Bugzilla_logincookie=; expires=Thu, 01 Jan 1970 00:00:00 GMT"));
+		final URLConnection conn = connection();
+		cookies.apply(conn);
+		assertEquals("Bugzilla_login=2", conn.getRequestProperty("Cookie"));
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaMethod;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TrafficCaptureTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sharesFileUntilLastUserReleasesIt() throws Exception {
+		final Path file = folder.getRoot().toPath().resolve("capture.bin");
+		final TrafficCapture first = TrafficCapture.forFile(file);
+		final TrafficCapture second = TrafficCapture.forFile(file);
+		assertSame(first, second);
+
+		first.release();
+		final TrafficCapture third = TrafficCapture.forFile(file);
+		assertSame(second, third);
+		second.release();
+		third.release();
+
+		final TrafficCapture reopened = TrafficCapture.forFile(file);
+		assertNotSame(first, reopened);
+		reopened.release();
+	}
+
+	@Test
+	public void writesRecordsUntilReleased() throws Exception {
+		final Path file = folder.getRoot().toPath().resolve("records.bin");
+		final TrafficCapture capture = TrafficCapture.forFile(file);
+		final BugzillaClient client = capture.wrap(new BugzillaClient() {
+			@Override
+			public void executeMethod(final BugzillaMethod method) {
+				method.setResultMap(Collections.<Object, Object>singletonMap("version", "5.0"));
+			}
+
+			@Override
+			public void abort() {
+				// Nothing to abort
+			}
+		});
+		client.executeMethod(new TestMethod());
+		capture.release();
+		// Capture is closed, the record is not written
+		client.executeMethod(new TestMethod());
+
+		try (final TrafficCapture.Reader reader = new TrafficCapture.Reader(file)) {
+			final TrafficCapture.Record record = reader.next();
+			assertEquals("Bugzilla.version", record.getMethodName());
+			assertEquals("5.0", record.getResult().get("version"));
+			assertNull(reader.next());
+		}
+	}
+
+	private static final class TestMethod implements BugzillaMethod {
+		private final Map<Object, Object> params = new HashMap<>();
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			// Result is not used
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return params;
+		}
+
+		@Override
+		public String getMethodName() {
+			return "Bugzilla.version";
+		}
+	}
+}
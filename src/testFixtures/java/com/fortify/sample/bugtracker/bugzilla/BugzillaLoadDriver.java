@@ -0,0 +1,248 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fortify.pub.bugtracker.support.Bug;
+import com.fortify.pub.bugtracker.support.BugSubmission;
+import com.fortify.pub.bugtracker.support.UserAuthenticationStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load driver measuring plugin throughput and latency against {@link BugzillaStubServer}.
+ * <P>
+ * Driver starts the fake server, configures a plugin instance against it and executes a random mix of plugin operations
+ * from many threads for the given time. Throughput and latency percentiles of every operation are printed at the end,
+ * followed by the plugin request metrics. Options (all optional) are passed as {@code --name=value}:
+ * <pre>
+ * --threads=8          number of driver threads
+ * --duration=30        measured time in seconds, preceded by --warmup seconds which are not measured
+ * --warmup=5
+ * --api=xmlrpc         Bugzilla API used by the plugin, xmlrpc or rest
+ * --transport=keepalive  HTTP transport of the XML-RPC API, keepalive or legacy
+ * --products=1000      data set of the server: products, components and versions per product, bugs
+ * --components=10
+ * --versions=5
+ * --bugs=10000
+ * --latency=20         server latency and jitter in milliseconds
+ * --jitter=10
+ * --error-rate=0       fraction of requests failed by the server
+ * --capacity=0         number of requests processed by the server concurrently, 0 means unbounded
+ * --max-concurrency=32 maximum adaptive concurrency limit of the plugin, 0 disables the limit
+ * --max-rate=0         maximum number of requests per second sent by the plugin, 0 means unlimited
+ * --batch=200          number of bugs fetched by a bulk fetch
+ * --mix=fetch:60,fetchBulk:10,file:10,comment:10,params:10   relative weights of the operations
+ * --no-cache           disable the plugin metadata and bug state caches
+ * --capture=           file where the Bugzilla traffic is captured for {@link TrafficReplayDriver}
+ * </pre>
+ * Started by {@code ./gradlew loadTest -Pload.args="--threads=16 --latency=50"}.
+ */
+final class BugzillaLoadDriver {
+
+	private static final UserAuthenticationStore CREDENTIALS = new UserAuthenticationStore() {
+		@Override
+		public String getUserName() {
+			return "stub@example.com";
+		}
+
+		@Override
+		public String getPassword() {
+			return "password";
+		}
+	};
+
+	private final Map<String, String> options;
+	private final Map<String, Integer> mix = new LinkedHashMap<>();
+	private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+	private final int totalWeight;
+	private final int bugCount;
+	private final int batchSize;
+	private volatile boolean measuring;
+	private volatile boolean running = true;
+
+	private BugzillaLoadDriver(final Map<String, String> options) {
+		this.options = options;
+		for (String item : option("mix", "fetch:60,fetchBulk:10,file:10,comment:10,params:10").split(",")) {
+			final String[] weight = item.split(":");
+			mix.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+			stats.put(weight[0].trim(), new OperationStats());
+		}
+		int total = 0;
+		for (int weight : mix.values()) {
+			total += weight;
+		}
+		this.totalWeight = total;
+		this.bugCount = intOption("bugs", 10000);
+		this.batchSize = intOption("batch", 200);
+	}
+
+	public static void main(final String[] args) throws Exception {
+		final Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--")) {
+				throw new IllegalArgumentException("Invalid option " + arg + ", options are passed as --name=value");
+			}
+			final int eq = arg.indexOf('=');
+			options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+		}
+		new BugzillaLoadDriver(options).run();
+		System.exit(0);
+	}
+
+	private String option(final String name, final String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	private int intOption(final String name, final int defaultValue) {
+		return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+	}
+
+	private void run() throws Exception {
+		try (final BugzillaStubServer server = BugzillaStubServer.builder()
+				.products(intOption("products", 1000), intOption("components", 10), intOption("versions", 5))
+				.bugs(bugCount)
+				.latency(intOption("latency", 20), intOption("jitter", 10))
+				.errorRate(Double.parseDouble(option("error-rate", "0")))
+				.capacity(intOption("capacity", 0))
+				.start()) {
+			final Bugzilla4BugTrackerPlugin plugin = new Bugzilla4BugTrackerPlugin();
+			plugin.setConfiguration(createConfiguration(server));
+			final int threads = intOption("threads", 8);
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			for (int i = 0; i < threads; i++) {
+				executor.execute(() -> drive(plugin));
+			}
+			TimeUnit.SECONDS.sleep(intOption("warmup", 5));
+			measuring = true;
+			final long start = System.nanoTime();
+			TimeUnit.SECONDS.sleep(intOption("duration", 30));
+			measuring = false;
+			final double seconds = (System.nanoTime() - start) / 1e9;
+			running = false;
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+			plugin.stop();
+			report(seconds, server, plugin);
+		}
+	}
+
+	private Map<String, String> createConfiguration(final BugzillaStubServer server) {
+		final Map<String, String> config = new HashMap<>();
+		config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+		config.put(BugzillaPluginConstants.BUGZILLA_API_NAME, option("api", BugzillaPluginConstants.BUGZILLA_API_XMLRPC));
+		config.put(BugzillaPluginConstants.HTTP_TRANSPORT_NAME, option("transport", BugzillaPluginConstants.HTTP_TRANSPORT_KEEP_ALIVE));
+		config.put(BugzillaPluginConstants.AdvancedField.MAX_CONCURRENT_REQUESTS.getFieldName(), option("max-concurrency", "32"));
+		config.put(BugzillaPluginConstants.AdvancedField.MAX_REQUESTS_PER_SECOND.getFieldName(), option("max-rate", "0"));
+		if (options.containsKey("no-cache")) {
+			config.put(BugzillaPluginConstants.AdvancedField.PRODUCT_CATALOG_CACHE_TTL.getFieldName(), "0");
+			config.put(BugzillaPluginConstants.AdvancedField.LEGAL_VALUES_CACHE_TTL.getFieldName(), "0");
+			config.put(BugzillaPluginConstants.AdvancedField.BUG_STATE_CACHE_TTL.getFieldName(), "0");
+		}
+		if (options.containsKey("capture")) {
+			config.put(BugzillaPluginConstants.TRAFFIC_CAPTURE_FILE_NAME, option("capture", ""));
+		}
+		return config;
+	}
+
+	private void drive(final Bugzilla4BugTrackerPlugin plugin) {
+		while (running) {
+			final String operation = nextOperation();
+			final long start = System.nanoTime();
+			boolean failed = false;
+			try {
+				execute(plugin, operation);
+			} catch (RuntimeException e) {
+				failed = true;
+			}
+			if (measuring) {
+				stats.get(operation).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), failed);
+			}
+		}
+	}
+
+	private String nextOperation() {
+		int value = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+			value -= entry.getValue();
+			if (value < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("Empty operation mix");
+	}
+
+	private void execute(final Bugzilla4BugTrackerPlugin plugin, final String operation) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		switch (operation) {
+			case "fetch":
+				plugin.fetchBugDetails(String.valueOf(random.nextInt(bugCount) + 1), CREDENTIALS);
+				break;
+			case "fetchBulk": {
+				final List<String> ids = new ArrayList<>(batchSize);
+				final int first = random.nextInt(Math.max(1, bugCount - batchSize)) + 1;
+				for (int i = 0; i < batchSize; i++) {
+					ids.add(String.valueOf(first + i));
+				}
+				plugin.fetchBugDetails(ids, CREDENTIALS);
+				break;
+			}
+			case "file": {
+				final Map<String, String> params = new HashMap<>();
+				params.put(BugzillaPluginConstants.PRODUCT_PARAM_NAME, "Product 1");
+				params.put(BugzillaPluginConstants.COMPONENT_PARAM_NAME, "Component 1");
+				params.put(BugzillaPluginConstants.VERSION_PARAM_NAME, "1.1");
+				params.put(BugzillaPluginConstants.PRIORITY_PARAM_NAME, "High");
+				params.put(BugzillaPluginConstants.SUMMARY_PARAM_NAME, "Fortify Bug: SQL Injection in Dao.java");
+				params.put(BugzillaPluginConstants.DESCRIPTION_PARAM_NAME, "Issue Ids: 8E3A2C94D1B0F6A7");
+				final BugSubmission submission = new BugSubmission();
+				submission.setParams(params);
+				plugin.fileBug(submission, CREDENTIALS);
+				break;
+			}
+			case "comment":
+				plugin.addCommentToBug(new Bug(String.valueOf(random.nextInt(bugCount) + 1), "CONFIRMED"), "Issue is still present", CREDENTIALS);
+				break;
+			case "params":
+				plugin.getBugParameters(null, CREDENTIALS);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown operation " + operation);
+		}
+	}
+
+	private void report(final double seconds, final BugzillaStubServer server, final Bugzilla4BugTrackerPlugin plugin) {
+		System.out.printf("%-10s %10s %10s %8s %10s %10s %10s %10s%n", "operation", "count", "ops/s", "errors", "mean us", "p50 us", "p99 us", "max us");
+		for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+			final LatencyHistogram latency = entry.getValue().latency;
+			final long count = latency.getCount();
+			System.out.printf("%-10s %10d %10.1f %8d %10d %10d %10d %10d%n", entry.getKey(), count, count / seconds
+					, entry.getValue().errors.sum(), count == 0 ? 0 : latency.getTotalMicros() / count
+					, latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMaxMicros());
+		}
+		System.out.println("Server requests: " + server.getRequestCount() + ", failed by injected errors: " + server.getFailedRequestCount()
+				+ ", concurrency limit: " + RequestLimiter.forUrl(server.getUrl()).getLimit());
+		System.out.println(plugin.getRpcMetrics());
+	}
+
+	private static final class OperationStats {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+
+		void record(final long micros, final boolean failed) {
+			latency.record(micros);
+			if (failed) {
+				errors.increment();
+			}
+		}
+	}
+}
@@ -0,0 +1,684 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embeddable fake Bugzilla 5.0 server for tests, benchmarks and load tests of the plugin.
+ * <P>
+ * Server listens on the loopback interface and speaks both the XML-RPC ({@code /xmlrpc.cgi}) and the REST ({@code /rest})
+ * API for all methods used by the plugin: User.login, User.whoami, Bugzilla.version, Bugzilla.time,
+ * Product.get_accessible_products, Product.get, Bug.legal_values, Bug.fields, Bug.create, Bug.get, Bug.search,
+ * Bug.update and Bug.add_comment. Requests are answered from an in-memory data set of generated products and bugs,
+ * any user name and API key is accepted, any password unless a password is set by {@link Builder#password(String)}. Responses are gzip compressed if the client asks for it.
+ * <P>
+ * Latency, jitter, error rate and capacity of the server are configurable by {@link Builder}, so the plugin can be measured under
+ * realistic conditions without a real Bugzilla:
+ * <pre>
+ * try (BugzillaStubServer server = BugzillaStubServer.builder().products(2000, 10, 5).bugs(20000)
+ *         .latency(20, 10).errorRate(0.01).start()) {
+ *     config.put(BugzillaPluginConstants.BUGZILLA_URL_NAME, server.getUrl());
+ *     ...
+ * }
+ * </pre>
+ */
+final class BugzillaStubServer implements AutoCloseable {
+
+	private static final String XMLRPC_PATH = "/xmlrpc.cgi";
+	private static final String REST_PATH = "/rest";
+	private static final String VERSION = "5.0.4";
+	private static final String[] PRIORITIES = new String[]{"---", "Lowest", "Low", "Normal", "High", "Highest"};
+
+	/**
+	 * Fault codes returned by Bugzilla.
+	 */
+	private static final int FAULT_INVALID_BUG_ID = 101;
+	private static final int FAULT_INVALID_LOGIN = 300;
+	private static final int FAULT_UNKNOWN_RESOURCE = 32614;
+	private static final int FAULT_UNKNOWN_METHOD = 32601;
+
+	static {
+		// JDK HTTP server writes headers and body separately, without TCP_NODELAY every response waits for a delayed ACK
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final int productCount;
+	private final int componentsPerProduct;
+	private final int versionsPerProduct;
+	private final long latencyMillis;
+	private final long jitterMillis;
+	private final double errorRate;
+	private final int errorStatus;
+	private final Semaphore workers;
+	private final String password;
+	private final Random random;
+	private final ConcurrentMap<Integer, StubBug> bugs = new ConcurrentHashMap<>();
+	private final AtomicInteger nextBugId = new AtomicInteger(1);
+	private final AtomicInteger nextCommentId = new AtomicInteger(1);
+	private final ConcurrentMap<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+	private final LongAdder failedRequests = new LongAdder();
+
+	private BugzillaStubServer(final Builder builder) throws IOException {
+		this.productCount = builder.productCount;
+		this.componentsPerProduct = builder.componentsPerProduct;
+		this.versionsPerProduct = builder.versionsPerProduct;
+		this.latencyMillis = builder.latencyMillis;
+		this.jitterMillis = builder.jitterMillis;
+		this.errorRate = builder.errorRate;
+		this.errorStatus = builder.errorStatus;
+		this.workers = builder.capacity > 0 ? new Semaphore(builder.capacity, true) : null;
+		this.password = builder.password;
+		this.random = new Random(builder.seed);
+		// Generated bugs have not changed recently, so searches for changes see only changes made by the test
+		final long generatedMillis = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+		for (int i = 0; i < builder.bugCount; i++) {
+			createBug(generatedMillis);
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 0);
+		executor = Executors.newCachedThreadPool(r -> {
+			final Thread thread = new Thread(r, "bugzilla-stub");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext(XMLRPC_PATH, this::handleXmlRpc);
+		server.createContext(REST_PATH, this::handleRest);
+		server.start();
+	}
+
+	/**
+	 * @return builder of a server with 10 products of 5 components and 5 versions, 1000 bugs, no latency and no errors
+	 */
+	static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builder of {@link BugzillaStubServer}.
+	 */
+	static final class Builder {
+		private int port;
+		private int productCount = 10;
+		private int componentsPerProduct = 5;
+		private int versionsPerProduct = 5;
+		private int bugCount = 1000;
+		private long latencyMillis;
+		private long jitterMillis;
+		private double errorRate;
+		private int errorStatus = 503;
+		private int capacity;
+		private String password;
+		private long seed = 1;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param port port of the server, 0 means a free port
+		 */
+		Builder port(final int port) {
+			this.port = port;
+			return this;
+		}
+
+		/**
+		 * @param count number of generated products accessible by every user
+		 * @param componentsPerProduct number of components of every product
+		 * @param versionsPerProduct number of versions of every product
+		 */
+		Builder products(final int count, final int componentsPerProduct, final int versionsPerProduct) {
+			this.productCount = count;
+			this.componentsPerProduct = componentsPerProduct;
+			this.versionsPerProduct = versionsPerProduct;
+			return this;
+		}
+
+		/**
+		 * @param count number of generated bugs, their ids start at 1
+		 */
+		Builder bugs(final int count) {
+			this.bugCount = count;
+			return this;
+		}
+
+		/**
+		 * @param latencyMillis minimal time of every request
+		 * @param jitterMillis maximum random time added to the latency, uniformly distributed
+		 */
+		Builder latency(final long latencyMillis, final long jitterMillis) {
+			this.latencyMillis = latencyMillis;
+			this.jitterMillis = jitterMillis;
+			return this;
+		}
+
+		/**
+		 * @param errorRate fraction of requests between 0 and 1 failing by an HTTP error, see {@link #errorStatus(int)}
+		 */
+		Builder errorRate(final double errorRate) {
+			this.errorRate = errorRate;
+			return this;
+		}
+
+		/**
+		 * @param errorStatus HTTP status of the failing requests, 503 by default
+		 */
+		Builder errorStatus(final int errorStatus) {
+			this.errorStatus = errorStatus;
+			return this;
+		}
+
+		/**
+		 * @param capacity number of requests processed concurrently, later requests wait, so the latency rises under load;
+		 *                 0 means unbounded
+		 */
+		Builder capacity(final int capacity) {
+			this.capacity = capacity;
+			return this;
+		}
+
+		/**
+		 * @param password the only password accepted by User.login, any password is accepted if null
+		 */
+		Builder password(final String password) {
+			this.password = password;
+			return this;
+		}
+
+		/**
+		 * @param seed seed of the random latency jitter and errors, so runs can be repeated
+		 */
+		Builder seed(final long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Start the server.
+		 *
+		 * @return started server
+		 * @throws IOException if the server cannot listen
+		 */
+		BugzillaStubServer start() throws IOException {
+			return new BugzillaStubServer(this);
+		}
+	}
+
+	/**
+	 * @return Bugzilla URL of the server to be configured in the plugin
+	 */
+	String getUrl() {
+		return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+
+	/**
+	 * @param methodName WebService method name, e.g. Bug.get
+	 * @return number of requests of the method received by the server, including the failed ones
+	 */
+	long getRequestCount(final String methodName) {
+		final LongAdder count = requestCounts.get(methodName);
+		return count == null ? 0 : count.sum();
+	}
+
+	/**
+	 * @return number of requests received by the server, including the failed ones
+	 */
+	long getRequestCount() {
+		long total = 0;
+		for (LongAdder count : requestCounts.values()) {
+			total += count.sum();
+		}
+		return total;
+	}
+
+	/**
+	 * @return number of requests failed by an injected HTTP error
+	 */
+	long getFailedRequestCount() {
+		return failedRequests.sum();
+	}
+
+	/**
+	 * @return number of bugs, including the bugs created by Bug.create
+	 */
+	int getBugCount() {
+		return bugs.size();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private int createBug(final long lastChangeMillis) {
+		final int id = nextBugId.getAndIncrement();
+		bugs.put(id, new StubBug(id, lastChangeMillis));
+		return id;
+	}
+
+	private void handleXmlRpc(final HttpExchange exchange) throws IOException {
+		final XmlRpcCodec.MethodCall call;
+		try (final InputStream in = exchange.getRequestBody()) {
+			call = XmlRpcCodec.readMethodCall(in);
+		} catch (XMLStreamException e) {
+			sendEmpty(exchange, 400);
+			return;
+		}
+		if (simulateServer(exchange, call.methodName)) {
+			return;
+		}
+		String response;
+		try {
+			response = XmlRpcCodec.writeResponse(invoke(call.methodName, call.getStructParam()));
+		} catch (StubFault e) {
+			response = XmlRpcCodec.writeFault(e.code, e.getMessage());
+		}
+		send(exchange, 200, "text/xml; charset=UTF-8", response.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void handleRest(final HttpExchange exchange) throws IOException {
+		final Map<String, Object> params = parseQuery(exchange.getRequestURI().getRawQuery());
+		if (!"GET".equals(exchange.getRequestMethod())) {
+			try (final InputStream in = exchange.getRequestBody()) {
+				params.putAll(JsonCodec.readObject(in));
+			}
+		}
+		final String methodName = toMethodName(exchange.getRequestMethod()
+				, exchange.getRequestURI().getPath().substring(REST_PATH.length()), params);
+		if (simulateServer(exchange, methodName == null ? "unknown" : methodName)) {
+			return;
+		}
+		int status = 200;
+		Object response;
+		try {
+			if (methodName == null) {
+				throw new StubFault(FAULT_UNKNOWN_RESOURCE, "A REST API resource was not found for '"
+						+ exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + "'.");
+			}
+			response = invoke(methodName, params);
+		} catch (StubFault e) {
+			status = e.code == FAULT_UNKNOWN_RESOURCE ? 404 : e.code == FAULT_INVALID_LOGIN ? 401 : 400;
+			response = map("error", true, "code", e.code, "message", e.getMessage(), "documentation", "");
+		}
+		send(exchange, status, "application/json; charset=UTF-8", JsonCodec.write(response));
+	}
+
+	/**
+	 * Map a REST resource to its WebService method. Ids in the resource path and REST specific parameters
+	 * are converted to the method parameters.
+	 *
+	 * @return method name or null if the resource is not known
+	 */
+	private static String toMethodName(final String httpMethod, final String path, final Map<String, Object> params) {
+		final String[] segments = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
+		final String resource = String.join("/", segments);
+		if ("GET".equals(httpMethod)) {
+			switch (resource) {
+				case "version":
+					return "Bugzilla.version";
+				case "time":
+					return "Bugzilla.time";
+				case "login":
+					return "User.login";
+				case "whoami":
+					return "User.whoami";
+				case "product_accessible":
+					return "Product.get_accessible_products";
+				case "product":
+					return "Product.get";
+				case "field/bug":
+					return "Bug.fields";
+				case "bug":
+					if (params.containsKey("id") && !params.containsKey("last_change_time")) {
+						// Search by ids returns only the existing bugs
+						params.put("ids", String.valueOf(params.remove("id")).split(","));
+						params.put("permissive", true);
+						return "Bug.get";
+					}
+					if (params.get("last_change_time") instanceof String) {
+						params.put("last_change_time", JsonCodec.parseDate((String) params.get("last_change_time")));
+					}
+					if (params.get("id") instanceof String) {
+						params.put("id", ((String) params.get("id")).split(","));
+					}
+					return "Bug.search";
+				default:
+					if ((segments.length == 2) && "bug".equals(segments[0])) {
+						params.put("ids", new Object[]{segments[1]});
+						return "Bug.get";
+					}
+					return null;
+			}
+		}
+		if ("POST".equals(httpMethod) && "bug".equals(resource)) {
+			return "Bug.create";
+		}
+		if ("PUT".equals(httpMethod) && (segments.length == 2) && "bug".equals(segments[0])) {
+			// Like Bugzilla, the id of the resource path replaces ids of the request body
+			params.put("ids", new Object[]{segments[1]});
+			return "Bug.update";
+		}
+		if ("POST".equals(httpMethod) && (segments.length == 3) && "bug".equals(segments[0]) && "comment".equals(segments[2])) {
+			params.put("id", segments[1]);
+			return "Bug.add_comment";
+		}
+		return null;
+	}
+
+	private static Map<String, Object> parseQuery(final String query) throws UnsupportedEncodingException {
+		final Map<String, List<String>> values = new LinkedHashMap<>();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				if (pair.isEmpty()) {
+					continue;
+				}
+				final int eq = pair.indexOf('=');
+				final String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+				final String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+				values.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+			}
+		}
+		final Map<String, Object> result = new LinkedHashMap<>();
+		for (Map.Entry<String, List<String>> entry : values.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().size() == 1 ? entry.getValue().get(0) : entry.getValue().toArray());
+		}
+		return result;
+	}
+
+	/**
+	 * Count the request, wait for a free worker and the configured latency and fail the request if an error is injected.
+	 *
+	 * @return true if the request failed and its response has been sent
+	 */
+	private boolean simulateServer(final HttpExchange exchange, final String methodName) throws IOException {
+		requestCounts.computeIfAbsent(methodName, name -> new LongAdder()).increment();
+		final long delay = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0);
+		try {
+			if (workers != null) {
+				workers.acquire();
+			}
+			try {
+				if (delay > 0) {
+					TimeUnit.MILLISECONDS.sleep(delay);
+				}
+			} finally {
+				if (workers != null) {
+					workers.release();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if ((errorRate > 0) && (random.nextDouble() < errorRate)) {
+			failedRequests.increment();
+			sendEmpty(exchange, errorStatus);
+			return true;
+		}
+		return false;
+	}
+
+	private static void sendEmpty(final HttpExchange exchange, final int status) throws IOException {
+		exchange.sendResponseHeaders(status, -1);
+		exchange.close();
+	}
+
+	private static void send(final HttpExchange exchange, final int status, final String contentType, final byte[] body) throws IOException {
+		final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		if ((acceptEncoding != null) && acceptEncoding.contains("gzip")) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			exchange.sendResponseHeaders(status, 0);
+			try (final OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+				out.write(body);
+			}
+		} else {
+			exchange.sendResponseHeaders(status, body.length);
+			try (final OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+
+	/**
+	 * Execute a WebService method.
+	 *
+	 * @param methodName method name
+	 * @param params method parameters
+	 * @return method result
+	 * @throws StubFault if the method fails
+	 */
+	private Map<String, Object> invoke(final String methodName, final Map<String, Object> params) throws StubFault {
+		switch (methodName) {
+			case "User.login":
+				if ((password != null) && !password.equals(params.get("password"))) {
+					throw new StubFault(FAULT_INVALID_LOGIN, "The username or password you entered is not valid.");
+				}
+				return map("id", 1, "token", "1-stub");
+			case "User.whoami":
+				return map("id", 1, "name", "stub@example.com", "real_name", "Stub User");
+			case "Bugzilla.version":
+				return map("version", VERSION);
+			case "Bugzilla.time":
+				return map("db_time", new Date(), "web_time", new Date(), "tz_name", "UTC");
+			case "Bug.legal_values":
+				return map("values", PRIORITIES);
+			case "Bug.fields":
+				return map("fields", new Object[]{statusField()});
+			case "Product.get_accessible_products":
+				return map("ids", productIds());
+			case "Product.get":
+				return map("products", getProducts(ids(params.get("ids"))));
+			case "Bug.create":
+				return map("id", createBug(System.currentTimeMillis()));
+			case "Bug.get":
+				return map("bugs", getBugs(ids(params.get("ids")), isTrue(params.get("permissive"))), "faults", new Object[0]);
+			case "Bug.search":
+				return map("bugs", searchBugs(params));
+			case "Bug.update":
+				return map("bugs", updateBugs(ids(params.get("ids")), params));
+			case "Bug.add_comment":
+				getBug(toInt(params.get("id"))).touch();
+				return map("id", nextCommentId.getAndIncrement());
+			default:
+				throw new StubFault(FAULT_UNKNOWN_METHOD, "Unknown method " + methodName);
+		}
+	}
+
+	private Object[] productIds() {
+		final Object[] ids = new Object[productCount];
+		for (int i = 0; i < productCount; i++) {
+			ids[i] = i + 1;
+		}
+		return ids;
+	}
+
+	private List<Object> getProducts(final List<Integer> ids) {
+		final List<Object> result = new ArrayList<>();
+		for (int id : ids) {
+			if ((id < 1) || (id > productCount)) {
+				continue;
+			}
+			final List<Object> components = new ArrayList<>();
+			for (int i = 1; i <= componentsPerProduct; i++) {
+				components.add(map("name", "Component " + i, "is_active", true));
+			}
+			final List<Object> versions = new ArrayList<>();
+			for (int i = 1; i <= versionsPerProduct; i++) {
+				versions.add(map("name", "1." + i, "is_active", true));
+			}
+			result.add(map("id", id, "name", "Product " + id, "components", components, "versions", versions));
+		}
+		return result;
+	}
+
+	private static Map<String, Object> statusField() {
+		final List<Object> values = new ArrayList<>();
+		for (String status : Arrays.asList("UNCONFIRMED", "CONFIRMED", "IN_PROGRESS")) {
+			values.add(map("name", status, "is_open", true, "can_change_to", new Object[]{map("name", "RESOLVED")}));
+		}
+		for (String status : Arrays.asList("RESOLVED", "VERIFIED")) {
+			values.add(map("name", status, "is_open", false, "can_change_to", new Object[]{map("name", "CONFIRMED")}));
+		}
+		return map("name", "bug_status", "values", values);
+	}
+
+	private List<Object> getBugs(final List<Integer> ids, final boolean permissive) throws StubFault {
+		final List<Object> result = new ArrayList<>(ids.size());
+		for (int id : ids) {
+			final StubBug bug = bugs.get(id);
+			if (bug != null) {
+				result.add(bug.toMap());
+			} else if (!permissive) {
+				throw new StubFault(FAULT_INVALID_BUG_ID, "Bug #" + id + " does not exist.");
+			}
+		}
+		return result;
+	}
+
+	private List<Object> searchBugs(final Map<String, Object> params) {
+		final Object since = params.get("last_change_time");
+		final long sinceMillis = since instanceof Date ? ((Date) since).getTime() : 0;
+		final int limit = params.containsKey("limit") ? toInt(params.get("limit")) : Integer.MAX_VALUE;
+		final int offset = params.containsKey("offset") ? toInt(params.get("offset")) : 0;
+		final List<Integer> ids = new ArrayList<>(params.containsKey("id") ? ids(params.get("id")) : bugs.keySet());
+		Collections.sort(ids);
+		final List<Object> result = new ArrayList<>();
+		int skipped = 0;
+		for (int id : ids) {
+			final StubBug bug = bugs.get(id);
+			if ((bug == null) || (bug.lastChangeMillis < sinceMillis)) {
+				continue;
+			}
+			if (skipped++ < offset) {
+				continue;
+			}
+			if (result.size() >= limit) {
+				break;
+			}
+			result.add(bug.toMap());
+		}
+		return result;
+	}
+
+	private List<Object> updateBugs(final List<Integer> ids, final Map<String, Object> params) throws StubFault {
+		final List<Object> result = new ArrayList<>(ids.size());
+		// Bugzilla updates all bugs in a single transaction, so nothing is updated if any bug is not valid
+		for (int id : ids) {
+			getBug(id);
+		}
+		for (int id : ids) {
+			final StubBug bug = getBug(id);
+			synchronized (bug) {
+				if (params.get("status") instanceof String) {
+					bug.status = (String) params.get("status");
+				}
+				if (params.get("resolution") instanceof String) {
+					bug.resolution = (String) params.get("resolution");
+				}
+				bug.touch();
+			}
+			result.add(map("id", id, "changes", Collections.emptyMap()));
+		}
+		return result;
+	}
+
+	private StubBug getBug(final int id) throws StubFault {
+		final StubBug bug = bugs.get(id);
+		if (bug == null) {
+			throw new StubFault(FAULT_INVALID_BUG_ID, "Bug #" + id + " does not exist.");
+		}
+		return bug;
+	}
+
+	private static boolean isTrue(final Object value) {
+		return Boolean.TRUE.equals(value) || "1".equals(value) || "true".equals(value);
+	}
+
+	private static List<Integer> ids(final Object value) {
+		if (!(value instanceof Object[])) {
+			return value == null ? Collections.emptyList() : Collections.singletonList(toInt(value));
+		}
+		final List<Integer> result = new ArrayList<>();
+		for (Object id : (Object[]) value) {
+			result.add(toInt(id));
+		}
+		return result;
+	}
+
+	private static int toInt(final Object value) {
+		return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(String.valueOf(value).trim());
+	}
+
+	private static Map<String, Object> map(final Object... keyValues) {
+		final Map<String, Object> result = new LinkedHashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			result.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return result;
+	}
+
+	private static final class StubBug {
+		private final int id;
+		private volatile String status = "UNCONFIRMED";
+		private volatile String resolution = "";
+		private volatile long lastChangeMillis;
+
+		StubBug(final int id, final long lastChangeMillis) {
+			this.id = id;
+			this.lastChangeMillis = lastChangeMillis;
+		}
+
+		void touch() {
+			lastChangeMillis = System.currentTimeMillis();
+		}
+
+		Map<String, Object> toMap() {
+			return map("id", id, "status", status, "resolution", resolution, "last_change_time", new Date(lastChangeMillis));
+		}
+	}
+
+	private static final class StubFault extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		private final int code;
+
+		StubFault(final int code, final String message) {
+			super(message);
+			this.code = code;
+		}
+	}
+}
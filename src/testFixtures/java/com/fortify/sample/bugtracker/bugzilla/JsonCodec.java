@@ -0,0 +1,152 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Minimal JSON codec of the REST API of {@link BugzillaStubServer}. Objects are read as {@link Map}, arrays as
+ * {@code Object[]}, the same way as by XML-RPC. Dates are written as ISO 8601 UTC strings the same way as by Bugzilla.
+ */
+final class JsonCodec {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+	private JsonCodec() {
+		// No implementation.
+	}
+
+	/**
+	 * Read a JSON object.
+	 *
+	 * @param in request body
+	 * @return object, empty if the body is empty
+	 * @throws IOException if the body is not valid JSON
+	 */
+	static Map<String, Object> readObject(final InputStream in) throws IOException {
+		try (final JsonParser parser = JSON_FACTORY.createParser(in)) {
+			return parser.nextToken() == JsonToken.START_OBJECT ? readObject(parser) : new LinkedHashMap<>();
+		}
+	}
+
+	private static Map<String, Object> readObject(final JsonParser parser) throws IOException {
+		final Map<String, Object> result = new LinkedHashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String name = parser.getCurrentName();
+			parser.nextToken();
+			result.put(name, readValue(parser));
+		}
+		return result;
+	}
+
+	private static Object readValue(final JsonParser parser) throws IOException {
+		switch (parser.currentToken()) {
+			case START_OBJECT:
+				return readObject(parser);
+			case START_ARRAY: {
+				final List<Object> values = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					values.add(readValue(parser));
+				}
+				return values.toArray();
+			}
+			case VALUE_STRING:
+				return parser.getText();
+			case VALUE_NUMBER_INT:
+				return parser.getNumberType() == JsonParser.NumberType.INT ? (Object) parser.getIntValue() : (Object) parser.getLongValue();
+			case VALUE_NUMBER_FLOAT:
+				return parser.getDoubleValue();
+			case VALUE_TRUE:
+				return Boolean.TRUE;
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Write a value as JSON.
+	 *
+	 * @param value value to be written
+	 * @return UTF-8 encoded JSON
+	 */
+	static byte[] write(final Object value) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		try (final JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+			writeValue(generator, value);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write JSON to memory", e);
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+		if (value instanceof Map) {
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+		} else if ((value instanceof Object[]) || (value instanceof Collection)) {
+			generator.writeStartArray();
+			for (Object item : value instanceof Object[] ? (Object[]) value : ((Collection<?>) value).toArray()) {
+				writeValue(generator, item);
+			}
+			generator.writeEndArray();
+		} else if ((value instanceof Integer) || (value instanceof Long)) {
+			generator.writeNumber(((Number) value).longValue());
+		} else if (value instanceof Number) {
+			generator.writeNumber(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (value instanceof Date) {
+			generator.writeString(formatDate((Date) value));
+		} else if (value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeString(value.toString());
+		}
+	}
+
+	static String formatDate(final Date date) {
+		return newDateFormat().format(date);
+	}
+
+	/**
+	 * @return parsed ISO 8601 UTC date or null if the text is not a date
+	 */
+	static Date parseDate(final String text) {
+		try {
+			return newDateFormat().parse(text);
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+
+	private static SimpleDateFormat newDateFormat() {
+		final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format;
+	}
+}
@@ -0,0 +1,237 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import com.j2bugzilla.base.BugzillaException;
+import com.j2bugzilla.base.BugzillaMethod;
+import com.j2bugzilla.base.ConnectionException;
+import com.j2bugzilla.rpc.LogIn;
+
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a Bugzilla traffic capture written by the {@link BugzillaPluginConstants#TRAFFIC_CAPTURE_FILE_NAME} option.
+ * <P>
+ * Every recorded client session is replayed by its own thread with a new Bugzilla client, so the replay exercises
+ * the same clients, HTTP transports and request metrics as the plugin. Methods are started at their recorded offsets,
+ * scaled by the speed, and recorded logins are replaced by logins with the given credentials, because passwords
+ * are not captured. Recorded and replayed latency of every method are printed at the end together with the number
+ * of methods whose outcome differs from the recorded one. Options are passed as {@code --name=value}:
+ * <pre>
+ * --file=capture.bin   capture file, required
+ * --url=               Bugzilla URL, the in-process {@link BugzillaStubServer} is started if empty
+ * --api=xmlrpc         Bugzilla API, xmlrpc or rest
+ * --speed=1            replay speed relative to the recording, 0 replays every session as fast as possible
+ * --user=stub@example.com  credentials used by replayed logins
+ * --password=password
+ * --products=1000      data set and latency of the started fake server
+ * --components=10
+ * --versions=5
+ * --bugs=10000
+ * --latency=0
+ * --jitter=0
+ * </pre>
+ * Started by {@code ./gradlew replay -Preplay.args="--file=capture.bin --speed=0"}.
+ */
+final class TrafficReplayDriver {
+
+	private static final int TIMEOUT_MILLIS = 60000;
+
+	private final Map<String, String> options;
+	private final Map<String, MethodStats> stats = new LinkedHashMap<>();
+
+	private TrafficReplayDriver(final Map<String, String> options) {
+		this.options = options;
+	}
+
+	public static void main(final String[] args) throws Exception {
+		final Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--")) {
+				throw new IllegalArgumentException("Invalid option " + arg + ", options are passed as --name=value");
+			}
+			final int eq = arg.indexOf('=');
+			options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+		}
+		if (!options.containsKey("file")) {
+			throw new IllegalArgumentException("Capture file is required, pass it as --file=<path>");
+		}
+		new TrafficReplayDriver(options).run();
+		System.exit(0);
+	}
+
+	private String option(final String name, final String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	private int intOption(final String name, final int defaultValue) {
+		return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+	}
+
+	private void run() throws Exception {
+		final Map<Integer, List<TrafficCapture.Record>> sessions = new LinkedHashMap<>();
+		long firstStartMillis = Long.MAX_VALUE;
+		int recordCount = 0;
+		try (final TrafficCapture.Reader reader = new TrafficCapture.Reader(Paths.get(option("file", null)))) {
+			for (TrafficCapture.Record record = reader.next(); record != null; record = reader.next()) {
+				sessions.computeIfAbsent(record.getSessionId(), id -> new ArrayList<>()).add(record);
+				firstStartMillis = Math.min(firstStartMillis, record.getStartMillis());
+				recordCount++;
+			}
+		}
+		System.out.println("Replaying " + recordCount + " methods of " + sessions.size() + " sessions");
+		if (recordCount == 0) {
+			return;
+		}
+
+		final String url = option("url", "");
+		if (!url.isEmpty()) {
+			replay(new URL(url), sessions, firstStartMillis);
+			return;
+		}
+		try (final BugzillaStubServer server = BugzillaStubServer.builder()
+				.products(intOption("products", 1000), intOption("components", 10), intOption("versions", 5))
+				.bugs(intOption("bugs", 10000))
+				.latency(intOption("latency", 0), intOption("jitter", 0))
+				.start()) {
+			replay(new URL(server.getUrl()), sessions, firstStartMillis);
+			System.out.println("Server requests: " + server.getRequestCount());
+		}
+	}
+
+	private void replay(final URL url, final Map<Integer, List<TrafficCapture.Record>> sessions, final long firstStartMillis)
+			throws InterruptedException {
+		final double speed = Double.parseDouble(option("speed", "1"));
+		final ExecutorService executor = Executors.newCachedThreadPool();
+		final long replayStartNanos = System.nanoTime();
+		for (List<TrafficCapture.Record> session : sessions.values()) {
+			executor.execute(() -> replaySession(url, session, speed, firstStartMillis, replayStartNanos));
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.DAYS);
+		report(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayStartNanos));
+	}
+
+	private void replaySession(final URL url, final List<TrafficCapture.Record> session, final double speed
+			, final long firstStartMillis, final long replayStartNanos) {
+		final BugzillaClient client = createClient(url);
+		for (TrafficCapture.Record record : session) {
+			if (speed > 0) {
+				final long dueNanos = replayStartNanos + (long) (TimeUnit.MILLISECONDS.toNanos(record.getStartMillis() - firstStartMillis) / speed);
+				final long waitNanos = dueNanos - System.nanoTime();
+				if (waitNanos > 0) {
+					try {
+						TimeUnit.NANOSECONDS.sleep(waitNanos);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+			final BugzillaMethod method = "User.login".equals(record.getMethodName())
+					? new LogIn(option("user", "stub@example.com"), option("password", "password"))
+					: new ReplayedMethod(record);
+			final RpcMetrics.Timer timer = RpcMetrics.start();
+			final long startNanos = System.nanoTime();
+			Exception error = null;
+			try {
+				client.executeMethod(method);
+			} catch (BugzillaException | RuntimeException e) {
+				error = e;
+			}
+			final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+			RpcMetrics.record(timer, url.toString(), record.getMethodName(), error);
+			final boolean mismatch = TrafficCapture.outcomeOf(error) != record.getOutcome()
+					|| TrafficCapture.errorCodeOf(error) != record.getErrorCode();
+			stats(record.getMethodName()).record(record.getDurationMicros(), micros, mismatch);
+		}
+	}
+
+	private BugzillaClient createClient(final URL url) {
+		if (BugzillaPluginConstants.BUGZILLA_API_REST.equalsIgnoreCase(option("api", BugzillaPluginConstants.BUGZILLA_API_XMLRPC))) {
+			return new RestBugzillaClient(url, TIMEOUT_MILLIS, TIMEOUT_MILLIS, null, null, null, null);
+		}
+		try {
+			return new XmlRpcBugzillaClient(url, TIMEOUT_MILLIS, TIMEOUT_MILLIS, new KeepAliveTransportFactory(TIMEOUT_MILLIS)
+					, null, null, null, null);
+		} catch (ConnectionException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	private synchronized MethodStats stats(final String methodName) {
+		return stats.computeIfAbsent(methodName, name -> new MethodStats());
+	}
+
+	private synchronized void report(final long millis) {
+		System.out.println("Replayed in " + millis + " ms");
+		System.out.printf("%-32s %8s %11s %11s %11s %11s %10s%n", "method", "count", "rec p50 us", "rec p99 us"
+				, "p50 us", "p99 us", "mismatches");
+		for (Map.Entry<String, MethodStats> entry : stats.entrySet()) {
+			final MethodStats methodStats = entry.getValue();
+			System.out.printf("%-32s %8d %11d %11d %11d %11d %10d%n", entry.getKey(), methodStats.replayed.getCount()
+					, methodStats.recorded.getValueAtPercentile(50), methodStats.recorded.getValueAtPercentile(99)
+					, methodStats.replayed.getValueAtPercentile(50), methodStats.replayed.getValueAtPercentile(99)
+					, methodStats.mismatches.sum());
+		}
+		System.out.println(RpcMetrics.snapshot());
+	}
+
+	/**
+	 * Recorded method with redacted parameters removed, so the client adds its own authentication.
+	 */
+	private static final class ReplayedMethod implements BugzillaMethod {
+		private final String methodName;
+		private final Map<Object, Object> params = new HashMap<>();
+
+		ReplayedMethod(final TrafficCapture.Record record) {
+			this.methodName = record.getMethodName();
+			for (Map.Entry<Object, Object> entry : record.getParams().entrySet()) {
+				if (!TrafficCapture.REDACTED.equals(entry.getValue())) {
+					params.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+
+		@Override
+		public void setResultMap(final Map<Object, Object> hash) {
+			// Result is not needed
+		}
+
+		@Override
+		public Map<Object, Object> getParameterMap() {
+			return Collections.unmodifiableMap(params);
+		}
+
+		@Override
+		public String getMethodName() {
+			return methodName;
+		}
+	}
+
+	private static final class MethodStats {
+		private final LatencyHistogram recorded = new LatencyHistogram();
+		private final LatencyHistogram replayed = new LatencyHistogram();
+		private final LongAdder mismatches = new LongAdder();
+
+		void record(final long recordedMicros, final long replayedMicros, final boolean mismatch) {
+			recorded.record(recordedMicros);
+			replayed.record(replayedMicros);
+			if (mismatch) {
+				mismatches.increment();
+			}
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/**
+ * (c) Copyright [2015-2018] Micro Focus or one of its affiliates.
+ */
+package com.fortify.sample.bugtracker.bugzilla;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal server side XML-RPC codec of {@link BugzillaStubServer}: reads method calls and writes method responses and faults.
+ * <P>
+ * Supported types are the ones used by Bugzilla: int, i4, i8, boolean, string, double, dateTime.iso8601, base64, nil,
+ * struct and array. Structs are read as {@link Map}, arrays as {@code Object[]}. Responses use only the types understood
+ * by a client without XML-RPC extensions, so null values are written as empty strings and long values as int.
+ */
+final class XmlRpcCodec {
+
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+	private static final String DATE_FORMAT = "yyyyMMdd'T'HH:mm:ss";
+
+	private XmlRpcCodec() {
+		// No implementation.
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * Decoded XML-RPC method call.
+	 */
+	static final class MethodCall {
+		final String methodName;
+		final List<Object> params;
+
+		MethodCall(final String methodName, final List<Object> params) {
+			this.methodName = methodName;
+			this.params = params;
+		}
+
+		/**
+		 * @return first parameter as a struct, Bugzilla methods take a single struct parameter
+		 */
+		@SuppressWarnings("unchecked")
+		Map<String, Object> getStructParam() {
+			return (!params.isEmpty() && (params.get(0) instanceof Map)) ? (Map<String, Object>) params.get(0) : new LinkedHashMap<>();
+		}
+	}
+
+	/**
+	 * Read a method call.
+	 *
+	 * @param in request body
+	 * @return decoded method call
+	 * @throws XMLStreamException if the request is not a valid XML-RPC method call
+	 */
+	static MethodCall readMethodCall(final InputStream in) throws XMLStreamException {
+		final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			String methodName = null;
+			final List<Object> params = new ArrayList<>();
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				if ("methodName".equals(reader.getLocalName())) {
+					methodName = reader.getElementText().trim();
+				} else if ("value".equals(reader.getLocalName())) {
+					params.add(readValue(reader));
+				}
+			}
+			if (methodName == null) {
+				throw new XMLStreamException("XML-RPC methodName is missing");
+			}
+			return new MethodCall(methodName, params);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Read a value, the reader is positioned at the value start element and left at its end element.
+	 */
+	private static Object readValue(final XMLStreamReader reader) throws XMLStreamException {
+		final StringBuilder text = new StringBuilder();
+		Object result = null;
+		boolean typed = false;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+				text.append(reader.getText());
+			} else if (event == XMLStreamConstants.START_ELEMENT) {
+				typed = true;
+				result = readTypedValue(reader);
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			}
+		}
+		return typed ? result : text.toString();
+	}
+
+	private static Object readTypedValue(final XMLStreamReader reader) throws XMLStreamException {
+		final String type = reader.getLocalName();
+		switch (type) {
+			case "struct":
+				return readStruct(reader);
+			case "array":
+				return readArray(reader);
+			case "nil":
+				reader.nextTag();
+				return null;
+			default:
+				return parseScalar(type, reader.getElementText().trim());
+		}
+	}
+
+	private static Object parseScalar(final String type, final String text) throws XMLStreamException {
+		switch (type) {
+			case "int":
+			case "i4":
+				return Integer.valueOf(text);
+			case "i8":
+				return Long.valueOf(text);
+			case "boolean":
+				return "1".equals(text) || "true".equalsIgnoreCase(text);
+			case "double":
+				return Double.valueOf(text);
+			case "dateTime.iso8601":
+				try {
+					return newDateFormat().parse(text);
+				} catch (ParseException e) {
+					throw new XMLStreamException("Invalid XML-RPC date: " + text);
+				}
+			case "base64":
+				return Base64.getMimeDecoder().decode(text);
+			default:
+				return text;
+		}
+	}
+
+	private static Map<String, Object> readStruct(final XMLStreamReader reader) throws XMLStreamException {
+		final Map<String, Object> result = new LinkedHashMap<>();
+		String name = null;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				if ("name".equals(reader.getLocalName())) {
+					name = reader.getElementText();
+				} else if ("value".equals(reader.getLocalName())) {
+					result.put(name, readValue(reader));
+				}
+			} else if ((event == XMLStreamConstants.END_ELEMENT) && "struct".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	private static Object[] readArray(final XMLStreamReader reader) throws XMLStreamException {
+		final List<Object> result = new ArrayList<>();
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			if ((event == XMLStreamConstants.START_ELEMENT) && "value".equals(reader.getLocalName())) {
+				result.add(readValue(reader));
+			} else if ((event == XMLStreamConstants.END_ELEMENT) && "array".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * Write a successful method response.
+	 *
+	 * @param result result value
+	 * @return response document
+	 */
+	static String writeResponse(final Object result) {
+		final StringBuilder sb = new StringBuilder(256);
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param>");
+		writeValue(sb, result);
+		return sb.append("</param></params></methodResponse>").toString();
+	}
+
+	/**
+	 * Write a fault response.
+	 *
+	 * @param code fault code
+	 * @param message fault message
+	 * @return response document
+	 */
+	static String writeFault(final int code, final String message) {
+		final Map<String, Object> fault = new LinkedHashMap<>();
+		fault.put("faultCode", code);
+		fault.put("faultString", message);
+		final StringBuilder sb = new StringBuilder(256);
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><fault>");
+		writeValue(sb, fault);
+		return sb.append("</fault></methodResponse>").toString();
+	}
+
+	private static void writeValue(final StringBuilder sb, final Object value) {
+		sb.append("<value>");
+		if (value == null) {
+			sb.append("<string></string>");
+		} else if (value instanceof String) {
+			sb.append("<string>");
+			escape(sb, (String) value);
+			sb.append("</string>");
+		} else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			sb.append("<int>").append(value).append("</int>");
+		} else if (value instanceof Long) {
+			sb.append("<int>").append(Math.toIntExact((Long) value)).append("</int>");
+		} else if (value instanceof Boolean) {
+			sb.append("<boolean>").append(((Boolean) value) ? '1' : '0').append("</boolean>");
+		} else if (value instanceof Number) {
+			sb.append("<double>").append(((Number) value).doubleValue()).append("</double>");
+		} else if (value instanceof Date) {
+			sb.append("<dateTime.iso8601>").append(newDateFormat().format((Date) value)).append("</dateTime.iso8601>");
+		} else if (value instanceof byte[]) {
+			sb.append("<base64>").append(Base64.getEncoder().encodeToString((byte[]) value)).append("</base64>");
+		} else if (value instanceof Map) {
+			sb.append("<struct>");
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				sb.append("<member><name>");
+				escape(sb, String.valueOf(entry.getKey()));
+				sb.append("</name>");
+				writeValue(sb, entry.getValue());
+				sb.append("</member>");
+			}
+			sb.append("</struct>");
+		} else if ((value instanceof Object[]) || (value instanceof Collection)) {
+			sb.append("<array><data>");
+			for (Object item : value instanceof Object[] ? (Object[]) value : ((Collection<?>) value).toArray()) {
+				writeValue(sb, item);
+			}
+			sb.append("</data></array>");
+		} else {
+			sb.append("<string>");
+			escape(sb, String.valueOf(value));
+			sb.append("</string>");
+		}
+		sb.append("</value>");
+	}
+
+	private static void escape(final StringBuilder sb, final String text) {
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			switch (c) {
+				case '<':
+					sb.append("&lt;");
+					break;
+				case '>':
+					sb.append("&gt;");
+					break;
+				case '&':
+					sb.append("&amp;");
+					break;
+				default:
+					sb.append(c);
+			}
+		}
+	}
+
+	/**
+	 * Dates are formatted in the default time zone the same way as by the XML-RPC client.
+	 */
+	private static SimpleDateFormat newDateFormat() {
+		return new SimpleDateFormat(DATE_FORMAT);
+	}
+}